@@ -0,0 +1,97 @@
+package com.beartrail.marketdata.benchmark;
+
+import com.beartrail.marketdata.client.upstox.UpstoxQuoteDecoder;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.dto.DataDto;
+import com.beartrail.marketdata.model.dto.LatestMarketDataResponseDto;
+import com.beartrail.marketdata.model.dto.PriceUpdateDto;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.service.MarketDataKafkaProducer;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-refresh cost of turning an Upstox quote response into Kafka payloads and persistable rows, for
+ * the entity path (bound DTO map -> {@code MarketData} -> {@code PriceUpdateEvent} -> ObjectMapper)
+ * against the columnar path ({@link UpstoxQuoteDecoder} -> {@link CandleBatch} -> streaming generator).
+ * Run with the gc profiler and compare {@code gc.alloc.rate.norm} per operation; one operation is one
+ * refresh of {@code instruments} symbols.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CandlePipelineBenchmark {
+
+    @Param("10000")
+    private int instruments;
+
+    private byte[] response;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final UpstoxQuoteDecoder quoteDecoder = new UpstoxQuoteDecoder();
+    private CandleBatch batch;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<String, DataDto> quotes = new LinkedHashMap<>(instruments * 2);
+        for (int i = 0; i < instruments; i++) {
+            double price = 100 + i % 500;
+            PriceUpdateDto ohlc = new PriceUpdateDto(price, price + 1, price - 1, price + 0.5, 1_000L + i, 1_754_451_660_000L);
+            quotes.put("NSE_EQ|INE" + String.format("%06d", i) + "01018", new DataDto(price + 0.25, String.valueOf(i), ohlc, ohlc));
+        }
+        response = objectMapper.writeValueAsBytes(new LatestMarketDataResponseDto("success", quotes));
+        batch = new CandleBatch(instruments);
+    }
+
+    @Benchmark
+    public void entityPath(Blackhole blackhole) throws IOException {
+        Map<String, DataDto> quotes = objectMapper.readValue(response, LatestMarketDataResponseDto.class).getData();
+        List<MarketData> candles = new ArrayList<>(quotes.size());
+        for (Map.Entry<String, DataDto> entry : quotes.entrySet()) {
+            DataDto dataDto = entry.getValue();
+            candles.add(new MarketData(entry.getKey(), TimeInterval.ONE_MINUTE, dataDto.getLastPrice(),
+                    dataDto.getInstrumentToken(), dataDto.getPrevOhlc(), dataDto.getLiveOhlc()));
+        }
+        for (MarketData candle : candles) {
+            blackhole.consume(objectMapper.writeValueAsString(candle.toPriceUpdateEvent()));
+        }
+        blackhole.consume(candles);
+    }
+
+    @Benchmark
+    public void columnarPath(Blackhole blackhole) throws IOException {
+        batch.clear();
+        quoteDecoder.decode(new ByteArrayInputStream(response), TimeInterval.ONE_MINUTE, batch);
+        CharArrayWriter buffer = new CharArrayWriter(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            generator.setRootValueSeparator(null);
+            for (int row = 0; row < batch.size(); row++) {
+                MarketDataKafkaProducer.writeEvent(generator, batch, row);
+                generator.flush();
+                blackhole.consume(buffer.toString());
+                buffer.reset();
+            }
+        }
+        blackhole.consume(batch);
+    }
+}
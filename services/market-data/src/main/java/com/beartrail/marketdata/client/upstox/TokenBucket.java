@@ -0,0 +1,46 @@
+package com.beartrail.marketdata.client.upstox;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that hands out permits at a fixed rate with a burst of up to {@code capacity}.
+ * Callers reserve a permit up front and sleep for the returned delay, so waiting threads are
+ * served in reservation order and the bucket never has to be polled.
+ */
+public final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(int permits, Duration period) {
+        this(permits, period, System::nanoTime);
+    }
+
+    TokenBucket(int permits, Duration period, LongSupplier nanoClock) {
+        if (permits < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Token bucket needs a positive rate: " + permits + " per " + period);
+        }
+        this.capacity = permits;
+        this.tokensPerNano = permits / (double) period.toNanos();
+        this.nanoClock = nanoClock;
+        this.tokens = permits;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes one permit, possibly borrowing against future refills.
+     *
+     * @return The number of nanoseconds the caller must wait before using the permit.
+     */
+    public synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
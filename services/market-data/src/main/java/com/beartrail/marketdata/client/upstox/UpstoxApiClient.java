@@ -1,14 +1,10 @@
 package com.beartrail.marketdata.client.upstox;
 
 import com.beartrail.marketdata.config.UpstoxConfig;
-import com.beartrail.marketdata.model.dto.DataDto;
-import com.beartrail.marketdata.model.dto.LatestMarketDataResponseDto;
-import com.beartrail.marketdata.model.entity.MarketData;
-import com.beartrail.marketdata.model.entity.TimeInterval;
-import org.springframework.http.HttpEntity;
+import com.beartrail.marketdata.model.batch.CandleBatch;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -17,50 +13,35 @@ import java.util.List;
 @Component
 public class UpstoxApiClient {
 
-    private final String baseUrl;
-    private final String authToken;
+    private static final List<MediaType> ACCEPT_JSON = List.of(MediaType.APPLICATION_JSON);
+
+    private final String authorization;
     private final RestTemplate restTemplate;
+    private final UpstoxQuoteDecoder quoteDecoder = new UpstoxQuoteDecoder();
 
     public UpstoxApiClient(UpstoxConfig config, RestTemplate restTemplate) {
-        this.baseUrl = config.getBaseUrl();
-        this.authToken = config.getAuthToken();
+        this.authorization = "Bearer " + config.getAuthToken();
         this.restTemplate = restTemplate;
     }
 
-    public List<MarketData> getMarketData(List<String> symbolList, String interval) {
-        String url = String.format("%s/market-quote/ohlc?instrument_key=%s&interval=%s", baseUrl, String.join(",", symbolList), interval);
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + authToken);
-        headers.set("Content-Type", "application/json");
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-        ResponseEntity<LatestMarketDataResponseDto> responseEntity = restTemplate.exchange(
-                url,
+    /**
+     * Fetches the OHLC quotes for a batch of symbols and appends the completed candles to {@code batch}.
+     * The body is decoded as it streams in (see {@link UpstoxQuoteDecoder}); an I/O failure while reading
+     * it surfaces as a {@link org.springframework.web.client.ResourceAccessException}, like a connect failure.
+     *
+     * @return The number of rows appended.
+     */
+    public int fetchMarketData(UpstoxQuoteRequest request, CandleBatch batch) {
+        Integer added = restTemplate.execute(
+                request.uri(),
                 HttpMethod.GET,
-                entity,
-                LatestMarketDataResponseDto.class
+                httpRequest -> {
+                    HttpHeaders headers = httpRequest.getHeaders();
+                    headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                    headers.setAccept(ACCEPT_JSON);
+                },
+                response -> quoteDecoder.decode(response.getBody(), request.interval(), batch)
         );
-
-        LatestMarketDataResponseDto response = responseEntity.getBody();
-        if(response == null || response.getData() == null || response.getData().isEmpty()) {
-            throw new RuntimeException("No market data found for the given symbol and interval");
-        }
-
-        try {
-            return response.getData().entrySet().stream()
-                    .map(entry -> {
-                        String symbol = entry.getKey();
-                        DataDto dataDto = entry.getValue();
-                        return new MarketData(
-                                symbol,
-                                dataDto.getLastPrice(),
-                                dataDto.getInstrumentToken(),
-                                dataDto.getPrevOhlc(),
-                                dataDto.getLiveOhlc()
-                        );
-                    }).toList();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse market data response", e);
-        }
+        return added != null ? added : 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,238 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.config.UpstoxConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fans the OHLC quote batches for a symbol universe out over a bounded pool, throttled by token
+ * buckets matching Upstox's per-second and per-minute request limits. Transient failures are
+ * retried with full-jitter exponential backoff, and each batch is handed to the caller's thread
+ * as soon as it completes, so a refresh takes about as long as its slowest batch.
+ * <p>
+ * Candles are decoded into pooled {@link CandleBatch} buffers that are recycled once the caller's
+ * callback returns, so a steady-state refresh allocates no new columns.
+ */
+@Slf4j
+@Component
+public class UpstoxFetchExecutor {
+
+    private final UpstoxApiClient upstoxApiClient;
+    private final UpstoxConfig config;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<CandleBatch> freeBatches = new ConcurrentLinkedQueue<>();
+    private final Map<String, BatchPlan> plans = new ConcurrentHashMap<>();
+    private final TokenBucket perSecondLimit;
+    private final TokenBucket perMinuteLimit;
+    private final Timer batchTimer;
+    private final Counter retries;
+    private final Counter failedBatches;
+
+    public UpstoxFetchExecutor(UpstoxApiClient upstoxApiClient, UpstoxConfig config, MeterRegistry meterRegistry) {
+        this.upstoxApiClient = upstoxApiClient;
+        this.config = config;
+        this.executor = Executors.newFixedThreadPool(config.getMaxConcurrentRequests(), new FetchThreadFactory());
+        this.perSecondLimit = new TokenBucket(config.getRequestsPerSecond(), Duration.ofSeconds(1));
+        this.perMinuteLimit = new TokenBucket(config.getRequestsPerMinute(), Duration.ofMinutes(1));
+        this.batchTimer = Timer.builder("upstox.fetch.batch")
+                .description("Wall time per OHLC batch including retries and throttling")
+                .register(meterRegistry);
+        this.retries = Counter.builder("upstox.fetch.retries").register(meterRegistry);
+        this.failedBatches = Counter.builder("upstox.fetch.failures").register(meterRegistry);
+    }
+
+    /**
+     * Fetches quotes for every symbol, in batches of at most {@code maxInstrumentsPerRequest}.
+     *
+     * @param symbols  The instrument keys to fetch.
+     * @param interval The Upstox interval value (e.g., "I1").
+     * @param onBatch  Invoked on the calling thread with each batch's candles, in completion order. The
+     *                 batch is recycled when the callback returns and must not be retained.
+     * @return The number of batches that failed after exhausting their retries.
+     */
+    public int fetchAll(List<String> symbols, String interval, Consumer<CandleBatch> onBatch) {
+        CompletionService<CandleBatch> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<CandleBatch>> submitted = new ArrayList<>();
+        for (UpstoxQuoteRequest request : plan(symbols, interval)) {
+            submitted.add(completionService.submit(() -> fetchWithRetry(request)));
+        }
+
+        Set<Future<CandleBatch>> taken = new HashSet<>();
+        int failed = 0;
+        try {
+            while (taken.size() < submitted.size()) {
+                Future<CandleBatch> future = completionService.take();
+                taken.add(future);
+                CandleBatch batch = null;
+                try {
+                    batch = future.get();
+                    onBatch.accept(batch);
+                } catch (ExecutionException e) {
+                    failed++;
+                    failedBatches.increment();
+                    log.error("Upstox batch fetch failed for interval: {}", interval, e.getCause());
+                } finally {
+                    if (batch != null) {
+                        release(batch);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Upstox batches", e);
+        } finally {
+            if (taken.size() < submitted.size()) {
+                abandon(submitted, taken);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Cancels the fetches the caller will no longer wait for, after the callback threw or the wait was
+     * interrupted, and recycles the batches of those that already completed. A fetch cancelled mid-request
+     * leaves its batch to the garbage collector; {@link #acquireBatch()} allocates a replacement.
+     */
+    private void abandon(List<Future<CandleBatch>> submitted, Set<Future<CandleBatch>> taken) {
+        for (Future<CandleBatch> future : submitted) {
+            if (taken.contains(future) || future.cancel(true)) {
+                continue;
+            }
+            try {
+                release(future.get());                                      // already done, so this does not block
+            } catch (ExecutionException | CancellationException | InterruptedException e) {
+                // failed or cancelled fetches have released their own batch
+            }
+        }
+    }
+
+    /**
+     * The batch requests for a symbol universe, rebuilt only when the universe list itself is replaced.
+     */
+    private List<UpstoxQuoteRequest> plan(List<String> symbols, String interval) {
+        BatchPlan plan = plans.get(interval);
+        if (plan != null && plan.symbols() == symbols) {
+            return plan.requests();
+        }
+
+        int batchSize = config.getMaxInstrumentsPerRequest();
+        List<UpstoxQuoteRequest> requests = new ArrayList<>((symbols.size() + batchSize - 1) / batchSize);
+        for (int i = 0; i < symbols.size(); i += batchSize) {
+            List<String> batchSymbols = symbols.subList(i, Math.min(i + batchSize, symbols.size()));
+            requests.add(UpstoxQuoteRequest.of(config.getBaseUrl(), batchSymbols, interval));
+        }
+        plans.put(interval, new BatchPlan(symbols, requests));
+        return requests;
+    }
+
+    private CandleBatch fetchWithRetry(UpstoxQuoteRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        CandleBatch batch = acquireBatch();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                acquirePermit();
+                try {
+                    upstoxApiClient.fetchMarketData(request, batch);
+                    return batch;
+                } catch (RuntimeException e) {
+                    batch.clear();                                              // drop rows from a partially decoded response
+                    if (attempt >= config.getMaxRetries() || !isRetryable(e)) {
+                        release(batch);
+                        throw e;
+                    }
+                    retries.increment();
+                    long backoffMillis = backoffMillis(attempt);
+                    log.warn("Retrying Upstox batch of {} symbols in {} ms (attempt {}): {}",
+                            request.symbols().size(), backoffMillis, attempt + 1, e.getMessage());
+                    TimeUnit.MILLISECONDS.sleep(backoffMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            release(batch);                                                 // interrupted while throttled or backing off
+            throw e;
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CandleBatch acquireBatch() {
+        CandleBatch batch = freeBatches.poll();
+        return batch != null ? batch : new CandleBatch(config.getMaxInstrumentsPerRequest());
+    }
+
+    private void release(CandleBatch batch) {
+        batch.clear();
+        freeBatches.offer(batch);
+    }
+
+    private void acquirePermit() throws InterruptedException {
+        long waitNanos = Math.max(perSecondLimit.reserve(), perMinuteLimit.reserve());
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(config.getMaxBackoff().toMillis(), config.getInitialBackoff().toMillis() << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        if (e instanceof HttpStatusCodeException statusException) {
+            return statusException.getStatusCode().is5xxServerError()
+                    || statusException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record BatchPlan(List<String> symbols, List<UpstoxQuoteRequest> requests) {
+    }
+
+    private static final class FetchThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "upstox-fetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Token-level decoder for the Upstox instrument master (a JSON array of instrument objects). Instruments
+ * of the {@link InstrumentTable#SEGMENTS} are streamed straight into an {@link InstrumentTable}; other
+ * segments and fields are skipped without being materialized, so no tree of the whole file is built.
+ * <p>
+ * Thread-safe: all parse state lives in the per-call parser.
+ */
+public class UpstoxInstrumentDecoder {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * @throws IOException If reading the stream fails or it is not a JSON array of objects.
+     */
+    public InstrumentTable decode(InputStream instruments) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(instruments)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of instruments");
+            }
+            InstrumentTable.Builder builder = InstrumentTable.builder(8192);
+            Set<String> seen = new HashSet<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Expected an instrument object but found " + token);
+                }
+                readInstrument(parser, builder, seen);
+            }
+            return builder.build();
+        }
+    }
+
+    private static void readInstrument(JsonParser parser, InstrumentTable.Builder builder, Set<String> seen) throws IOException {
+        String segment = null;
+        String instrumentKey = null;
+        String tradingSymbol = null;
+        String name = null;
+        String exchangeToken = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY || value == JsonToken.VALUE_NULL) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "segment" -> segment = parser.getText();
+                case "instrument_key" -> instrumentKey = parser.getText();
+                case "trading_symbol" -> tradingSymbol = parser.getText();
+                case "name" -> name = parser.getText();
+                case "exchange_token" -> exchangeToken = parser.getText();
+                default -> {
+                }
+            }
+        }
+
+        if (InstrumentTable.SEGMENTS.contains(segment) && instrumentKey != null && !instrumentKey.isEmpty()
+                && seen.add(instrumentKey)) {
+            builder.add(segment, instrumentKey, tradingSymbol, name, exchangeToken);
+        }
+    }
+}
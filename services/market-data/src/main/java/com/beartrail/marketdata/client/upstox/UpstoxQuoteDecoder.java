@@ -0,0 +1,123 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Token-level decoder for the {@code /market-quote/ohlc} response. Quotes are read straight off the
+ * body stream into a {@link CandleBatch}; fields other than {@code last_price}, {@code instrument_token}
+ * and {@code prev_ohlc} are skipped without being materialized, and no per-symbol map or DTO is built.
+ * Symbols are object keys, so Jackson's name canonicalization reuses the same strings every minute.
+ * <p>
+ * Thread-safe: all parse state lives in the per-call parser.
+ */
+public class UpstoxQuoteDecoder {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Appends the completed ({@code prev_ohlc}) candle of every quote in the response to {@code batch}.
+     *
+     * @return The number of rows appended.
+     * @throws RuntimeException If the body is not a quote response or carries no quotes.
+     * @throws IOException      If reading the body fails.
+     */
+    public int decode(InputStream body, TimeInterval interval, CandleBatch batch) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            int quotes = -1;
+            int added = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    quotes = 0;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String symbol = parser.currentName();
+                        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+                        quotes++;
+                        if (readQuote(parser, symbol, interval, batch)) {
+                            added++;
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (quotes <= 0) {
+                throw new RuntimeException("No market data found for the given symbol and interval");
+            }
+            return added;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse market data response", e);
+        }
+    }
+
+    private static boolean readQuote(JsonParser parser, String symbol, TimeInterval interval, CandleBatch batch) throws IOException {
+        double lastPrice = Double.NaN;
+        String instrumentToken = null;
+        boolean hasCandle = false;
+        double open = Double.NaN;
+        double high = Double.NaN;
+        double low = Double.NaN;
+        double close = Double.NaN;
+        long volume = 0L;
+        long timestamp = 0L;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "last_price" -> lastPrice = readDouble(parser, value);
+                case "instrument_token" -> instrumentToken = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                case "prev_ohlc" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();                                  // null: no completed candle yet
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String ohlcField = parser.currentName();
+                        JsonToken ohlcValue = parser.nextToken();
+                        switch (ohlcField) {
+                            case "open" -> open = readDouble(parser, ohlcValue);
+                            case "high" -> high = readDouble(parser, ohlcValue);
+                            case "low" -> low = readDouble(parser, ohlcValue);
+                            case "close" -> close = readDouble(parser, ohlcValue);
+                            case "volume" -> volume = ohlcValue == JsonToken.VALUE_NULL ? 0L : parser.getValueAsLong();
+                            case "ts" -> {
+                                hasCandle = ohlcValue != JsonToken.VALUE_NULL;
+                                timestamp = parser.getValueAsLong();
+                            }
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (!hasCandle) {
+            return false;                                                       // no completed candle to key the row on
+        }
+        batch.add(symbol, interval, instrumentToken, timestamp, lastPrice, open, high, low, close, volume);
+        return true;
+    }
+
+    private static double readDouble(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? Double.NaN : parser.getValueAsDouble();
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
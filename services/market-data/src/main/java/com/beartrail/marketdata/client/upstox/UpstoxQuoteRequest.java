@@ -0,0 +1,25 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * One {@code /market-quote/ohlc} call with its URI already encoded, so the 500-key query string is
+ * built once per batch and reused by every refresh and retry.
+ */
+public record UpstoxQuoteRequest(List<String> symbols, TimeInterval interval, URI uri) {
+
+    public static UpstoxQuoteRequest of(String baseUrl, List<String> symbols, String interval) {
+        URI uri = UriComponentsBuilder.fromUriString(baseUrl)
+                .path("/market-quote/ohlc")
+                .queryParam("instrument_key", String.join(",", symbols))
+                .queryParam("interval", interval)
+                .encode()
+                .build()
+                .toUri();
+        return new UpstoxQuoteRequest(symbols, TimeInterval.fromValue(interval), uri);
+    }
+}
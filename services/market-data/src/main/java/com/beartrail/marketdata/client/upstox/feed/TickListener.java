@@ -0,0 +1,16 @@
+package com.beartrail.marketdata.client.upstox.feed;
+
+/**
+ * Receives decoded trade ticks from the market feed, without boxing.
+ */
+@FunctionalInterface
+public interface TickListener {
+
+    /**
+     * @param instrumentKey     The Upstox instrument key (e.g., "NSE_EQ|INE002A01018").
+     * @param lastPrice         Last traded price.
+     * @param lastTradeTime     Last trade time in ms from epoch.
+     * @param lastTradeQuantity Quantity of the last trade.
+     */
+    void onTick(String instrumentKey, double lastPrice, long lastTradeTime, long lastTradeQuantity);
+}
@@ -0,0 +1,278 @@
+package com.beartrail.marketdata.client.upstox.feed;
+
+import com.beartrail.marketdata.config.UpstoxConfig;
+import com.beartrail.marketdata.config.UpstoxFeedConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket client for the Upstox V3 market data feed. On every (re)connect it authorizes a feed URI
+ * (unless {@code beartrail.upstox.feed.uri} pins one), subscribes the instrument keys in chunks, and
+ * hands each decoded tick to the {@link TickListener} on the socket's receive thread. Dropped
+ * connections are retried with capped exponential backoff. {@link #updateSubscriptions(List, List)}
+ * changes the subscribed set on the live connection without reconnecting.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "beartrail.ingestion", name = "mode", havingValue = "websocket")
+public class UpstoxFeedClient {
+
+    static final String AUTHORIZE_PATH = "/feed/market-data-feed/authorize";
+
+    private final UpstoxConfig upstoxConfig;
+    private final UpstoxFeedConfig feedConfig;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService reconnectExecutor;
+    private final Counter ticks;
+    private final Counter frames;
+    private final Counter reconnects;
+
+    private volatile List<String> instrumentKeys = List.of();
+    private volatile TickListener listener;
+    private volatile WebSocket webSocket;
+    private CompletableFuture<WebSocket> pendingSends = CompletableFuture.completedFuture(null);
+    private volatile boolean running;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    public UpstoxFeedClient(UpstoxConfig upstoxConfig, UpstoxFeedConfig feedConfig, RestTemplate restTemplate, MeterRegistry meterRegistry) {
+        this.upstoxConfig = upstoxConfig;
+        this.feedConfig = feedConfig;
+        this.restTemplate = restTemplate;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(feedConfig.getConnectTimeout())
+                .build();
+        this.reconnectExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upstox-feed-connect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticks = Counter.builder("upstox.feed.ticks").register(meterRegistry);
+        this.frames = Counter.builder("upstox.feed.frames").register(meterRegistry);
+        this.reconnects = Counter.builder("upstox.feed.reconnects").register(meterRegistry);
+    }
+
+    /**
+     * Connects and subscribes {@code keys}; ticks are delivered to {@code tickListener} until {@link #stop()}.
+     */
+    public void start(List<String> keys, TickListener tickListener) {
+        this.instrumentKeys = List.copyOf(keys);
+        this.listener = tickListener;
+        this.running = true;
+        reconnectExecutor.execute(this::connect);
+    }
+
+    /**
+     * Subscribes {@code added} and unsubscribes {@code removed} on the current connection, and makes the
+     * new set the one subscribed on reconnect.
+     */
+    public synchronized void updateSubscriptions(List<String> added, List<String> removed) {
+        List<String> keys = new ArrayList<>(instrumentKeys);
+        keys.removeAll(new HashSet<>(removed));
+        keys.addAll(added);
+        instrumentKeys = List.copyOf(keys);
+
+        WebSocket socket = webSocket;
+        if (socket == null) {
+            return;                                                     // the next connect subscribes the new set
+        }
+        send(socket, "unsub", removed);
+        send(socket, "sub", added).whenComplete((ws, ex) -> {
+            if (ex != null) {
+                log.error("Market feed subscription update failed", ex);
+                socket.abort();
+            }
+        });
+        log.info("Updated market feed subscriptions: +{} -{}", added.size(), removed.size());
+    }
+
+    public boolean isConnected() {
+        WebSocket current = webSocket;
+        return current != null && !current.isInputClosed() && !current.isOutputClosed();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        reconnectExecutor.shutdownNow();
+        WebSocket current = webSocket;
+        if (current != null) {
+            current.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        try {
+            URI uri = feedConfig.getUri() != null ? URI.create(feedConfig.getUri()) : authorize();
+            httpClient.newWebSocketBuilder()
+                    .connectTimeout(feedConfig.getConnectTimeout())
+                    .buildAsync(uri, new FeedListener())
+                    .whenComplete((socket, ex) -> {
+                        if (ex != null) {
+                            log.warn("Market feed connection failed: {}", ex.getMessage());
+                            scheduleReconnect();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Market feed authorization failed: {}", e.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    private URI authorize() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + upstoxConfig.getAuthToken());
+        JsonNode body = restTemplate.exchange(upstoxConfig.getBaseUrl() + AUTHORIZE_PATH, HttpMethod.GET,
+                new HttpEntity<>(headers), JsonNode.class).getBody();
+        String redirectUri = body == null ? "" : body.path("data").path("authorized_redirect_uri").asText();
+        if (redirectUri.isEmpty()) {
+            throw new IllegalStateException("Market feed authorization returned no redirect URI");
+        }
+        return URI.create(redirectUri);
+    }
+
+    private void scheduleReconnect() {
+        if (!running) {
+            return;
+        }
+        int attempt = consecutiveFailures.getAndIncrement();
+        long backoffMillis = reconnectDelay(attempt).toMillis();
+        reconnects.increment();
+        log.info("Reconnecting to market feed in {} ms (attempt {})", backoffMillis, attempt + 1);
+        try {
+            reconnectExecutor.schedule(this::connect, backoffMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            log.debug("Reconnect not scheduled, feed client is stopping");
+        }
+    }
+
+    private synchronized CompletableFuture<WebSocket> subscribe(WebSocket socket) {
+        pendingSends = CompletableFuture.completedFuture(socket);
+        return send(socket, "sub", instrumentKeys);
+    }
+
+    /**
+     * Queues {@code method} messages for {@code keys} in chunks behind any sends still in flight; the
+     * socket allows one outstanding send at a time. Callers hold the monitor.
+     */
+    private CompletableFuture<WebSocket> send(WebSocket socket, String method, List<String> keys) {
+        int chunkSize = feedConfig.getSubscribeBatchSize();
+        CompletableFuture<WebSocket> sent = pendingSends.handle((ws, ex) -> socket);     // a failed earlier send does not block this one
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            byte[] message = subscriptionMessage(method, keys.subList(from, Math.min(from + chunkSize, keys.size())));
+            sent = sent.thenCompose(ws -> ws.sendBinary(ByteBuffer.wrap(message), true));
+        }
+        pendingSends = sent;
+        return sent;
+    }
+
+    byte[] subscriptionMessage(String method, List<String> keys) {
+        Map<String, Object> message = Map.of(
+                "guid", UUID.randomUUID().toString(),
+                "method", method,
+                "data", Map.of("mode", feedConfig.getMode(), "instrumentKeys", keys));
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode subscribe message", e);
+        }
+    }
+
+    Duration reconnectDelay(int attempt) {
+        return Duration.ofMillis(Math.min(feedConfig.getReconnectMaxBackoff().toMillis(),
+                feedConfig.getReconnectInitialBackoff().toMillis() << Math.min(attempt, 20)));
+    }
+
+    private final class FeedListener implements WebSocket.Listener {
+
+        private ByteBuffer frame = ByteBuffer.allocate(64 * 1024);
+
+        @Override
+        public void onOpen(WebSocket socket) {
+            webSocket = socket;
+            consecutiveFailures.set(0);
+            log.info("Connected to market feed, subscribing {} instruments in {} mode", instrumentKeys.size(), feedConfig.getMode());
+            subscribe(socket).whenComplete((ws, ex) -> {
+                if (ex != null) {
+                    log.error("Market feed subscription failed", ex);
+                    socket.abort();
+                }
+            });
+            socket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket socket, ByteBuffer data, boolean last) {
+            if (frame.remaining() < data.remaining()) {
+                frame = ByteBuffer.allocate(Math.max(frame.capacity() * 2, frame.position() + data.remaining())).put(frame.flip());
+            }
+            frame.put(data);
+            if (last) {
+                frame.flip();
+                try {
+                    ticks.increment(UpstoxFeedDecoder.decode(frame, listener));
+                    frames.increment();
+                } catch (IllegalArgumentException e) {
+                    log.warn("Dropping undecodable market feed frame of {} bytes", frame.limit(), e);
+                }
+                frame.clear();
+            }
+            socket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            log.debug("Market feed text message: {}", data);
+            socket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            log.warn("Market feed closed: {} {}", statusCode, reason);
+            webSocket = null;
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            log.warn("Market feed error: {}", error.getMessage());
+            webSocket = null;
+            scheduleReconnect();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.beartrail.marketdata.client.upstox.feed;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protobuf reader for Upstox's {@code MarketDataFeedV3} {@code FeedResponse} frames. Only the
+ * {@code LTPC} block of each feed is read, whether it arrives in {@code ltpc}, {@code fullFeed}
+ * ({@code marketFF}/{@code indexFF}) or {@code firstLevelWithGreeks} form; every other field is skipped
+ * by wire type, so new fields in the schema are tolerated without regenerating classes.
+ */
+public final class UpstoxFeedDecoder {
+
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    private UpstoxFeedDecoder() {
+    }
+
+    /**
+     * Decodes one complete frame.
+     *
+     * @return The number of ticks delivered to {@code listener}.
+     * @throws IllegalArgumentException If the frame is not valid protobuf.
+     */
+    public static int decode(ByteBuffer frame, TickListener listener) {
+        ByteBuffer buffer = frame.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int ticks = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                long tag = readVarint(buffer);
+                if (fieldNumber(tag) == 2 && wireType(tag) == LENGTH_DELIMITED) {     // map<string, Feed> feeds
+                    int end = messageEnd(buffer);
+                    if (readFeedEntry(buffer, end, listener)) {
+                        ticks++;
+                    }
+                    buffer.position(end);
+                } else {
+                    skip(buffer, wireType(tag));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed market feed frame", e);
+        }
+        return ticks;
+    }
+
+    private static boolean readFeedEntry(ByteBuffer buffer, int end, TickListener listener) {
+        String instrumentKey = null;
+        int feedStart = -1;
+        int feedEnd = -1;
+        while (buffer.position() < end) {
+            long tag = readVarint(buffer);
+            if (fieldNumber(tag) == 1 && wireType(tag) == LENGTH_DELIMITED) {
+                int keyEnd = messageEnd(buffer);
+                instrumentKey = readString(buffer, keyEnd);
+            } else if (fieldNumber(tag) == 2 && wireType(tag) == LENGTH_DELIMITED) {
+                feedEnd = messageEnd(buffer);
+                feedStart = buffer.position();
+                buffer.position(feedEnd);
+            } else {
+                skip(buffer, wireType(tag));
+            }
+        }
+        if (instrumentKey == null || feedStart < 0) {
+            return false;
+        }
+        buffer.position(feedStart);
+        return readFeed(buffer, feedEnd, instrumentKey, listener);
+    }
+
+    /**
+     * Feed: 1 = ltpc, 2 = fullFeed { 1 = marketFF, 2 = indexFF }, 3 = firstLevelWithGreeks. Each
+     * full-feed variant carries its LTPC block as field 1.
+     */
+    private static boolean readFeed(ByteBuffer buffer, int end, String instrumentKey, TickListener listener) {
+        while (buffer.position() < end) {
+            long tag = readVarint(buffer);
+            if (wireType(tag) != LENGTH_DELIMITED) {
+                skip(buffer, wireType(tag));
+                continue;
+            }
+            int blockEnd = messageEnd(buffer);
+            switch (fieldNumber(tag)) {
+                case 1 -> {
+                    return readLtpc(buffer, blockEnd, instrumentKey, listener);
+                }
+                case 2 -> {
+                    if (seekMessage(buffer, blockEnd, 1, 2)) {
+                        int variantEnd = messageEnd(buffer);
+                        if (seekMessage(buffer, variantEnd, 1, 1)) {
+                            return readLtpc(buffer, messageEnd(buffer), instrumentKey, listener);
+                        }
+                    }
+                }
+                case 3 -> {
+                    if (seekMessage(buffer, blockEnd, 1, 1)) {
+                        return readLtpc(buffer, messageEnd(buffer), instrumentKey, listener);
+                    }
+                }
+                default -> {
+                }
+            }
+            buffer.position(blockEnd);
+        }
+        return false;
+    }
+
+    /**
+     * LTPC: 1 = ltp (double), 2 = ltt (int64 ms), 3 = ltq (int64), 4 = cp (double, previous close).
+     */
+    private static boolean readLtpc(ByteBuffer buffer, int end, String instrumentKey, TickListener listener) {
+        double lastPrice = Double.NaN;
+        long lastTradeTime = 0L;
+        long lastTradeQuantity = 0L;
+        while (buffer.position() < end) {
+            long tag = readVarint(buffer);
+            int field = fieldNumber(tag);
+            if (field == 1 && wireType(tag) == FIXED64) {
+                lastPrice = buffer.getDouble();
+            } else if (field == 2 && wireType(tag) == VARINT) {
+                lastTradeTime = readVarint(buffer);
+            } else if (field == 3 && wireType(tag) == VARINT) {
+                lastTradeQuantity = readVarint(buffer);
+            } else {
+                skip(buffer, wireType(tag));
+            }
+        }
+        if (Double.isNaN(lastPrice) || lastTradeTime <= 0) {
+            return false;
+        }
+        listener.onTick(instrumentKey, lastPrice, lastTradeTime, lastTradeQuantity);
+        return true;
+    }
+
+    /**
+     * Advances to the next length-delimited field numbered {@code first} or {@code second}, leaving the
+     * buffer at its length prefix.
+     */
+    private static boolean seekMessage(ByteBuffer buffer, int end, int first, int second) {
+        while (buffer.position() < end) {
+            long tag = readVarint(buffer);
+            int field = fieldNumber(tag);
+            if ((field == first || field == second) && wireType(tag) == LENGTH_DELIMITED) {
+                return true;
+            }
+            skip(buffer, wireType(tag));
+        }
+        return false;
+    }
+
+    private static String readString(ByteBuffer buffer, int end) {
+        int length = end - buffer.position();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(end);
+        return value;
+    }
+
+    private static int messageEnd(ByteBuffer buffer) {
+        long length = readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Length " + length + " exceeds remaining " + buffer.remaining());
+        }
+        return buffer.position() + (int) length;
+    }
+
+    private static void skip(ByteBuffer buffer, int wireType) {
+        switch (wireType) {
+            case VARINT -> readVarint(buffer);
+            case FIXED64 -> buffer.position(buffer.position() + 8);
+            case LENGTH_DELIMITED -> buffer.position(messageEnd(buffer));
+            case FIXED32 -> buffer.position(buffer.position() + 4);
+            default -> throw new IllegalStateException("Unsupported wire type " + wireType);
+        }
+    }
+
+    static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint too long");
+    }
+
+    private static int fieldNumber(long tag) {
+        return (int) (tag >>> 3);
+    }
+
+    private static int wireType(long tag) {
+        return (int) (tag & 0x7);
+    }
+}
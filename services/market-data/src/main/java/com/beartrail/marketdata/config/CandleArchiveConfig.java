@@ -0,0 +1,22 @@
+package com.beartrail.marketdata.config;
+
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.candles.archive")
+public class CandleArchiveConfig {
+    private boolean enabled = false;
+    private String directory = "data/candle-archive";      // one file per symbol under a directory per interval
+    private List<TimeInterval> intervals = List.of(         // the long-history intervals; intraday ones age out of Postgres
+            TimeInterval.ONE_HOUR, TimeInterval.FOUR_HOURS, TimeInterval.ONE_DAY, TimeInterval.ONE_WEEK);
+    private Duration archiveAfter = Duration.ofDays(7);     // candles older than this are copied to the archive
+    private int blockRows = 4096;                           // rows per columnar block
+    private int maxOpenFiles = 512;                         // archive files kept open and mapped
+}
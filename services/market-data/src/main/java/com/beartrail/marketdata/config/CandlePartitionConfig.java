@@ -0,0 +1,29 @@
+package com.beartrail.marketdata.config;
+
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.candles.partitions")
+public class CandlePartitionConfig {
+    private boolean enabled = true;
+    private int daysAhead = 3;                  // partitions are pre-created this many days past today
+
+    private Map<TimeInterval, Duration> retention = new EnumMap<>(Map.of(   // storage strategy in ARCHITECTURE.md
+            TimeInterval.ONE_MINUTE, Duration.ofDays(30),
+            TimeInterval.FIVE_MINUTES, Duration.ofDays(90),
+            TimeInterval.FIFTEEN_MINUTES, Duration.ofDays(90),
+            TimeInterval.THIRTY_MINUTES, Duration.ofDays(90),
+            TimeInterval.ONE_HOUR, Duration.ofDays(365),
+            TimeInterval.FOUR_HOURS, Duration.ofDays(365),
+            TimeInterval.ONE_DAY, Duration.ofDays(5 * 365),
+            TimeInterval.ONE_WEEK, Duration.ofDays(5 * 365)
+    ));
+}
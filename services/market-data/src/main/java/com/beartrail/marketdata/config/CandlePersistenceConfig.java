@@ -0,0 +1,25 @@
+package com.beartrail.marketdata.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.candles.persistence")
+public class CandlePersistenceConfig {
+    private int batchSize = 1000;              // rows per multi-row INSERT, bounded by Postgres' 65535 bind parameters
+
+    // market-data-updates consumer that owns candle persistence
+    private String groupId = "market-data-candle-writer";
+    private boolean autoStartup = true;
+    private int concurrency = 3;               // at most one consumer per topic partition does work
+    private int maxPollRecords = 5000;
+    private int fetchMinBytes = 64 * 1024;
+    private Duration fetchMaxWait = Duration.ofMillis(500);
+    private Duration retryBackoff = Duration.ofSeconds(1);   // a failed write is retried, offsets stay uncommitted
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);  // the backoff doubles up to this
+    private int maxRetries = 10;               // then the batch goes to the dead-letter topic and is committed
+}
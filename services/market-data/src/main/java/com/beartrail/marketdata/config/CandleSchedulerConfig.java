@@ -0,0 +1,18 @@
+package com.beartrail.marketdata.config;
+
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.ingestion.scheduler")
+public class CandleSchedulerConfig {
+    private List<TimeInterval> intervals = List.of(TimeInterval.ONE_MINUTE);   // polled from Upstox, one worker each
+    private Duration fireDelay = Duration.ZERO;         // wait after a candle closes before fetching it
+    private boolean marketHoursOnly = true;             // skip candles that closed outside a trading session
+}
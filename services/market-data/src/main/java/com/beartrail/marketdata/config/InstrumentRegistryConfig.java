@@ -0,0 +1,15 @@
+package com.beartrail.marketdata.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.instruments")
+public class InstrumentRegistryConfig {
+    private String path;                                    // instrument master file; the bundled classpath copy when unset
+    private Duration reloadCheckInterval = Duration.ofMinutes(1);   // how often the file's modification time is checked
+}
@@ -0,0 +1,17 @@
+package com.beartrail.marketdata.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.cache.market-data")
+public class MarketDataCacheConfig {
+    private long localMaxSize = 20_000;                     // L1 entries, one per (symbol, interval)
+    private Duration localTtl = Duration.ofSeconds(30);
+    private Duration redisTtl = Duration.ofMinutes(2);
+    private String redisKeyPrefix = "marketdata:latest:";
+}
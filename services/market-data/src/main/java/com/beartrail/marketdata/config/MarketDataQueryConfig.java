@@ -0,0 +1,19 @@
+package com.beartrail.marketdata.config;
+
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.candles.query")
+public class MarketDataQueryConfig {
+    private int pageSize = 2000;                // rows per keyset page when streaming history
+    private int maxPoints = 500;                // candles returned per chart request; the interval is coarsened to fit
+    private int maxScanRows = 20_000;           // source rows read per chart request, e.g. when rolling up on the fly
+    private Set<TimeInterval> storedIntervals = EnumSet.allOf(TimeInterval.class);  // intervals persisted to the candles table
+}
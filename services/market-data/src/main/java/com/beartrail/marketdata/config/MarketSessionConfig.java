@@ -0,0 +1,44 @@
+package com.beartrail.marketdata.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Trading calendar of the exchange whose candles are ingested (NSE/BSE equities by default): regular
+ * hours, full-day holidays, and special sessions such as Muhurat trading that replace a day's hours,
+ * even on a holiday.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.market.session")
+public class MarketSessionConfig {
+    private String exchange = "NSE";
+    private ZoneId zone = ZoneId.of("Asia/Kolkata");                 // must not observe DST; IST does not
+    private LocalTime open = LocalTime.of(9, 15);
+    private LocalTime close = LocalTime.of(15, 30);
+    private Set<DayOfWeek> tradingDays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+    private Set<LocalDate> holidays = new HashSet<>();
+    private Resource holidayCalendar;                                 // one ISO date per line, merged with holidays
+    private List<SpecialSession> specialSessions = new ArrayList<>();
+    private boolean publishEvents = true;                            // market-session-events on open/close
+
+    @Data
+    public static class SpecialSession {
+        private LocalDate date;
+        private LocalTime open;
+        private LocalTime close;
+        private String name;
+    }
+}
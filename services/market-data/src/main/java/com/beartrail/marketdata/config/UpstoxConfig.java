@@ -4,10 +4,26 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "beartrail.upstox")
 public class UpstoxConfig {
     private String authToken;
     private String baseUrl;                      // TODO: add redirect workflow for fetching authToken from frontend (with redirect URL)
+
+    private int maxInstrumentsPerRequest = 500;  // upstox market-quote limit
+    private int maxConcurrentRequests = 8;
+    private int requestsPerSecond = 50;          // upstox standard API limits
+    private int requestsPerMinute = 500;
+    private int maxRetries = 3;
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(2);
+
+    private int maxConnections = 16;             // pooled keep-alive connections; >= maxConcurrentRequests
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private Duration idleConnectionTimeout = Duration.ofSeconds(30);
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
 }
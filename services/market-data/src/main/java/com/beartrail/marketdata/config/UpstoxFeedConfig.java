@@ -0,0 +1,24 @@
+package com.beartrail.marketdata.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings for the WebSocket market feed, used when {@code beartrail.ingestion.mode=websocket}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.upstox.feed")
+public class UpstoxFeedConfig {
+    private String uri;                                     // fixed ws(s) URI, e.g. a local stub; otherwise authorized per connect
+    private String mode = "ltpc";                           // upstox feed mode: ltpc, full, option_greeks
+    private int subscribeBatchSize = 1000;                  // instrument keys per subscribe message
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration reconnectInitialBackoff = Duration.ofSeconds(1);
+    private Duration reconnectMaxBackoff = Duration.ofSeconds(30);
+    private Duration publishInterval = Duration.ofSeconds(1);
+    private Duration candleCloseGrace = Duration.ofSeconds(2);   // late ticks for a minute are still folded in this long
+}
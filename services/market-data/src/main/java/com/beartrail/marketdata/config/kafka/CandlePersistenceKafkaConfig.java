@@ -0,0 +1,63 @@
+package com.beartrail.marketdata.config.kafka;
+
+import com.beartrail.marketdata.config.CandlePersistenceConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+import java.util.Properties;
+
+/**
+ * Listener container for the candle persistence consumer: large polled batches, offsets committed only
+ * after the listener (and so the database transaction) returns, and failed batches retried in place
+ * with a doubling backoff. A batch still failing after {@code max-retries} is published to the
+ * dead-letter topic for replay and its offsets committed, so one bad batch cannot stall its partition.
+ */
+@Configuration
+public class CandlePersistenceKafkaConfig {
+
+    public static final String CONTAINER_FACTORY = "candlePersistenceContainerFactory";
+
+    @Bean(CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> candlePersistenceContainerFactory(
+            ConsumerFactory<Object, Object> consumerFactory, CandlePersistenceConfig config,
+            KafkaTemplate<String, String> kafkaTemplate,
+            @Value("${beartrail.kafka.topics.market-data-updates-dlt}") String deadLetterTopic) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(config.getConcurrency());
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+        Properties consumerOverrides = new Properties();
+        consumerOverrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        consumerOverrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Integer.toString(config.getMaxPollRecords()));
+        consumerOverrides.setProperty(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, Integer.toString(config.getFetchMinBytes()));
+        consumerOverrides.setProperty(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, Long.toString(config.getFetchMaxWait().toMillis()));
+        containerProperties.setKafkaConsumerProperties(consumerOverrides);
+
+        factory.setCommonErrorHandler(errorHandler(config, kafkaTemplate, deadLetterTopic));
+        return factory;
+    }
+
+    static DefaultErrorHandler errorHandler(CandlePersistenceConfig config, KafkaTemplate<String, String> kafkaTemplate,
+                                            String deadLetterTopic) {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(config.getMaxRetries());
+        backOff.setInitialInterval(config.getRetryBackoff().toMillis());
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(config.getMaxRetryBackoff().toMillis());
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(deadLetterTopic, -1));       // negative: the producer picks the partition
+        return new DefaultErrorHandler(recoverer, backOff);
+    }
+}
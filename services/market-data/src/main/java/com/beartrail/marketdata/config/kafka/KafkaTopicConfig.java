@@ -22,6 +22,12 @@ public class KafkaTopicConfig {
     @Value("${beartrail.kafka.topics.market-data-updates}")
     private String marketDataUpdatesTopicName;
 
+    @Value("${beartrail.kafka.topics.market-data-updates-dlt}")
+    private String marketDataUpdatesDeadLetterTopicName;
+
+    @Value("${beartrail.kafka.topics.market-session-events}")
+    private String marketSessionEventsTopicName;
+
     @Value("${beartrail.kafka.partitions:3}")
     private int partitions;
 
@@ -45,4 +51,24 @@ public class KafkaTopicConfig {
                 .config("compression.type", "snappy")
                 .build();
     }
+
+    @Bean
+    public NewTopic buildMarketDataUpdatesDeadLetterTopic() {
+        return TopicBuilder.name(marketDataUpdatesDeadLetterTopicName)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .config("retention.ms", "604800000") // 7 days to fix the cause and replay
+                .config("cleanup.policy", "delete")
+                .build();
+    }
+
+    @Bean
+    public NewTopic buildMarketSessionEventsTopic() {
+        return TopicBuilder.name(marketSessionEventsTopicName)
+                .partitions(1) // a handful of events a day, consumed in order
+                .replicas(replicationFactor)
+                .config("retention.ms", "604800000") // 7 days retention
+                .config("cleanup.policy", "delete")
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.beartrail.marketdata.controller;
+
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.dto.ChartCandles;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import com.beartrail.marketdata.service.InstrumentRegistry;
+import com.beartrail.marketdata.service.MarketDataService;
+import com.beartrail.marketdata.service.MarketSessionCalendar;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+@Slf4j
+@RestController
+@RequestMapping("/market")
+public class MarketDataController {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final MarketDataService marketDataService;
+    private final InstrumentRegistry instrumentRegistry;
+    private final MarketSessionCalendar marketSessionCalendar;
+    private final JsonFactory jsonFactory;
+
+    public MarketDataController(MarketDataService marketDataService, InstrumentRegistry instrumentRegistry,
+                                MarketSessionCalendar marketSessionCalendar, ObjectMapper objectMapper) {
+        this.marketDataService = marketDataService;
+        this.instrumentRegistry = instrumentRegistry;
+        this.marketSessionCalendar = marketSessionCalendar;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Streams historical candles for a symbol. The response is written incrementally as a single
+     * JSON document, or as newline-delimited candles when the client accepts {@code application/x-ndjson}.
+     * A price the stored candle lacks is written as {@code null}.
+     */
+    @GetMapping(value = "/history/{symbol}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> getHistory(@PathVariable String symbol,
+                                                            @RequestParam String interval,
+                                                            @RequestParam String from,
+                                                            @RequestParam String to,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        TimeInterval timeInterval = parseInterval(interval);
+        long fromMillis = parseBound(from, false);
+        long toMillis = parseBound(to, true);
+        if (fromMillis >= toMillis) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (ndjson) {
+                    generator.setRootValueSeparator(null);
+                } else {
+                    generator.writeStartObject();
+                    generator.writeStringField("symbol", symbol);
+                    generator.writeStringField("interval", timeInterval.getLabel());
+                    generator.writeArrayFieldStart("data");
+                }
+
+                long[] written = new long[1];
+                marketDataService.streamHistoricalMarketData(storedSymbol(symbol), timeInterval, fromMillis, toMillis, candle -> {
+                    writeCandle(generator, candle, ndjson);
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        flush(generator);
+                    }
+                });
+
+                if (!ndjson) {
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Candles for a chart. {@code interval} is the finest resolution wanted: a long range is served at a
+     * coarser one so it fits the point budget, and the response names the interval actually served.
+     */
+    @GetMapping(value = "/chart/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getChart(@PathVariable String symbol,
+                                                          @RequestParam(defaultValue = "1m") String interval,
+                                                          @RequestParam String from,
+                                                          @RequestParam String to) {
+        TimeInterval timeInterval = parseInterval(interval);
+        long fromMillis = parseBound(from, false);
+        long toMillis = parseBound(to, true);
+        if (fromMillis >= toMillis) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        ChartCandles chart = marketDataService.getChartCandles(storedSymbol(symbol), timeInterval, fromMillis, toMillis);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                generator.writeStringField("symbol", symbol);
+                generator.writeStringField("interval", chart.interval().getLabel());
+                generator.writeArrayFieldStart("data");
+                for (MarketData candle : chart.candles()) {
+                    writeCandle(generator, toCandleDto(candle), false);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Candles are stored under the Upstox quote key ({@code NSE_EQ:RELIANCE}). A bare trading symbol is
+     * resolved to it, NSE first when the symbol trades on both exchanges; a quote key passes through.
+     */
+    private String storedSymbol(String symbol) {
+        if (symbol.indexOf(':') >= 0) {
+            return symbol;
+        }
+        InstrumentTable instruments = instrumentRegistry.instruments();
+        int id = instruments.idOfTradingSymbol(symbol);
+        return id >= 0 ? instruments.quoteKey(id) : InstrumentTable.SEGMENTS.get(0) + ':' + symbol;
+    }
+
+    private static CandleDto toCandleDto(MarketData candle) {
+        return new CandleDto(candle.getTimestamp(), candle.getOpenPrice(), candle.getHighPrice(),
+                candle.getLowPrice(), candle.getClosePrice(), candle.getVolume());
+    }
+
+    private static void writeCandle(JsonGenerator generator, CandleDto candle, boolean ndjson) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("timestamp", Instant.ofEpochMilli(candle.getTimestamp()).toString());
+            writeNumberOrNull(generator, "open", candle.getOpen());
+            writeNumberOrNull(generator, "high", candle.getHigh());
+            writeNumberOrNull(generator, "low", candle.getLow());
+            writeNumberOrNull(generator, "close", candle.getClose());
+            if (candle.getVolume() == null) {
+                generator.writeNullField("volume");
+            } else {
+                generator.writeNumberField("volume", candle.getVolume());
+            }
+            generator.writeEndObject();
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNumberOrNull(JsonGenerator generator, String field, Double value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private static void flush(JsonGenerator generator) {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static TimeInterval parseInterval(String interval) {
+        try {
+            return TimeInterval.fromValue(interval);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Accepts an ISO-8601 instant or a plain date. A date as the upper bound includes that whole exchange day.
+     */
+    private long parseBound(String value, boolean upper) {
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                return (upper ? date.plusDays(1) : date).atStartOfDay(marketSessionCalendar.zone()).toInstant().toEpochMilli();
+            }
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date: " + value, e);
+        }
+    }
+}
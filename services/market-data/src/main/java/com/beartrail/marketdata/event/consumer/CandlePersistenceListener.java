@@ -0,0 +1,151 @@
+package com.beartrail.marketdata.event.consumer;
+
+import com.beartrail.marketdata.config.kafka.CandlePersistenceKafkaConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.repository.CandleBatchWriter;
+import com.beartrail.marketdata.service.MarketDataKafkaProducer;
+import com.beartrail.marketdata.service.impl.MarketDataCacheServiceImpl;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns candle persistence: ingestion only publishes to {@code market-data-updates}, and this consumer
+ * group bulk-upserts each polled batch into the candle store, then invalidates the cached latest
+ * candles. The container commits offsets after {@link #persist(List)} returns, i.e. after the database
+ * transaction commits; a failed write is retried from the same offsets, and replays are harmless
+ * because the write is an upsert. A batch that keeps failing is dead-lettered (see
+ * {@link CandlePersistenceKafkaConfig}). Live candles still forming are skipped; the completed candle follows.
+ */
+@Slf4j
+@Component
+public class CandlePersistenceListener {
+
+    private final CandleBatchWriter candleBatchWriter;
+    private final MarketDataCacheServiceImpl marketDataCacheService;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Counter skippedRecords;
+
+    public CandlePersistenceListener(CandleBatchWriter candleBatchWriter,
+                                     MarketDataCacheServiceImpl marketDataCacheService,
+                                     MeterRegistry meterRegistry) {
+        this.candleBatchWriter = candleBatchWriter;
+        this.marketDataCacheService = marketDataCacheService;
+        this.skippedRecords = Counter.builder("marketdata.candles.consumer.skipped")
+                .description("market-data-updates records that could not be decoded into a candle")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(id = "candle-persistence",
+            topics = "${beartrail.kafka.topics.market-data-updates}",
+            groupId = "${beartrail.candles.persistence.group-id:market-data-candle-writer}",
+            containerFactory = CandlePersistenceKafkaConfig.CONTAINER_FACTORY,
+            autoStartup = "${beartrail.candles.persistence.auto-startup:true}")
+    public void persist(List<ConsumerRecord<String, String>> records) {
+        CandleBatch candles = latestPerCandle(decode(records));
+        if (candles.isEmpty()) {
+            return;
+        }
+
+        candleBatchWriter.upsertAll(candles);
+        for (int row = 0; row < candles.size(); row++) {
+            marketDataCacheService.invalidateCache(candles.symbol(row), candles.interval(row).getValue());
+        }
+        log.debug("Persisted {} candles from {} records", candles.size(), records.size());
+    }
+
+    private CandleBatch decode(List<ConsumerRecord<String, String>> records) {
+        CandleBatch decoded = new CandleBatch(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() == null || record.headers().lastHeader(MarketDataKafkaProducer.FORMING_HEADER) != null) {
+                continue;
+            }
+            try {
+                readEvent(record.value(), decoded);
+            } catch (IOException | IllegalArgumentException e) {
+                skippedRecords.increment();
+                log.warn("Skipping undecodable record at {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * A poll can carry several updates of the same candle (a forming live candle, or a replay); one
+     * multi-row upsert may not touch a row twice, so only the last update of each candle is kept.
+     */
+    static CandleBatch latestPerCandle(CandleBatch decoded) {
+        Map<CandleKey, Integer> lastRow = new HashMap<>(decoded.size() * 2);
+        for (int row = 0; row < decoded.size(); row++) {
+            lastRow.put(new CandleKey(decoded.symbol(row), decoded.interval(row), decoded.timestamp(row)), row);
+        }
+        if (lastRow.size() == decoded.size()) {
+            return decoded;
+        }
+        CandleBatch latest = new CandleBatch(lastRow.size());
+        for (int row = 0; row < decoded.size(); row++) {
+            if (lastRow.get(new CandleKey(decoded.symbol(row), decoded.interval(row), decoded.timestamp(row))) == row) {
+                latest.add(decoded, row);
+            }
+        }
+        return latest;
+    }
+
+    private void readEvent(String json, CandleBatch out) throws IOException {
+        String symbol = null;
+        String instrumentToken = null;
+        TimeInterval interval = null;
+        long timestamp = Long.MIN_VALUE;
+        double last = Double.NaN;
+        double open = Double.NaN;
+        double high = Double.NaN;
+        double low = Double.NaN;
+        double close = Double.NaN;
+        long volume = 0L;
+
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Not a price update object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "symbol" -> symbol = parser.getText();
+                    case "instrumentToken" -> instrumentToken = parser.getText();
+                    case "timeInterval" -> interval = TimeInterval.fromValue(parser.getText());
+                    case "timestamp" -> timestamp = parser.getValueAsLong();
+                    case "lastPrice" -> last = parser.getValueAsDouble();
+                    case "openPrice" -> open = parser.getValueAsDouble();
+                    case "highPrice" -> high = parser.getValueAsDouble();
+                    case "lowPrice" -> low = parser.getValueAsDouble();
+                    case "closePrice" -> close = parser.getValueAsDouble();
+                    case "volume" -> volume = parser.getValueAsLong();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (symbol == null || interval == null || timestamp == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Price update without symbol, interval or timestamp");
+        }
+        out.add(symbol, interval, instrumentToken, timestamp, last, open, high, low, close, volume);
+    }
+
+    private record CandleKey(String symbol, TimeInterval interval, long timestamp) {
+    }
+}
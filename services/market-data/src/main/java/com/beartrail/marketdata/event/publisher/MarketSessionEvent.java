@@ -0,0 +1,18 @@
+package com.beartrail.marketdata.event.publisher;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MarketSessionEvent {
+    public enum Type { MARKET_OPEN, MARKET_CLOSE }
+
+    private Type type;
+    private String exchange;
+    private String sessionDate;   // ISO-8601 date in the exchange zone
+    private Long sessionOpen;
+    private Long sessionClose;
+    private String sessionName;   // special session name, e.g. Muhurat Trading; null for regular hours
+    private Long timestamp;
+}
@@ -8,6 +8,7 @@ import lombok.ToString;
 @Builder
 public class PriceUpdateEvent {
     private String symbol;
+    private String instrumentToken;
     private Double lastPrice;
     private Double openPrice;
     private Double highPrice;
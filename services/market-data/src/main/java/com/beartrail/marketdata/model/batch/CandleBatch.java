@@ -0,0 +1,214 @@
+package com.beartrail.marketdata.model.batch;
+
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Columnar, reusable buffer of candles for the ingestion hot path. Row {@code i} is spread over
+ * parallel primitive arrays, so filling, publishing and persisting a batch does not box a single
+ * number. Absent prices are stored as {@code NaN} and absent volumes as {@code 0}.
+ * <p>
+ * Instances are not thread-safe. A batch is filled by one thread, handed off, and {@link #clear()}ed
+ * for reuse; consumers must copy anything they keep beyond the callback they received it in.
+ */
+@Slf4j
+public final class CandleBatch {
+
+    private int size;
+    private String[] symbols;
+    private TimeInterval[] intervals;
+    private String[] instrumentTokens;
+    private long[] timestamps;
+    private double[] lastPrices;
+    private double[] openPrices;
+    private double[] highPrices;
+    private double[] lowPrices;
+    private double[] closePrices;
+    private long[] volumes;
+
+    public CandleBatch(int capacity) {
+        int initial = Math.max(capacity, 1);
+        symbols = new String[initial];
+        intervals = new TimeInterval[initial];
+        instrumentTokens = new String[initial];
+        timestamps = new long[initial];
+        lastPrices = new double[initial];
+        openPrices = new double[initial];
+        highPrices = new double[initial];
+        lowPrices = new double[initial];
+        closePrices = new double[initial];
+        volumes = new long[initial];
+    }
+
+    /**
+     * Copies entity-shaped candles into a new batch, for callers that are not on the hot path. A candle
+     * without a symbol, interval or timestamp cannot be keyed, so it is skipped with a warning rather
+     * than failing the rest of the batch.
+     */
+    public static CandleBatch of(Collection<MarketData> candles) {
+        CandleBatch batch = new CandleBatch(candles.size());
+        for (MarketData candle : candles) {
+            if (candle.getSymbol() == null || candle.getTimeInterval() == null || candle.getTimestamp() == null) {
+                log.warn("Skipping candle without symbol, interval or timestamp: {}", candle);
+                continue;
+            }
+            batch.add(candle.getSymbol(),
+                    candle.getTimeInterval(),
+                    candle.getInstrumentToken(),
+                    candle.getTimestamp(),
+                    orNaN(candle.getLastPrice()),
+                    orNaN(candle.getOpenPrice()),
+                    orNaN(candle.getHighPrice()),
+                    orNaN(candle.getLowPrice()),
+                    orNaN(candle.getClosePrice()),
+                    candle.getVolume() != null ? candle.getVolume() : 0L);
+        }
+        return batch;
+    }
+
+    /**
+     * Appends a row, growing the columns if needed.
+     *
+     * @return The index of the new row.
+     */
+    public int add(String symbol, TimeInterval interval, String instrumentToken, long timestamp,
+                   double lastPrice, double openPrice, double highPrice, double lowPrice, double closePrice, long volume) {
+        if (size == symbols.length) {
+            grow();
+        }
+        int row = size++;
+        symbols[row] = symbol;
+        intervals[row] = interval;
+        instrumentTokens[row] = instrumentToken;
+        timestamps[row] = timestamp;
+        lastPrices[row] = lastPrice;
+        openPrices[row] = openPrice;
+        highPrices[row] = highPrice;
+        lowPrices[row] = lowPrice;
+        closePrices[row] = closePrice;
+        volumes[row] = volume;
+        return row;
+    }
+
+    /**
+     * Appends a copy of row {@code row} of {@code source}.
+     *
+     * @return The index of the new row.
+     */
+    public int add(CandleBatch source, int row) {
+        source.checkRow(row);
+        return add(source.symbols[row], source.intervals[row], source.instrumentTokens[row], source.timestamps[row],
+                source.lastPrices[row], source.openPrices[row], source.highPrices[row], source.lowPrices[row],
+                source.closePrices[row], source.volumes[row]);
+    }
+
+    /**
+     * Empties the batch, keeping its capacity. References are dropped so a pooled batch does not pin
+     * the previous minute's strings.
+     */
+    public void clear() {
+        Arrays.fill(symbols, 0, size, null);
+        Arrays.fill(instrumentTokens, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String symbol(int row) {
+        return symbols[checkRow(row)];
+    }
+
+    public TimeInterval interval(int row) {
+        return intervals[checkRow(row)];
+    }
+
+    public String instrumentToken(int row) {
+        return instrumentTokens[checkRow(row)];
+    }
+
+    public long timestamp(int row) {
+        return timestamps[checkRow(row)];
+    }
+
+    public double lastPrice(int row) {
+        return lastPrices[checkRow(row)];
+    }
+
+    public double openPrice(int row) {
+        return openPrices[checkRow(row)];
+    }
+
+    public double highPrice(int row) {
+        return highPrices[checkRow(row)];
+    }
+
+    public double lowPrice(int row) {
+        return lowPrices[checkRow(row)];
+    }
+
+    public double closePrice(int row) {
+        return closePrices[checkRow(row)];
+    }
+
+    public long volume(int row) {
+        return volumes[checkRow(row)];
+    }
+
+    /**
+     * Materializes one row as an entity, for the cache and other object-based consumers.
+     */
+    public MarketData toMarketData(int row) {
+        checkRow(row);
+        MarketData marketData = new MarketData();
+        marketData.setSymbol(symbols[row]);
+        marketData.setTimeInterval(intervals[row]);
+        marketData.setInstrumentToken(instrumentTokens[row]);
+        marketData.setTimestamp(timestamps[row]);
+        marketData.setLastPrice(orNull(lastPrices[row]));
+        marketData.setOpenPrice(orNull(openPrices[row]));
+        marketData.setHighPrice(orNull(highPrices[row]));
+        marketData.setLowPrice(orNull(lowPrices[row]));
+        marketData.setClosePrice(orNull(closePrices[row]));
+        marketData.setVolume(volumes[row]);
+        return marketData;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside batch of " + size);
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = symbols.length * 2;
+        symbols = Arrays.copyOf(symbols, capacity);
+        intervals = Arrays.copyOf(intervals, capacity);
+        instrumentTokens = Arrays.copyOf(instrumentTokens, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        lastPrices = Arrays.copyOf(lastPrices, capacity);
+        openPrices = Arrays.copyOf(openPrices, capacity);
+        highPrices = Arrays.copyOf(highPrices, capacity);
+        lowPrices = Arrays.copyOf(lowPrices, capacity);
+        closePrices = Arrays.copyOf(closePrices, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -0,0 +1,140 @@
+package com.beartrail.marketdata.model.codec;
+
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of a {@link MarketData} candle used for the Redis cache tier.
+ * <p>
+ * Layout: version byte, presence bitmask byte, interval ordinal byte (-1 when absent),
+ * length-prefixed UTF-8 symbol, then only the fields flagged as present (instrument token,
+ * fixed-width doubles and longs) in declaration order.
+ */
+public final class MarketDataCodec {
+
+    public static final byte VERSION = 2;
+
+    private static final TimeInterval[] INTERVALS = TimeInterval.values();
+
+    private static final int INSTRUMENT_TOKEN = 1;
+    private static final int LAST_PRICE = 1 << 1;
+    private static final int OPEN_PRICE = 1 << 2;
+    private static final int HIGH_PRICE = 1 << 3;
+    private static final int LOW_PRICE = 1 << 4;
+    private static final int CLOSE_PRICE = 1 << 5;
+    private static final int VOLUME = 1 << 6;
+    private static final int TIMESTAMP = 1 << 7;
+
+    private MarketDataCodec() {
+    }
+
+    public static byte[] encode(MarketData marketData) {
+        byte[] symbol = utf8(marketData.getSymbol());
+        byte[] instrumentToken = utf8(marketData.getInstrumentToken());
+
+        int presence = 0;
+        int size = 3 + 2 + symbol.length;
+        if (marketData.getInstrumentToken() != null) {
+            presence |= INSTRUMENT_TOKEN;
+            size += 2 + instrumentToken.length;
+        }
+        presence |= flag(marketData.getLastPrice(), LAST_PRICE);
+        presence |= flag(marketData.getOpenPrice(), OPEN_PRICE);
+        presence |= flag(marketData.getHighPrice(), HIGH_PRICE);
+        presence |= flag(marketData.getLowPrice(), LOW_PRICE);
+        presence |= flag(marketData.getClosePrice(), CLOSE_PRICE);
+        presence |= flag(marketData.getVolume(), VOLUME);
+        presence |= flag(marketData.getTimestamp(), TIMESTAMP);
+        size += Long.BYTES * Integer.bitCount(presence & ~INSTRUMENT_TOKEN);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION);
+        buffer.put((byte) presence);
+        buffer.put(marketData.getTimeInterval() != null ? (byte) marketData.getTimeInterval().ordinal() : -1);
+        buffer.putShort((short) symbol.length).put(symbol);
+        if ((presence & INSTRUMENT_TOKEN) != 0) {
+            buffer.putShort((short) instrumentToken.length).put(instrumentToken);
+        }
+        if ((presence & LAST_PRICE) != 0) {
+            buffer.putDouble(marketData.getLastPrice());
+        }
+        if ((presence & OPEN_PRICE) != 0) {
+            buffer.putDouble(marketData.getOpenPrice());
+        }
+        if ((presence & HIGH_PRICE) != 0) {
+            buffer.putDouble(marketData.getHighPrice());
+        }
+        if ((presence & LOW_PRICE) != 0) {
+            buffer.putDouble(marketData.getLowPrice());
+        }
+        if ((presence & CLOSE_PRICE) != 0) {
+            buffer.putDouble(marketData.getClosePrice());
+        }
+        if ((presence & VOLUME) != 0) {
+            buffer.putLong(marketData.getVolume());
+        }
+        if ((presence & TIMESTAMP) != 0) {
+            buffer.putLong(marketData.getTimestamp());
+        }
+        return buffer.array();
+    }
+
+    public static MarketData decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported market data encoding version: " + version);
+        }
+        int presence = buffer.get() & 0xFF;
+        byte interval = buffer.get();
+
+        MarketData marketData = new MarketData();
+        if (interval >= 0) {
+            marketData.setTimeInterval(INTERVALS[interval]);
+        }
+        marketData.setSymbol(readString(buffer));
+        if ((presence & INSTRUMENT_TOKEN) != 0) {
+            marketData.setInstrumentToken(readString(buffer));
+        }
+        if ((presence & LAST_PRICE) != 0) {
+            marketData.setLastPrice(buffer.getDouble());
+        }
+        if ((presence & OPEN_PRICE) != 0) {
+            marketData.setOpenPrice(buffer.getDouble());
+        }
+        if ((presence & HIGH_PRICE) != 0) {
+            marketData.setHighPrice(buffer.getDouble());
+        }
+        if ((presence & LOW_PRICE) != 0) {
+            marketData.setLowPrice(buffer.getDouble());
+        }
+        if ((presence & CLOSE_PRICE) != 0) {
+            marketData.setClosePrice(buffer.getDouble());
+        }
+        if ((presence & VOLUME) != 0) {
+            marketData.setVolume(buffer.getLong());
+        }
+        if ((presence & TIMESTAMP) != 0) {
+            marketData.setTimestamp(buffer.getLong());
+        }
+        return marketData;
+    }
+
+    private static int flag(Object value, int bit) {
+        return value != null ? bit : 0;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,21 @@
+package com.beartrail.marketdata.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read-only projection of a stored candle for history queries, mapped straight from JDBC rows.
+ * A price or volume the row does not have stays {@code null}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandleDto {
+    private long timestamp;     // bucket start in ms from epoch
+    private Double open;
+    private Double high;
+    private Double low;
+    private Double close;
+    private Long volume;
+}
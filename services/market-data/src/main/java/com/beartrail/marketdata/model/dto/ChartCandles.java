@@ -0,0 +1,13 @@
+package com.beartrail.marketdata.model.dto;
+
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+
+import java.util.List;
+
+/**
+ * Candles for a chart, with the interval they were served at: the one the query router chose, which
+ * may be coarser than the one requested. It is set even when the range holds no candles.
+ */
+public record ChartCandles(TimeInterval interval, List<MarketData> candles) {
+}
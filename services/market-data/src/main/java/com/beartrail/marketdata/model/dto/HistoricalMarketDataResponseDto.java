@@ -1,5 +0,0 @@
-package com.beartrail.marketdata.model.dto;
-
-public class HistoricalMarketDataResponseDto {
-
-}
@@ -7,22 +7,33 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.UUID;
-
 /**
  * Represents an OHLCV candle for a specific symbol at a given time interval.
+ * <p>
+ * Rows live in the {@code candles} table, list-partitioned by interval and range-partitioned by
+ * bucket start (see {@code db/migration} and {@code CandlePartitionManager}).
  */
 @Entity
-@Table(name = "marketdata")
+@Table(name = "candles")
+@IdClass(MarketDataId.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MarketData {
 
     @Id
-    @Column(name = "symbol", nullable = true)
+    @Column(name = "symbol", nullable = false)
     private String symbol;
 
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "time_interval", nullable = false)
+    private TimeInterval timeInterval;
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private Long timestamp;     // bucket start in ms from epoch
+
     @Column(name = "instrument_token", nullable = true)         // TODO: change nullables back to false
     private String instrumentToken;
 
@@ -44,15 +55,9 @@ public class MarketData {
     @Column(name = "volume", nullable = true)
     private Long volume;
 
-    @Column(name = "timestamp", nullable = true)
-    private Long timestamp;     // in ms from epoch
-
-//    @Enumerated(EnumType.STRING)
-//    @Column(name = "time_interval", nullable = true)           // TODO: make separate tables for each time interval
-//    private TimeInterval timeInterval;
-
-    public MarketData(String symbol, Double lastPrice, String instrumentToken, PriceUpdateDto prevOhlc, PriceUpdateDto liveOhlc) {
+    public MarketData(String symbol, TimeInterval timeInterval, Double lastPrice, String instrumentToken, PriceUpdateDto prevOhlc, PriceUpdateDto liveOhlc) {
         this.symbol = symbol;
+        this.timeInterval = timeInterval;
         this.instrumentToken = instrumentToken;
         this.lastPrice = lastPrice;
 
@@ -69,6 +74,7 @@ public class MarketData {
     public PriceUpdateEvent toPriceUpdateEvent() {
         return PriceUpdateEvent.builder()
                 .symbol(this.symbol)
+                .instrumentToken(this.instrumentToken)
                 .lastPrice(this.lastPrice)
                 .openPrice(this.openPrice)
                 .highPrice(this.highPrice)
@@ -76,6 +82,7 @@ public class MarketData {
                 .closePrice(this.closePrice)
                 .volume(this.volume)
                 .timestamp(this.timestamp)
+                .timeInterval(this.timeInterval != null ? this.timeInterval.getValue() : null)
                 .build();
     }
 }
@@ -0,0 +1,19 @@
+package com.beartrail.marketdata.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Composite key of a candle: one row per symbol, interval and bucket start.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketDataId implements Serializable {
+    private String symbol;
+    private TimeInterval timeInterval;
+    private Long timestamp;
+}
@@ -4,19 +4,21 @@ import lombok.Getter;
 
 @Getter
 public enum TimeInterval {                  // only 1d, I1 and I30 supported by upstox api for now
-    ONE_MINUTE("I1"),
-    FIVE_MINUTES("I5"),
-    FIFTEEN_MINUTES("I15"),
-    THIRTY_MINUTES("I30"),
-    ONE_HOUR("I60"),
-    FOUR_HOURS("I240"),
-    ONE_DAY("1d"),
-    ONE_WEEK("1w");
+    ONE_MINUTE("I1", "1m"),
+    FIVE_MINUTES("I5", "5m"),
+    FIFTEEN_MINUTES("I15", "15m"),
+    THIRTY_MINUTES("I30", "30m"),
+    ONE_HOUR("I60", "1h"),
+    FOUR_HOURS("I240", "4h"),
+    ONE_DAY("1d", "1d"),
+    ONE_WEEK("1w", "1w");
 
     private final String value;
+    private final String label;         // as used by the public API (e.g., "5m")
 
-    TimeInterval(String value) {
+    TimeInterval(String value, String label) {
         this.value = value;
+        this.label = label;
     }
 
     public static TimeInterval fromValue(TimeInterval timeInterval) {
@@ -27,4 +29,16 @@ public enum TimeInterval {                  // only 1d, I1 and I30 supported by
         }
         throw new IllegalArgumentException("Invalid time interval: " + timeInterval.getValue());
     }
-}
\ No newline at end of file
+
+    /**
+     * Resolves an interval from its Upstox value (e.g., "I1"), API label (e.g., "1m") or enum name (e.g., "ONE_MINUTE").
+     */
+    public static TimeInterval fromValue(String value) {
+        for (TimeInterval interval : TimeInterval.values()) {
+            if (interval.getValue().equals(value) || interval.getLabel().equals(value) || interval.name().equals(value)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Invalid time interval: " + value);
+    }
+}
@@ -0,0 +1,43 @@
+package com.beartrail.marketdata.model.instrument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What changed between two {@link InstrumentTable}s, by instrument key. {@code changed} holds keys present
+ * in both whose trading symbol, name or exchange token differ.
+ */
+public record InstrumentDiff(List<String> added, List<String> removed, List<String> changed) {
+
+    public static InstrumentDiff between(InstrumentTable previous, InstrumentTable current) {
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        for (int id = 0; id < current.size(); id++) {
+            String key = current.instrumentKey(id);
+            int previousId = previous.idOfKey(key);
+            if (previousId < 0) {
+                added.add(key);
+            } else if (!sameAttributes(previous, previousId, current, id)) {
+                changed.add(key);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (int id = 0; id < previous.size(); id++) {
+            if (current.idOfKey(previous.instrumentKey(id)) < 0) {
+                removed.add(previous.instrumentKey(id));
+            }
+        }
+        return new InstrumentDiff(List.copyOf(added), List.copyOf(removed), List.copyOf(changed));
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    private static boolean sameAttributes(InstrumentTable a, int aId, InstrumentTable b, int bId) {
+        return Objects.equals(a.tradingSymbol(aId), b.tradingSymbol(bId))
+                && Objects.equals(a.name(aId), b.name(bId))
+                && Objects.equals(a.exchangeToken(aId), b.exchangeToken(bId));
+    }
+}
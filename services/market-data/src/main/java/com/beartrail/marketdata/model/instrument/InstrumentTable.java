@@ -0,0 +1,267 @@
+package com.beartrail.marketdata.model.instrument;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, columnar instrument master. Every instrument is interned to a dense {@code int} id
+ * ({@code 0..size()-1}) and its attributes live in parallel arrays, so a universe of tens of thousands of
+ * instruments costs a handful of arrays instead of an object graph per instrument. Lookups by instrument
+ * key, by trading symbol and by exchange token are O(1) probes of open-addressing {@code int} tables that
+ * compare against the columns, without allocating.
+ * <p>
+ * Trading symbols and exchange tokens are only unique within a segment (RELIANCE trades on NSE and BSE),
+ * so the single-argument lookups resolve to the first of {@link #SEGMENTS} that lists the instrument.
+ */
+public final class InstrumentTable {
+
+    /** Segments kept in the registry, in lookup preference order. */
+    public static final List<String> SEGMENTS = List.of("NSE_EQ", "BSE_EQ");
+
+    public static final InstrumentTable EMPTY = builder(0).build();
+
+    private final int size;
+    private final String[] instrumentKeys;
+    private final byte[] segments;
+    private final String[] tradingSymbols;
+    private final String[] names;
+    private final String[] exchangeTokens;
+    private final int[] byKey;
+    private final int[] byTradingSymbol;
+    private final int[] byExchangeToken;
+    private final List<String> instrumentKeyList;
+
+    private InstrumentTable(Builder builder) {
+        size = builder.size;
+        instrumentKeys = Arrays.copyOf(builder.instrumentKeys, size);
+        segments = Arrays.copyOf(builder.segments, size);
+        tradingSymbols = Arrays.copyOf(builder.tradingSymbols, size);
+        names = Arrays.copyOf(builder.names, size);
+        exchangeTokens = Arrays.copyOf(builder.exchangeTokens, size);
+        instrumentKeyList = Collections.unmodifiableList(Arrays.asList(instrumentKeys));
+
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2) * 2;   // load factor <= 0.5
+        byKey = new int[capacity];
+        byTradingSymbol = new int[capacity];
+        byExchangeToken = new int[capacity];
+        for (int id = 0; id < size; id++) {
+            insert(byKey, mix(instrumentKeys[id].hashCode()), id);
+            if (tradingSymbols[id] != null) {
+                insert(byTradingSymbol, pairHash(segments[id], tradingSymbols[id]), id);
+            }
+            if (exchangeTokens[id] != null) {
+                insert(byExchangeToken, pairHash(segments[id], exchangeTokens[id]), id);
+            }
+        }
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The instrument keys in id order, as an unmodifiable view.
+     */
+    public List<String> instrumentKeys() {
+        return instrumentKeyList;
+    }
+
+    public String instrumentKey(int id) {
+        return instrumentKeys[checkId(id)];
+    }
+
+    public String segment(int id) {
+        return SEGMENTS.get(segments[checkId(id)]);
+    }
+
+    public String tradingSymbol(int id) {
+        return tradingSymbols[checkId(id)];
+    }
+
+    /**
+     * @return The key Upstox quotes {@code id} under, e.g. {@code NSE_EQ:RELIANCE}; polled candles are stored by it.
+     */
+    public String quoteKey(int id) {
+        return segment(id) + ':' + tradingSymbol(id);
+    }
+
+    public String name(int id) {
+        return names[checkId(id)];
+    }
+
+    public String exchangeToken(int id) {
+        return exchangeTokens[checkId(id)];
+    }
+
+    /**
+     * @return The id of the instrument with this key (e.g., {@code NSE_EQ|INE002A01018}), or {@code -1}.
+     */
+    public int idOfKey(String instrumentKey) {
+        if (instrumentKey == null) {
+            return -1;
+        }
+        int mask = byKey.length - 1;
+        for (int slot = mix(instrumentKey.hashCode()) & mask; byKey[slot] != 0; slot = (slot + 1) & mask) {
+            int id = byKey[slot] - 1;
+            if (instrumentKeys[id].equals(instrumentKey)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The id of {@code tradingSymbol} in {@code segment}, or {@code -1}.
+     */
+    public int idOfTradingSymbol(String segment, String tradingSymbol) {
+        return findPair(byTradingSymbol, tradingSymbols, segmentIndex(segment), tradingSymbol);
+    }
+
+    /**
+     * @return The id of {@code tradingSymbol} in the first segment that lists it, or {@code -1}.
+     */
+    public int idOfTradingSymbol(String tradingSymbol) {
+        for (int segment = 0; segment < SEGMENTS.size(); segment++) {
+            int id = findPair(byTradingSymbol, tradingSymbols, segment, tradingSymbol);
+            if (id >= 0) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The id of the instrument with this exchange token in {@code segment}, or {@code -1}.
+     */
+    public int idOfExchangeToken(String segment, String exchangeToken) {
+        return findPair(byExchangeToken, exchangeTokens, segmentIndex(segment), exchangeToken);
+    }
+
+    /**
+     * @return The id of the instrument with this exchange token in the first segment that lists it, or {@code -1}.
+     */
+    public int idOfExchangeToken(String exchangeToken) {
+        for (int segment = 0; segment < SEGMENTS.size(); segment++) {
+            int id = findPair(byExchangeToken, exchangeTokens, segment, exchangeToken);
+            if (id >= 0) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private int findPair(int[] index, String[] column, int segment, String value) {
+        if (segment < 0 || value == null) {
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = pairHash(segment, value) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int id = index[slot] - 1;
+            if (segments[id] == segment && value.equals(column[id])) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private int checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Instrument id " + id + " outside table of " + size);
+        }
+        return id;
+    }
+
+    private static void insert(int[] index, int hash, int id) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = id + 1;                                           // 0 marks an empty slot
+    }
+
+    private static int pairHash(int segment, String value) {
+        return mix(31 * segment + value.hashCode());
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    static int segmentIndex(String segment) {
+        return SEGMENTS.indexOf(segment);
+    }
+
+    /**
+     * Accumulates instruments in id order. Not thread-safe.
+     */
+    public static final class Builder {
+        private int size;
+        private String[] instrumentKeys;
+        private byte[] segments;
+        private String[] tradingSymbols;
+        private String[] names;
+        private String[] exchangeTokens;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            instrumentKeys = new String[capacity];
+            segments = new byte[capacity];
+            tradingSymbols = new String[capacity];
+            names = new String[capacity];
+            exchangeTokens = new String[capacity];
+        }
+
+        /**
+         * Adds an instrument of one of the {@link #SEGMENTS}.
+         *
+         * @return Its id.
+         * @throws IllegalArgumentException If the segment is not a registry segment or the key is empty.
+         */
+        public int add(String segment, String instrumentKey, String tradingSymbol, String name, String exchangeToken) {
+            int segmentIndex = segmentIndex(segment);
+            if (segmentIndex < 0) {
+                throw new IllegalArgumentException("Unsupported segment: " + segment);
+            }
+            if (instrumentKey == null || instrumentKey.isEmpty()) {
+                throw new IllegalArgumentException("Instrument key must not be empty");
+            }
+            if (size == instrumentKeys.length) {
+                grow();
+            }
+            int id = size++;
+            instrumentKeys[id] = instrumentKey;
+            segments[id] = (byte) segmentIndex;
+            tradingSymbols[id] = tradingSymbol;
+            names[id] = name;
+            exchangeTokens[id] = exchangeToken;
+            return id;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public InstrumentTable build() {
+            return new InstrumentTable(this);
+        }
+
+        private void grow() {
+            int capacity = instrumentKeys.length * 2;
+            instrumentKeys = Arrays.copyOf(instrumentKeys, capacity);
+            segments = Arrays.copyOf(segments, capacity);
+            tradingSymbols = Arrays.copyOf(tradingSymbols, capacity);
+            names = Arrays.copyOf(names, capacity);
+            exchangeTokens = Arrays.copyOf(exchangeTokens, capacity);
+        }
+    }
+}
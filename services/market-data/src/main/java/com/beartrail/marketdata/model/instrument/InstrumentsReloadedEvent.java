@@ -0,0 +1,8 @@
+package com.beartrail.marketdata.model.instrument;
+
+/**
+ * Published in-process after a reload swapped in a new {@link InstrumentTable} that differs from the
+ * previous one. Listeners update only what {@code diff} names; both snapshots stay valid.
+ */
+public record InstrumentsReloadedEvent(InstrumentTable previous, InstrumentTable current, InstrumentDiff diff) {
+}
@@ -0,0 +1,134 @@
+package com.beartrail.marketdata.repository;
+
+import com.beartrail.marketdata.config.CandlePersistenceConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.service.CandlePartitionManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk write path for candles. Each chunk of {@code batchSize} rows becomes a single multi-row
+ * {@code INSERT ... ON CONFLICT DO UPDATE}, and all chunks of a call share one transaction, so a
+ * full Upstox batch costs a handful of round trips instead of a select and an insert per row.
+ * Partitions a batch needs beyond the pre-created window are created before the first insert.
+ */
+@Slf4j
+@Repository
+public class CandleBatchWriter {
+
+    private static final int COLUMN_COUNT = 10;
+    private static final int MAX_BIND_PARAMETERS = 65_535;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<CandlePartitionManager> partitionManager;
+    private final int batchSize;
+    private final String fullBatchSql;
+    private final Timer persistTimer;
+    private final Counter rowsPersisted;
+    private final DistributionSummary rowsPerSecond;
+
+    public CandleBatchWriter(JdbcTemplate jdbcTemplate, ObjectProvider<CandlePartitionManager> partitionManager,
+                             CandlePersistenceConfig config, MeterRegistry meterRegistry) {
+        if (config.getBatchSize() < 1 || config.getBatchSize() * COLUMN_COUNT > MAX_BIND_PARAMETERS) {
+            throw new IllegalArgumentException("Invalid candle persistence batch size: " + config.getBatchSize());
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionManager = partitionManager;
+        this.batchSize = config.getBatchSize();
+        this.fullBatchSql = upsertSql(batchSize);
+        this.persistTimer = Timer.builder("marketdata.candles.persist")
+                .description("Time to bulk upsert one candle batch")
+                .register(meterRegistry);
+        this.rowsPersisted = Counter.builder("marketdata.candles.persisted")
+                .description("Candle rows upserted")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.rowsPerSecond = DistributionSummary.builder("marketdata.candles.persist.throughput")
+                .description("Candle upsert throughput per batch")
+                .baseUnit("rows/s")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public int upsertAll(List<MarketData> candles) {
+        return upsertAll(CandleBatch.of(candles));
+    }
+
+    @Transactional
+    public int upsertAll(CandleBatch candles) {
+        if (candles.isEmpty()) {
+            return 0;
+        }
+
+        partitionManager.ifAvailable(manager -> manager.ensurePartitions(candles));
+
+        long start = System.nanoTime();
+        int written = 0;
+        for (int from = 0; from < candles.size(); from += batchSize) {
+            int chunkStart = from;
+            int chunkSize = Math.min(batchSize, candles.size() - from);
+            String sql = chunkSize == batchSize ? fullBatchSql : upsertSql(chunkSize);
+            written += jdbcTemplate.update(sql, ps -> bindChunk(ps, candles, chunkStart, chunkSize));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        persistTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rowsPersisted.increment(candles.size());
+        rowsPerSecond.record(candles.size() * 1e9 / Math.max(elapsedNanos, 1));
+        log.debug("Upserted {} candles in {} ms", candles.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return written;
+    }
+
+    private static void bindChunk(PreparedStatement ps, CandleBatch candles, int from, int count) throws SQLException {
+        int index = 1;
+        for (int row = from; row < from + count; row++) {
+            ps.setString(index++, candles.symbol(row));
+            ps.setString(index++, candles.interval(row).name());
+            ps.setLong(index++, candles.timestamp(row));
+            ps.setString(index++, candles.instrumentToken(row));
+            setPrice(ps, index++, candles.lastPrice(row));
+            setPrice(ps, index++, candles.openPrice(row));
+            setPrice(ps, index++, candles.highPrice(row));
+            setPrice(ps, index++, candles.lowPrice(row));
+            setPrice(ps, index++, candles.closePrice(row));
+            ps.setLong(index++, candles.volume(row));
+        }
+    }
+
+    private static void setPrice(PreparedStatement ps, int index, double price) throws SQLException {
+        if (Double.isNaN(price)) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, price);
+        }
+    }
+
+    static String upsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(200 + rows * 34)
+                .append("INSERT INTO candles (symbol, time_interval, bucket_start, instrument_token, last_price, ")
+                .append("open_price, high_price, low_price, close_price, volume) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        return sql.append(" ON CONFLICT (symbol, time_interval, bucket_start) DO UPDATE SET ")
+                .append("instrument_token = EXCLUDED.instrument_token, last_price = EXCLUDED.last_price, ")
+                .append("open_price = EXCLUDED.open_price, high_price = EXCLUDED.high_price, ")
+                .append("low_price = EXCLUDED.low_price, close_price = EXCLUDED.close_price, ")
+                .append("volume = EXCLUDED.volume")
+                .toString();
+    }
+}
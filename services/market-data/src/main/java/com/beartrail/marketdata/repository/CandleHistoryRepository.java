@@ -0,0 +1,72 @@
+package com.beartrail.marketdata.repository;
+
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read path for candle history. Ranges are walked with keyset pagination on {@code bucket_start},
+ * so every page is a short, index-ordered query against the relevant partitions, and the
+ * connection is released before the page is handed to the (possibly slow) consumer.
+ */
+@Repository
+public class CandleHistoryRepository {
+
+    static final String PAGE_SQL = "SELECT bucket_start, open_price, high_price, low_price, close_price, volume "
+            + "FROM candles WHERE symbol = ? AND time_interval = ? AND bucket_start >= ? AND bucket_start < ? "
+            + "ORDER BY bucket_start LIMIT ?";
+
+    static final String SYMBOLS_SQL = "SELECT DISTINCT symbol FROM candles WHERE time_interval = ? AND bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CandleHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams the candles of {@code [from, to)} to the consumer in ascending bucket order.
+     *
+     * @return The number of candles emitted.
+     */
+    public long streamRange(String symbol, TimeInterval interval, long from, long to, int pageSize,
+                            Consumer<CandleDto> consumer) {
+        List<CandleDto> page = new ArrayList<>(pageSize);
+        long cursor = from;
+        long emitted = 0;
+        while (true) {
+            page.clear();
+            jdbcTemplate.query(PAGE_SQL, (RowCallbackHandler) rs -> {
+                page.add(new CandleDto(
+                        rs.getLong(1),
+                        rs.getObject(2, Double.class),
+                        rs.getObject(3, Double.class),
+                        rs.getObject(4, Double.class),
+                        rs.getObject(5, Double.class),
+                        rs.getObject(6, Long.class)));
+            }, symbol, interval.name(), cursor, to, pageSize);
+
+            for (CandleDto candle : page) {
+                consumer.accept(candle);
+            }
+            emitted += page.size();
+            if (page.size() < pageSize) {
+                return emitted;
+            }
+            cursor = page.get(page.size() - 1).getTimestamp() + 1;
+        }
+    }
+
+    /**
+     * @return The symbols with at least one candle of {@code interval} before {@code to}.
+     */
+    public List<String> findSymbols(TimeInterval interval, long to) {
+        return jdbcTemplate.queryForList(SYMBOLS_SQL, String.class, interval.name(), to);
+    }
+}
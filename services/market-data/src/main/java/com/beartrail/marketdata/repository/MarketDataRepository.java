@@ -1,21 +1,33 @@
 package com.beartrail.marketdata.repository;
 
 import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.MarketDataId;
 import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Repository
-public interface MarketDataRepository extends JpaRepository<MarketData, UUID> {
+public interface MarketDataRepository extends JpaRepository<MarketData, MarketDataId> {
 
-    List<MarketData> findBySymbol(String symbol);
+    /**
+     * Range query over one interval's candles, newest first, reading at most {@code limit} rows. The
+     * interval and bucket bounds let Postgres prune to the partitions covering {@code [from, to)}.
+     */
+    List<MarketData> findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+            String symbol,
+            TimeInterval timeInterval,
+            Long from,
+            Long to,
+            Limit limit
+    );
 
-    Optional<MarketData> findBySymbolAndTimestamp(
+    Optional<MarketData> findBySymbolAndTimeIntervalAndTimestamp(
             String symbol,
+            TimeInterval timeInterval,
             Long timestamp
     );
 }
@@ -0,0 +1,131 @@
+package com.beartrail.marketdata.repository.archive;
+
+import com.beartrail.marketdata.config.CandleArchiveConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cold candle history on local disk, one {@link CandleArchiveFile} per symbol and interval under
+ * {@code beartrail.candles.archive.directory}. Files are opened on demand and the least recently used
+ * are closed beyond {@code max-open-files}; slices already handed out stay readable.
+ * <p>
+ * When the archive is disabled it holds nothing: {@link #end(String, TimeInterval)} is
+ * {@link Long#MIN_VALUE} and reads are empty.
+ */
+@Slf4j
+@Repository
+public class CandleArchive {
+
+    static final String FILE_SUFFIX = ".cndl";
+
+    private final CandleArchiveConfig config;
+    private final Map<Path, CandleArchiveFile> openFiles;
+
+    public CandleArchive(CandleArchiveConfig config) {
+        this.config = config;
+        this.openFiles = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, CandleArchiveFile> eldest) {
+                if (size() <= config.getMaxOpenFiles()) {
+                    return false;
+                }
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * @return One past the last archived bucket start for the symbol, or {@link Long#MIN_VALUE} if none is archived.
+     */
+    public synchronized long end(String symbol, TimeInterval interval) {
+        CandleArchiveFile file = existing(symbol, interval);
+        return file == null ? Long.MIN_VALUE : file.end();
+    }
+
+    /**
+     * @return The archived candles with bucket start in {@code [from, to)}, read in place.
+     */
+    public synchronized CandleArchiveSlice read(String symbol, TimeInterval interval, long from, long to) {
+        CandleArchiveFile file = existing(symbol, interval);
+        return file == null ? CandleArchiveSlice.empty() : file.read(from, to);
+    }
+
+    /**
+     * Appends the candles newer than the archive's end; {@code candles} must be one symbol and interval
+     * in ascending timestamp order.
+     *
+     * @return The number of candles appended.
+     * @throws UncheckedIOException If the archive file cannot be written.
+     */
+    public synchronized int append(String symbol, TimeInterval interval, CandleBatch candles) {
+        if (!isEnabled() || candles.isEmpty()) {
+            return 0;
+        }
+        Path path = pathOf(symbol, interval);
+        try {
+            CandleArchiveFile file = openFiles.get(path);
+            if (file == null) {
+                Files.createDirectories(path.getParent());
+                file = CandleArchiveFile.open(path, config.getBlockRows());
+                openFiles.put(path, file);
+            }
+            return file.append(candles);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to candle archive " + path, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        openFiles.values().forEach(CandleArchive::closeQuietly);
+        openFiles.clear();
+    }
+
+    private CandleArchiveFile existing(String symbol, TimeInterval interval) {
+        if (!isEnabled() || symbol == null) {
+            return null;
+        }
+        Path path = pathOf(symbol, interval);
+        CandleArchiveFile file = openFiles.get(path);
+        if (file != null || !Files.exists(path)) {
+            return file;
+        }
+        try {
+            file = CandleArchiveFile.open(path, config.getBlockRows());
+            openFiles.put(path, file);
+            return file;
+        } catch (IOException e) {
+            log.error("Unreadable candle archive {}, serving the range from the database", path, e);
+            return null;
+        }
+    }
+
+    Path pathOf(String symbol, TimeInterval interval) {
+        return Path.of(config.getDirectory(), interval.name(), URLEncoder.encode(symbol, StandardCharsets.UTF_8) + FILE_SUFFIX);
+    }
+
+    private static void closeQuietly(CandleArchiveFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.warn("Failed to close candle archive file", e);
+        }
+    }
+}
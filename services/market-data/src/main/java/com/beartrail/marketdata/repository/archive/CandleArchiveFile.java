@@ -0,0 +1,318 @@
+package com.beartrail.marketdata.repository.archive;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * One symbol and interval of archived candles: an append-only file of columnar blocks, read through a
+ * read-only memory mapping.
+ * <pre>
+ * file   := header block*
+ * header := magic:int version:short reserved:short committedLength:long              (16 bytes)
+ * block  := count:int base:long offset:int[count] open:long[count] high:long[count]
+ *           low:long[count] close:long[count] volume:long[count]
+ * </pre>
+ * Timestamps are delta-encoded as {@code int} offsets from the block's base, so a block is searched
+ * in place; a block ends early when the next offset would overflow. Prices are fixed-point longs in
+ * units of 1/{@value #PRICE_SCALE}, with {@link #ABSENT} for a missing price. Everything is big-endian.
+ * <p>
+ * A block is written past the committed length first and only then made visible by updating the
+ * header, so a crash mid-append leaves the previous blocks intact and the partial block is overwritten
+ * by the next append. Not thread-safe; {@link CandleArchive} serializes access.
+ */
+final class CandleArchiveFile implements Closeable {
+
+    static final int MAGIC = 0x42544341;                            // "BTCA"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int BLOCK_HEADER_BYTES = 12;
+    static final int ROW_BYTES = 4 + 5 * 8;
+    static final long PRICE_SCALE = 10_000L;
+    static final long ABSENT = Long.MIN_VALUE;
+
+    private static final int COMMITTED_LENGTH_OFFSET = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int maxBlockRows;
+    private long committedLength;
+    private MappedByteBuffer mapped;
+
+    private int blocks;
+    private long[] blockPositions = new long[16];
+    private int[] blockCounts = new int[16];
+    private long[] blockFirst = new long[16];
+    private long[] blockLast = new long[16];
+
+    private CandleArchiveFile(Path path, FileChannel channel, int maxBlockRows) {
+        this.path = path;
+        this.channel = channel;
+        this.maxBlockRows = maxBlockRows;
+    }
+
+    /**
+     * Opens, or creates, the archive file at {@code path}.
+     *
+     * @throws IOException If the file cannot be opened or is not a candle archive.
+     */
+    static CandleArchiveFile open(Path path, int maxBlockRows) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        CandleArchiveFile file = new CandleArchiveFile(path, channel, maxBlockRows);
+        try {
+            file.init();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return file;
+    }
+
+    private void init() throws IOException {
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(HEADER_BYTES)
+                    .flip();
+            writeFully(header, 0);
+            channel.force(true);
+            committedLength = HEADER_BYTES;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " candle archive: " + path);
+        }
+        header.getShort();
+        committedLength = header.getLong();
+        if (committedLength < HEADER_BYTES || committedLength > channel.size()) {
+            throw new IOException("Corrupt committed length " + committedLength + " in " + path);
+        }
+        remap();
+        for (long position = HEADER_BYTES; position < committedLength; ) {
+            position += indexBlock(position);
+        }
+    }
+
+    /**
+     * @return One past the last archived bucket start, or {@link Long#MIN_VALUE} if the file is empty.
+     */
+    long end() {
+        return blocks == 0 ? Long.MIN_VALUE : blockLast[blocks - 1] + 1;
+    }
+
+    int rowCount() {
+        int rows = 0;
+        for (int block = 0; block < blocks; block++) {
+            rows += blockCounts[block];
+        }
+        return rows;
+    }
+
+    /**
+     * Appends the rows of {@code candles} that are newer than {@link #end()}, which must be in ascending
+     * timestamp order, and makes them durable.
+     *
+     * @return The number of rows appended.
+     */
+    int append(CandleBatch candles) throws IOException {
+        long end = end();
+        int first = 0;
+        while (first < candles.size() && candles.timestamp(first) < end) {
+            first++;                                                    // already archived
+        }
+        int appended = 0;
+        long position = committedLength;
+        for (int row = first; row < candles.size(); ) {
+            int count = blockLength(candles, row);
+            ByteBuffer block = encodeBlock(candles, row, count);
+            writeFully(block, position);
+            position += block.capacity();
+            row += count;
+            appended += count;
+        }
+        if (appended == 0) {
+            return 0;
+        }
+
+        channel.force(false);
+        ByteBuffer length = ByteBuffer.allocate(8).putLong(0, position);
+        writeFully(length, COMMITTED_LENGTH_OFFSET);
+        channel.force(false);
+        long previous = committedLength;
+        committedLength = position;
+        remap();
+        for (long blockPosition = previous; blockPosition < committedLength; ) {
+            blockPosition += indexBlock(blockPosition);
+        }
+        return appended;
+    }
+
+    /**
+     * @return The archived candles with bucket start in {@code [from, to)}, as views of the mapping.
+     */
+    CandleArchiveSlice read(long from, long to) {
+        CandleArchiveSlice.Builder slice = CandleArchiveSlice.builder();
+        if (from >= to) {
+            return slice.build();
+        }
+        int block = Math.max(0, firstBlockEndingAtOrAfter(from));
+        for (; block < blocks && blockFirst[block] < to; block++) {
+            int position = (int) blockPositions[block];
+            int count = blockCounts[block];
+            ByteBuffer view = mapped.slice(position, BLOCK_HEADER_BYTES + count * ROW_BYTES).order(ByteOrder.BIG_ENDIAN);
+            long base = view.getLong(4);
+            int start = searchOffset(view, count, from - base);
+            int end = searchOffset(view, count, to - base);
+            if (start < end) {
+                slice.add(view, count, start, end);
+            }
+        }
+        return slice.build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int blockLength(CandleBatch candles, int from) {
+        long base = candles.timestamp(from);
+        long previous = base;
+        int count = 1;
+        while (count < maxBlockRows && from + count < candles.size()) {
+            long timestamp = candles.timestamp(from + count);
+            if (timestamp <= previous) {
+                throw new IllegalArgumentException("Candles must be in ascending timestamp order: " + timestamp + " after " + previous);
+            }
+            if (timestamp - base > Integer.MAX_VALUE) {
+                break;                                                  // offset would overflow, start a new block
+            }
+            previous = timestamp;
+            count++;
+        }
+        return count;
+    }
+
+    private static ByteBuffer encodeBlock(CandleBatch candles, int from, int count) {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + count * ROW_BYTES);
+        long base = candles.timestamp(from);
+        block.putInt(count).putLong(base);
+        for (int i = 0; i < count; i++) {
+            block.putInt((int) (candles.timestamp(from + i) - base));
+        }
+        for (int i = 0; i < count; i++) {
+            block.putLong(toFixed(candles.openPrice(from + i)));
+        }
+        for (int i = 0; i < count; i++) {
+            block.putLong(toFixed(candles.highPrice(from + i)));
+        }
+        for (int i = 0; i < count; i++) {
+            block.putLong(toFixed(candles.lowPrice(from + i)));
+        }
+        for (int i = 0; i < count; i++) {
+            block.putLong(toFixed(candles.closePrice(from + i)));
+        }
+        for (int i = 0; i < count; i++) {
+            block.putLong(candles.volume(from + i));
+        }
+        return block.flip();
+    }
+
+    private int indexBlock(long position) {
+        if (blocks == blockPositions.length) {
+            int capacity = blocks * 2;
+            blockPositions = Arrays.copyOf(blockPositions, capacity);
+            blockCounts = Arrays.copyOf(blockCounts, capacity);
+            blockFirst = Arrays.copyOf(blockFirst, capacity);
+            blockLast = Arrays.copyOf(blockLast, capacity);
+        }
+        int at = (int) position;
+        int count = mapped.getInt(at);
+        long base = mapped.getLong(at + 4);
+        blockPositions[blocks] = position;
+        blockCounts[blocks] = count;
+        blockFirst[blocks] = base;
+        blockLast[blocks] = base + mapped.getInt(at + BLOCK_HEADER_BYTES + 4 * (count - 1));
+        blocks++;
+        return BLOCK_HEADER_BYTES + count * ROW_BYTES;
+    }
+
+    private int firstBlockEndingAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockLast[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The first row of the block whose offset is at or after {@code offset}.
+     */
+    private static int searchOffset(ByteBuffer block, int count, long offset) {
+        if (offset <= 0) {
+            return 0;
+        }
+        if (offset > Integer.MAX_VALUE) {
+            return count;
+        }
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (block.getInt(BLOCK_HEADER_BYTES + 4 * mid) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void remap() throws IOException {
+        if (committedLength > Integer.MAX_VALUE) {
+            throw new IOException("Candle archive larger than 2 GiB: " + path);
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, committedLength);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Truncated candle archive: " + path);
+            }
+            position += read;
+        }
+    }
+
+    static long toFixed(double price) {
+        return Double.isNaN(price) ? ABSENT : Math.round(price * PRICE_SCALE);
+    }
+
+    static double fromFixed(long fixed) {
+        return fixed == ABSENT ? Double.NaN : (double) fixed / PRICE_SCALE;
+    }
+}
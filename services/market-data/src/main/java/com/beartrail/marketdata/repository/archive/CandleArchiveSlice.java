@@ -0,0 +1,144 @@
+package com.beartrail.marketdata.repository.archive;
+
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A range of archived candles read in place from the archive's memory mapping: each accessor decodes
+ * one value straight from the mapped block, nothing is copied up front. Row {@code i} spans the
+ * underlying blocks in timestamp order. Slices stay valid after the archive grows or is closed.
+ */
+public final class CandleArchiveSlice {
+
+    private static final CandleArchiveSlice EMPTY = new CandleArchiveSlice(List.of());
+
+    private final List<Segment> segments;
+    private final int size;
+
+    private CandleArchiveSlice(List<Segment> segments) {
+        this.segments = segments;
+        int rows = 0;
+        for (Segment segment : segments) {
+            rows += segment.end - segment.start;
+        }
+        this.size = rows;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    public static CandleArchiveSlice empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestamp(int row) {
+        Segment segment = segmentOf(row);
+        int index = segment.index(row);
+        return segment.block.getLong(4) + segment.block.getInt(CandleArchiveFile.BLOCK_HEADER_BYTES + 4 * index);
+    }
+
+    public double open(int row) {
+        return CandleArchiveFile.fromFixed(column(row, 0));
+    }
+
+    public double high(int row) {
+        return CandleArchiveFile.fromFixed(column(row, 1));
+    }
+
+    public double low(int row) {
+        return CandleArchiveFile.fromFixed(column(row, 2));
+    }
+
+    public double close(int row) {
+        return CandleArchiveFile.fromFixed(column(row, 3));
+    }
+
+    public long volume(int row) {
+        return column(row, 4);
+    }
+
+    public CandleDto toCandleDto(int row) {
+        return new CandleDto(timestamp(row), orNull(open(row)), orNull(high(row)), orNull(low(row)), orNull(close(row)), volume(row));
+    }
+
+    /**
+     * Materializes one row as an entity; the archive keeps no last price or instrument token, so the
+     * close stands in for the last price.
+     */
+    public MarketData toMarketData(int row, String symbol, TimeInterval interval) {
+        MarketData marketData = new MarketData();
+        marketData.setSymbol(symbol);
+        marketData.setTimeInterval(interval);
+        marketData.setTimestamp(timestamp(row));
+        marketData.setOpenPrice(orNull(open(row)));
+        marketData.setHighPrice(orNull(high(row)));
+        marketData.setLowPrice(orNull(low(row)));
+        marketData.setClosePrice(orNull(close(row)));
+        marketData.setLastPrice(marketData.getClosePrice());
+        marketData.setVolume(volume(row));
+        return marketData;
+    }
+
+    private long column(int row, int column) {
+        Segment segment = segmentOf(row);
+        int count = segment.count;
+        int offset = CandleArchiveFile.BLOCK_HEADER_BYTES + 4 * count + 8 * (column * count + segment.index(row));
+        return segment.block.getLong(offset);
+    }
+
+    private Segment segmentOf(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside slice of " + size);
+        }
+        for (Segment segment : segments) {
+            if (row < segment.firstRow + segment.end - segment.start) {
+                return segment;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Rows {@code [start, end)} of one mapped block, which holds {@code count} rows and is the
+     * {@code firstRow}-th row onwards of the slice.
+     */
+    private record Segment(ByteBuffer block, int count, int start, int end, int firstRow) {
+
+        private int index(int row) {
+            return start + row - firstRow;
+        }
+    }
+
+    static final class Builder {
+        private final List<Segment> segments = new ArrayList<>();
+        private int rows;
+
+        Builder add(ByteBuffer block, int count, int start, int end) {
+            segments.add(new Segment(block, count, start, end, rows));
+            rows += end - start;
+            return this;
+        }
+
+        CandleArchiveSlice build() {
+            return segments.isEmpty() ? EMPTY : new CandleArchiveSlice(List.copyOf(segments));
+        }
+    }
+}
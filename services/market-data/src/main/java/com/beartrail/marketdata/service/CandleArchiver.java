@@ -0,0 +1,90 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.CandleArchiveConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.repository.CandleHistoryRepository;
+import com.beartrail.marketdata.repository.archive.CandleArchive;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+
+/**
+ * Copies candles older than {@code archive-after} from Postgres into the {@link CandleArchive}, each
+ * symbol resuming where its archive file ends. Runs nightly after partition maintenance, well inside
+ * every archived interval's retention, so history survives the partitions being dropped. A NULL price
+ * is archived as absent and reads back as {@code null}; a NULL volume is archived as 0.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "beartrail.candles.archive", name = "enabled", havingValue = "true")
+public class CandleArchiver {
+
+    private final CandleHistoryRepository candleHistoryRepository;
+    private final CandleArchive candleArchive;
+    private final CandleArchiveConfig config;
+    private final Clock clock;
+
+    @Autowired
+    public CandleArchiver(CandleHistoryRepository candleHistoryRepository, CandleArchive candleArchive, CandleArchiveConfig config) {
+        this(candleHistoryRepository, candleArchive, config, Clock.systemUTC());
+    }
+
+    CandleArchiver(CandleHistoryRepository candleHistoryRepository, CandleArchive candleArchive, CandleArchiveConfig config, Clock clock) {
+        this.candleHistoryRepository = candleHistoryRepository;
+        this.candleArchive = candleArchive;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "0 0 1 * * ?", zone = "${beartrail.market.session.zone:Asia/Kolkata}")
+    public void archive() {
+        long cutoff = clock.millis() - config.getArchiveAfter().toMillis();
+        for (TimeInterval interval : config.getIntervals()) {
+            try {
+                long archived = 0;
+                for (String symbol : candleHistoryRepository.findSymbols(interval, cutoff)) {
+                    archived += archive(symbol, interval, cutoff);
+                }
+                log.info("Archived {} {} candles older than {}", archived, interval, cutoff);
+            } catch (DataAccessException | UncheckedIOException e) {
+                log.error("Candle archiving failed for interval: {}", interval, e);
+            }
+        }
+    }
+
+    /**
+     * Appends the symbol's candles from the archive's end up to {@code cutoff}, a block at a time.
+     *
+     * @return The number of candles appended.
+     */
+    long archive(String symbol, TimeInterval interval, long cutoff) {
+        long from = Math.max(candleArchive.end(symbol, interval), 0L);
+        if (from >= cutoff) {
+            return 0;
+        }
+        CandleBatch block = new CandleBatch(config.getBlockRows());
+        long[] appended = new long[1];
+        candleHistoryRepository.streamRange(symbol, interval, from, cutoff, config.getBlockRows(), candle -> {
+            block.add(symbol, interval, null, candle.getTimestamp(), orNaN(candle.getClose()), orNaN(candle.getOpen()),
+                    orNaN(candle.getHigh()), orNaN(candle.getLow()), orNaN(candle.getClose()),
+                    candle.getVolume() != null ? candle.getVolume() : 0L);
+            if (block.size() == config.getBlockRows()) {
+                appended[0] += candleArchive.append(symbol, interval, block);
+                block.clear();
+            }
+        });
+        appended[0] += candleArchive.append(symbol, interval, block);
+        return appended[0];
+    }
+
+    private static double orNaN(Double price) {
+        return price != null ? price : Double.NaN;
+    }
+}
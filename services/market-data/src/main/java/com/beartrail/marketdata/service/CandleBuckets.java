@@ -0,0 +1,76 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Bucket arithmetic for candles on the exchange calendar, in epoch milliseconds. Intraday buckets are
+ * anchored at the day's session open from {@link MarketSessionCalendar} (so 1h bars are 09:15-10:15, ...,
+ * and a special session gets bars anchored at its own open), daily buckets at exchange midnight and
+ * weekly buckets at Monday exchange midnight.
+ */
+@Component
+public class CandleBuckets {
+
+    public static final long MINUTE = 60_000L;
+    public static final long DAY = 24 * 60 * MINUTE;
+    public static final long WEEK = 7 * DAY;
+
+    private static final long EPOCH_TO_MONDAY = 4 * DAY;              // 1970-01-01 was a Thursday
+
+    private final MarketSessionCalendar calendar;
+    private final long zoneOffset;                                     // the exchange zone has no DST
+
+    public CandleBuckets(MarketSessionCalendar calendar) {
+        this.calendar = calendar;
+        this.zoneOffset = calendar.zone().getRules().getOffset(Instant.now()).getTotalSeconds() * 1000L;
+    }
+
+    public static long duration(TimeInterval interval) {
+        return switch (interval) {
+            case ONE_MINUTE -> MINUTE;
+            case FIVE_MINUTES -> 5 * MINUTE;
+            case FIFTEEN_MINUTES -> 15 * MINUTE;
+            case THIRTY_MINUTES -> 30 * MINUTE;
+            case ONE_HOUR -> 60 * MINUTE;
+            case FOUR_HOURS -> 240 * MINUTE;
+            case ONE_DAY -> DAY;
+            case ONE_WEEK -> WEEK;
+        };
+    }
+
+    public long dayStart(long timestamp) {
+        return Math.floorDiv(timestamp + zoneOffset, DAY) * DAY - zoneOffset;
+    }
+
+    public long bucketStart(TimeInterval interval, long timestamp) {
+        return switch (interval) {
+            case ONE_DAY -> dayStart(timestamp);
+            case ONE_WEEK -> Math.floorDiv(timestamp + zoneOffset - EPOCH_TO_MONDAY, WEEK) * WEEK + EPOCH_TO_MONDAY - zoneOffset;
+            default -> {
+                long anchor = hoursOf(timestamp).open();
+                long duration = duration(interval);
+                yield anchor + Math.floorDiv(timestamp - anchor, duration) * duration;
+            }
+        };
+    }
+
+    /**
+     * The moment a bucket can no longer receive trades: its nominal end, cut short by the day's session
+     * close for intraday and daily buckets.
+     */
+    public long bucketClose(TimeInterval interval, long bucketStart) {
+        long end = bucketStart + duration(interval);
+        if (interval == TimeInterval.ONE_WEEK) {
+            return end;
+        }
+        return Math.min(end, hoursOf(bucketStart).close());
+    }
+
+    private MarketSessionCalendar.TradingSession hoursOf(long timestamp) {
+        return calendar.hoursOn(LocalDate.ofEpochDay(Math.floorDiv(timestamp + zoneOffset, DAY)));
+    }
+}
@@ -0,0 +1,193 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Drops candles that repeat the last one seen for their instrument and interval, so illiquid instruments
+ * stop producing Kafka traffic, database upserts and cache invalidations every minute. A candle is
+ * unchanged when its OHLCV matches the previous one and it is either the same bar again or a bar with
+ * no volume (a no-trade minute the upstream fills with the last price).
+ * <p>
+ * Last-seen state lives in one open-addressing table of primitive columns per interval, keyed by symbol,
+ * so comparing a few thousand instruments a minute neither boxes nor allocates once the table is warm.
+ * <p>
+ * Meters, tagged by interval: {@code marketdata.candles.changed} and {@code marketdata.candles.unchanged}
+ * count candles, and {@code marketdata.candles.changed.ratio} is the changed share of the latest batch.
+ */
+@Component
+public class CandleChangeFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimeInterval, StateTable> tables = new EnumMap<>(TimeInterval.class);
+
+    public CandleChangeFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records every row of {@code candles} as its instrument's latest state. Batches are expected to hold
+     * one interval, as polled and live batches do; the batch is metered under its first row's interval.
+     *
+     * @return The rows that changed; {@code candles} itself when all of them did.
+     */
+    public CandleBatch changed(CandleBatch candles) {
+        if (candles.isEmpty()) {
+            return candles;
+        }
+
+        CandleBatch changed = null;
+        int unchanged = 0;
+        for (int row = 0; row < candles.size(); row++) {
+            StateTable table = table(candles.interval(row));
+            boolean rowChanged;
+            synchronized (table) {
+                rowChanged = table.update(candles, row);
+            }
+            if (rowChanged) {
+                if (changed != null) {
+                    changed.add(candles, row);
+                }
+            } else if (unchanged++ == 0) {
+                changed = new CandleBatch(Math.max(candles.size() - 1, 1));
+                for (int copied = 0; copied < row; copied++) {
+                    changed.add(candles, copied);
+                }
+            }
+        }
+
+        StateTable meters = table(candles.interval(0));
+        meters.changed.increment(candles.size() - unchanged);
+        meters.unchanged.increment(unchanged);
+        meters.lastRatio = (double) (candles.size() - unchanged) / candles.size();
+        return changed == null ? candles : changed;
+    }
+
+    private synchronized StateTable table(TimeInterval interval) {
+        return tables.computeIfAbsent(interval, this::register);
+    }
+
+    private StateTable register(TimeInterval interval) {
+        String tag = interval.getValue();
+        StateTable table = new StateTable(
+                Counter.builder("marketdata.candles.changed").tag("interval", tag).register(meterRegistry),
+                Counter.builder("marketdata.candles.unchanged").tag("interval", tag).register(meterRegistry));
+        Gauge.builder("marketdata.candles.changed.ratio", table, t -> t.lastRatio)
+                .description("Share of the latest batch's candles that differed from the previous candle")
+                .tag("interval", tag)
+                .register(meterRegistry);
+        return table;
+    }
+
+    /**
+     * Open-addressing (linear probing) map from symbol to the last candle's OHLCV, in parallel arrays.
+     */
+    private static final class StateTable {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final Counter changed;
+        private final Counter unchanged;
+        private volatile double lastRatio = Double.NaN;
+
+        private int size;
+        private String[] symbols = new String[INITIAL_CAPACITY];
+        private long[] timestamps = new long[INITIAL_CAPACITY];
+        private long[] opens = new long[INITIAL_CAPACITY];              // prices as raw double bits, so NaN == NaN
+        private long[] highs = new long[INITIAL_CAPACITY];
+        private long[] lows = new long[INITIAL_CAPACITY];
+        private long[] closes = new long[INITIAL_CAPACITY];
+        private long[] volumes = new long[INITIAL_CAPACITY];
+
+        private StateTable(Counter changed, Counter unchanged) {
+            this.changed = changed;
+            this.unchanged = unchanged;
+        }
+
+        /**
+         * @return Whether the row differs from the stored state, which it replaces either way.
+         */
+        private boolean update(CandleBatch candles, int row) {
+            String symbol = candles.symbol(row);
+            long timestamp = candles.timestamp(row);
+            long open = Double.doubleToLongBits(candles.openPrice(row));
+            long high = Double.doubleToLongBits(candles.highPrice(row));
+            long low = Double.doubleToLongBits(candles.lowPrice(row));
+            long close = Double.doubleToLongBits(candles.closePrice(row));
+            long volume = candles.volume(row);
+
+            int slot = slotOf(symbol);
+            boolean changedRow;
+            if (symbols[slot] == null) {
+                if ((size + 1) * 2 > symbols.length) {
+                    grow();
+                    slot = slotOf(symbol);
+                }
+                symbols[slot] = symbol;
+                size++;
+                changedRow = true;
+            } else {
+                changedRow = opens[slot] != open || highs[slot] != high || lows[slot] != low || closes[slot] != close
+                        || volumes[slot] != volume || (timestamps[slot] != timestamp && volume != 0);
+            }
+            timestamps[slot] = timestamp;
+            opens[slot] = open;
+            highs[slot] = high;
+            lows[slot] = low;
+            closes[slot] = close;
+            volumes[slot] = volume;
+            return changedRow;
+        }
+
+        private int slotOf(String symbol) {
+            int mask = symbols.length - 1;
+            int slot = mix(symbol.hashCode()) & mask;
+            while (symbols[slot] != null && !symbols[slot].equals(symbol)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            String[] oldSymbols = symbols;
+            long[] oldTimestamps = timestamps;
+            long[] oldOpens = opens;
+            long[] oldHighs = highs;
+            long[] oldLows = lows;
+            long[] oldCloses = closes;
+            long[] oldVolumes = volumes;
+            int capacity = oldSymbols.length * 2;
+            symbols = new String[capacity];
+            timestamps = new long[capacity];
+            opens = new long[capacity];
+            highs = new long[capacity];
+            lows = new long[capacity];
+            closes = new long[capacity];
+            volumes = new long[capacity];
+            for (int old = 0; old < oldSymbols.length; old++) {
+                if (oldSymbols[old] == null) {
+                    continue;
+                }
+                int slot = slotOf(oldSymbols[old]);
+                symbols[slot] = oldSymbols[old];
+                timestamps[slot] = oldTimestamps[old];
+                opens[slot] = oldOpens[old];
+                highs[slot] = oldHighs[old];
+                lows[slot] = oldLows[old];
+                closes[slot] = oldCloses[old];
+                volumes[slot] = oldVolumes[old];
+            }
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.CandlePartitionConfig;
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the per-interval range partitions of the {@code candles} table ahead of time and drops
+ * partitions that have aged out of the interval's retention window. Writes outside the pre-created
+ * window (backfills, late candles) get their partition on demand through {@link #ensurePartitions}.
+ * Partition bounds follow the exchange calendar ({@code beartrail.market.session.zone}) so a trading
+ * day never straddles two partitions.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "beartrail.candles.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CandlePartitionManager {
+
+    static final String CHILD_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CandlePartitionConfig config;
+    private final TransactionOperations ddlTransaction;
+    private final Clock clock;
+    private final ZoneId zone;
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public CandlePartitionManager(JdbcTemplate jdbcTemplate, CandlePartitionConfig config, MarketSessionConfig sessionConfig,
+                                  PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, config, requiresNew(transactionManager), Clock.system(sessionConfig.getZone()));
+    }
+
+    CandlePartitionManager(JdbcTemplate jdbcTemplate, CandlePartitionConfig config, TransactionOperations ddlTransaction, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.ddlTransaction = ddlTransaction;
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 0 * * ?", zone = "${beartrail.market.session.zone:Asia/Kolkata}")   // shortly after the exchange day rolls over
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now(clock);
+        for (TimeInterval interval : TimeInterval.values()) {
+            try {
+                createPartitions(interval, today);
+                dropExpiredPartitions(interval, today);
+            } catch (DataAccessException e) {
+                log.error("Partition maintenance failed for interval: {}", interval, e);
+            }
+        }
+    }
+
+    void createPartitions(TimeInterval interval, LocalDate today) {
+        Granularity granularity = Granularity.of(interval);
+        LocalDate last = today.plusDays(config.getDaysAhead());
+        // start from yesterday so the candle that closes the previous day still has a home
+        for (LocalDate start = granularity.floor(today.minusDays(1)); !start.isAfter(last); start = granularity.next(start)) {
+            createPartition(interval, start);
+        }
+    }
+
+    /**
+     * Creates any partition the rows of {@code candles} need that is not known to exist yet. The DDL
+     * commits in its own transaction, so a partition outlives a rolled-back write and the caller's
+     * transaction does not hold the parent's lock for longer than the statement.
+     */
+    public void ensurePartitions(CandleBatch candles) {
+        TimeInterval lastInterval = null;
+        long lastFrom = 0;
+        long lastTo = 0;
+        for (int row = 0; row < candles.size(); row++) {
+            TimeInterval interval = candles.interval(row);
+            long timestamp = candles.timestamp(row);
+            if (interval == lastInterval && timestamp >= lastFrom && timestamp < lastTo) {
+                continue;           // consecutive rows usually share a partition
+            }
+            Granularity granularity = Granularity.of(interval);
+            LocalDate start = granularity.floor(LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), zone));
+            if (!knownPartitions.contains(partitionName(interval, start))) {
+                ddlTransaction.executeWithoutResult(status -> createPartition(interval, start));
+            }
+            lastInterval = interval;
+            lastFrom = epochMillis(start);
+            lastTo = epochMillis(granularity.next(start));
+        }
+    }
+
+    private void createPartition(TimeInterval interval, LocalDate start) {
+        String partition = partitionName(interval, start);
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM (%d) TO (%d)",
+                partition, parentTable(interval), epochMillis(start), epochMillis(Granularity.of(interval).next(start))));
+        knownPartitions.add(partition);
+    }
+
+    void dropExpiredPartitions(TimeInterval interval, LocalDate today) {
+        Duration retention = config.getRetention().get(interval);
+        if (retention == null) {
+            return;                 // keep forever
+        }
+
+        Granularity granularity = Granularity.of(interval);
+        LocalDate cutoff = today.minusDays(retention.toDays());
+        String prefix = parentTable(interval) + "_p";
+        List<String> partitions = jdbcTemplate.queryForList(CHILD_PARTITIONS_SQL, String.class, parentTable(interval));
+        for (String partition : partitions) {
+            String suffix = partition.startsWith(prefix) ? partition.substring(prefix.length()) : "";
+            if (suffix.isEmpty() || !suffix.chars().allMatch(Character::isDigit)) {
+                continue;           // not one of ours
+            }
+            LocalDate start = granularity.parse(suffix);
+            if (!granularity.next(start).isAfter(cutoff)) {
+                log.info("Dropping expired candle partition: {}", partition);
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                knownPartitions.remove(partition);
+            }
+        }
+    }
+
+    static String parentTable(TimeInterval interval) {
+        return "candles_" + interval.name().toLowerCase(Locale.ROOT);
+    }
+
+    static String partitionName(TimeInterval interval, LocalDate start) {
+        return parentTable(interval) + "_p" + Granularity.of(interval).format(start);
+    }
+
+    long epochMillis(LocalDate date) {
+        return date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private static TransactionOperations requiresNew(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    enum Granularity {
+        DAY(DateTimeFormatter.BASIC_ISO_DATE),
+        MONTH(DateTimeFormatter.ofPattern("yyyyMM")),
+        YEAR(DateTimeFormatter.ofPattern("yyyy"));
+
+        private final DateTimeFormatter formatter;
+
+        Granularity(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+
+        static Granularity of(TimeInterval interval) {
+            return switch (interval) {
+                case ONE_MINUTE, FIVE_MINUTES, FIFTEEN_MINUTES, THIRTY_MINUTES -> DAY;
+                case ONE_HOUR, FOUR_HOURS -> MONTH;
+                case ONE_DAY, ONE_WEEK -> YEAR;
+            };
+        }
+
+        LocalDate floor(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case MONTH -> date.withDayOfMonth(1);
+                case YEAR -> date.withDayOfYear(1);
+            };
+        }
+
+        LocalDate next(LocalDate start) {
+            return switch (this) {
+                case DAY -> start.plusDays(1);
+                case MONTH -> start.plusMonths(1);
+                case YEAR -> start.plusYears(1);
+            };
+        }
+
+        String format(LocalDate start) {
+            return formatter.format(start);
+        }
+
+        LocalDate parse(String suffix) {
+            return switch (this) {
+                case DAY -> LocalDate.parse(suffix, formatter);
+                case MONTH -> YearMonth.parse(suffix, formatter).atDay(1);
+                case YEAR -> LocalDate.of(Integer.parseInt(suffix), 1, 1);
+            };
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.CandleArchiveConfig;
+import com.beartrail.marketdata.config.CandlePartitionConfig;
+import com.beartrail.marketdata.config.MarketDataQueryConfig;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks the resolution a chart request is served at. The requested interval is the finest the caller
+ * wants; it is coarsened until the range fits {@code max-points} candles (1m for about a day, 5m for a
+ * week, 30m for a month, daily beyond). The candles are then read from the coarsest interval that is
+ * stored for the whole range and divides the chosen one: normally that interval itself, otherwise a
+ * finer one rolled up on the fly, as long as it stays within {@code max-scan-rows}.
+ * <p>
+ * Row counts are estimated from the exchange calendar, so a range over weekends and holidays is not
+ * charged for buckets that can never exist.
+ */
+@Component
+public class CandleQueryRouter {
+
+    private static final TimeInterval[] INTERVALS = TimeInterval.values();      // finest first
+
+    private final MarketDataQueryConfig queryConfig;
+    private final CandlePartitionConfig partitionConfig;
+    private final CandleArchiveConfig archiveConfig;
+    private final MarketSessionCalendar calendar;
+    private final CandleBuckets candleBuckets;
+    private final Clock clock;
+
+    @Autowired
+    public CandleQueryRouter(MarketDataQueryConfig queryConfig, CandlePartitionConfig partitionConfig, CandleArchiveConfig archiveConfig,
+                             MarketSessionCalendar calendar, CandleBuckets candleBuckets) {
+        this(queryConfig, partitionConfig, archiveConfig, calendar, candleBuckets, Clock.systemUTC());
+    }
+
+    CandleQueryRouter(MarketDataQueryConfig queryConfig, CandlePartitionConfig partitionConfig, CandleArchiveConfig archiveConfig,
+                      MarketSessionCalendar calendar, CandleBuckets candleBuckets, Clock clock) {
+        this.queryConfig = queryConfig;
+        this.partitionConfig = partitionConfig;
+        this.archiveConfig = archiveConfig;
+        this.calendar = calendar;
+        this.candleBuckets = candleBuckets;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The interval to serve {@code [from, to)} at and the stored interval to read it from.
+     */
+    public Route route(TimeInterval requested, long from, long to) {
+        long[] rows = estimateRows(from, Math.max(from, Math.min(to, clock.millis())));
+        for (int target = requested.ordinal(); target < INTERVALS.length; target++) {
+            if (rows[target] > queryConfig.getMaxPoints() && target < INTERVALS.length - 1) {
+                continue;
+            }
+            TimeInterval source = coarsestSource(INTERVALS[target], from, rows);
+            if (source != null) {
+                return new Route(INTERVALS[target], source);
+            }
+        }
+        return new Route(TimeInterval.ONE_WEEK, TimeInterval.ONE_WEEK);
+    }
+
+    /**
+     * Rolls candles of a finer interval, in ascending bucket order, up into {@code interval} buckets.
+     * Candles without a close price are skipped.
+     */
+    public List<MarketData> rollUp(List<MarketData> candles, TimeInterval interval) {
+        List<MarketData> rolled = new ArrayList<>();
+        MarketData bucket = null;
+        for (MarketData candle : candles) {
+            Double close = candle.getClosePrice();
+            if (close == null) {
+                continue;
+            }
+            long start = candleBuckets.bucketStart(interval, candle.getTimestamp());
+            if (bucket == null || bucket.getTimestamp() != start) {
+                bucket = new MarketData();
+                bucket.setSymbol(candle.getSymbol());
+                bucket.setTimeInterval(interval);
+                bucket.setTimestamp(start);
+                bucket.setOpenPrice(valueOr(candle.getOpenPrice(), close));
+                bucket.setHighPrice(valueOr(candle.getHighPrice(), close));
+                bucket.setLowPrice(valueOr(candle.getLowPrice(), close));
+                bucket.setVolume(0L);
+                rolled.add(bucket);
+            } else {
+                bucket.setHighPrice(Math.max(bucket.getHighPrice(), valueOr(candle.getHighPrice(), close)));
+                bucket.setLowPrice(Math.min(bucket.getLowPrice(), valueOr(candle.getLowPrice(), close)));
+            }
+            bucket.setClosePrice(close);
+            bucket.setLastPrice(valueOr(candle.getLastPrice(), close));
+            bucket.setVolume(bucket.getVolume() + (candle.getVolume() == null ? 0L : candle.getVolume()));
+            bucket.setInstrumentToken(candle.getInstrumentToken());
+        }
+        return rolled;
+    }
+
+    /**
+     * @return Whether {@code interval} is persisted and still retained, in Postgres or the archive, back to {@code from}.
+     */
+    boolean isStored(TimeInterval interval, long from) {
+        if (!queryConfig.getStoredIntervals().contains(interval)) {
+            return false;
+        }
+        Duration retention = partitionConfig.getRetention().get(interval);
+        if (retention == null || (archiveConfig.isEnabled() && archiveConfig.getIntervals().contains(interval))) {
+            return true;
+        }
+        LocalDate oldestRetained = calendar.dateOf(clock.millis()).minusDays(retention.toDays());
+        return !calendar.dateOf(from).isBefore(oldestRetained);
+    }
+
+    /**
+     * @return The number of candles each interval has in {@code [from, to)}, indexed by ordinal, counting
+     * intraday buckets only within trading sessions.
+     */
+    long[] estimateRows(long from, long to) {
+        long[] rows = new long[INTERVALS.length];
+        if (from >= to) {
+            return rows;
+        }
+        LocalDate last = calendar.dateOf(to - 1);
+        for (LocalDate day = calendar.dateOf(from); !day.isAfter(last); day = day.plusDays(1)) {
+            MarketSessionCalendar.TradingSession session = calendar.sessionOn(day);
+            if (session == null) {
+                continue;
+            }
+            long open = Math.max(session.open(), from);
+            long close = Math.min(session.close(), to);
+            if (open >= close) {
+                continue;
+            }
+            rows[TimeInterval.ONE_DAY.ordinal()]++;
+            for (int interval = 0; interval < TimeInterval.ONE_DAY.ordinal(); interval++) {
+                long duration = CandleBuckets.duration(INTERVALS[interval]);
+                rows[interval] += (close - open + duration - 1) / duration;
+            }
+        }
+        rows[TimeInterval.ONE_WEEK.ordinal()] = (candleBuckets.bucketStart(TimeInterval.ONE_WEEK, to - 1)
+                - candleBuckets.bucketStart(TimeInterval.ONE_WEEK, from)) / CandleBuckets.WEEK + 1;
+        return rows;
+    }
+
+    private TimeInterval coarsestSource(TimeInterval target, long from, long[] rows) {
+        long duration = CandleBuckets.duration(target);
+        for (int source = target.ordinal(); source >= 0 && rows[source] <= queryConfig.getMaxScanRows(); source--) {
+            TimeInterval interval = INTERVALS[source];
+            if (duration % CandleBuckets.duration(interval) == 0 && isStored(interval, from)) {
+                return interval;
+            }
+        }
+        return null;
+    }
+
+    private static double valueOr(Double value, double fallback) {
+        return value == null ? fallback : value;
+    }
+
+    /**
+     * Serve candles of {@code interval}, read from {@code source}: the same interval, or a finer one to roll up.
+     */
+    public record Route(TimeInterval interval, TimeInterval source) {
+
+        public boolean rollsUp() {
+            return interval != source;
+        }
+    }
+}
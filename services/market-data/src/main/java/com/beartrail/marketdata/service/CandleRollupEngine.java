@@ -0,0 +1,145 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Derives every higher {@link TimeInterval} from completed one-minute candles. Each (symbol, interval)
+ * keeps one open bucket that is updated in place; a bar is emitted as soon as the minute that
+ * reaches its close arrives, when a later bucket starts, or when {@link #flushCompleted(long)} finds
+ * it past its close (e.g., an illiquid symbol that stopped printing). Emitted buckets stay in place,
+ * closed, so a straggling minute cannot emit a second, partial bar for the same bucket.
+ * <p>
+ * State is in memory only, so buckets that were open across a restart are emitted without the
+ * minutes seen before it.
+ */
+@Slf4j
+@Component
+public class CandleRollupEngine {
+
+    static final List<TimeInterval> TARGET_INTERVALS = List.of(
+            TimeInterval.FIVE_MINUTES,
+            TimeInterval.FIFTEEN_MINUTES,
+            TimeInterval.THIRTY_MINUTES,
+            TimeInterval.ONE_HOUR,
+            TimeInterval.FOUR_HOURS,
+            TimeInterval.ONE_DAY,
+            TimeInterval.ONE_WEEK
+    );
+
+    private final CandleBuckets candleBuckets;
+    private final Map<String, Bucket[]> openBuckets = new HashMap<>();
+
+    public CandleRollupEngine(CandleBuckets candleBuckets) {
+        this.candleBuckets = candleBuckets;
+    }
+
+    /**
+     * Folds one-minute candles into the open buckets.
+     *
+     * @return The higher-interval bars completed by these candles.
+     */
+    public synchronized CandleBatch accept(CandleBatch oneMinuteCandles) {
+        CandleBatch completed = new CandleBatch(16);
+        for (int row = 0; row < oneMinuteCandles.size(); row++) {
+            if (Double.isNaN(oneMinuteCandles.closePrice(row))) {
+                continue;
+            }
+            Bucket[] buckets = openBuckets.computeIfAbsent(oneMinuteCandles.symbol(row), symbol -> new Bucket[TARGET_INTERVALS.size()]);
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = fold(buckets[i], TARGET_INTERVALS.get(i), oneMinuteCandles, row, completed);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Emits every open bucket whose close is at or before {@code now}.
+     */
+    public synchronized CandleBatch flushCompleted(long now) {
+        CandleBatch completed = new CandleBatch(16);
+        for (Bucket[] buckets : openBuckets.values()) {
+            for (Bucket bucket : buckets) {
+                if (bucket != null && !bucket.closed && candleBuckets.bucketClose(bucket.interval, bucket.start) <= now) {
+                    bucket.close(completed);
+                }
+            }
+        }
+        return completed;
+    }
+
+    private Bucket fold(Bucket bucket, TimeInterval interval, CandleBatch candles, int row, CandleBatch completed) {
+        long timestamp = candles.timestamp(row);
+        long start = candleBuckets.bucketStart(interval, timestamp);
+
+        if (bucket != null && (start < bucket.start || (start == bucket.start && bucket.closed))) {
+            log.debug("Ignoring late {} candle for {} at {}", interval, candles.symbol(row), timestamp);
+            return bucket;
+        }
+        if (bucket != null && start > bucket.start && !bucket.closed) {
+            bucket.close(completed);                   // a later bucket started before this one saw its close
+        }
+        if (bucket == null || start > bucket.start) {
+            bucket = new Bucket(candles.symbol(row), interval, start);
+        }
+        if (timestamp <= bucket.lastMinute) {
+            return bucket;                                   // duplicate delivery of a minute already folded in
+        }
+
+        bucket.add(candles, row);
+        if (timestamp + CandleBuckets.MINUTE >= candleBuckets.bucketClose(interval, start)) {
+            bucket.close(completed);
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+        private final String symbol;
+        private final TimeInterval interval;
+        private final long start;
+        private String instrumentToken;
+        private long lastMinute = Long.MIN_VALUE;
+        private boolean closed;                             // kept after emission so stragglers cannot reopen it
+        private double open;
+        private double high = Double.NEGATIVE_INFINITY;
+        private double low = Double.POSITIVE_INFINITY;
+        private double close;
+        private double lastPrice;
+        private long volume;
+
+        private Bucket(String symbol, TimeInterval interval, long start) {
+            this.symbol = symbol;
+            this.interval = interval;
+            this.start = start;
+        }
+
+        private void add(CandleBatch candles, int row) {
+            double candleClose = candles.closePrice(row);
+            if (lastMinute == Long.MIN_VALUE) {
+                open = valueOr(candles.openPrice(row), candleClose);
+            }
+            high = Math.max(high, valueOr(candles.highPrice(row), candleClose));
+            low = Math.min(low, valueOr(candles.lowPrice(row), candleClose));
+            close = candleClose;
+            lastPrice = valueOr(candles.lastPrice(row), candleClose);
+            volume += candles.volume(row);
+            instrumentToken = candles.instrumentToken(row);
+            lastMinute = candles.timestamp(row);
+        }
+
+        private void close(CandleBatch completed) {
+            closed = true;
+            completed.add(symbol, interval, instrumentToken, start, lastPrice, open, high, low, close, volume);
+        }
+
+        private static double valueOr(double value, double fallback) {
+            return Double.isNaN(value) ? fallback : value;
+        }
+    }
+}
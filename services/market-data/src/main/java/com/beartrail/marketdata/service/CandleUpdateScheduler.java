@@ -1,45 +1,166 @@
 package com.beartrail.marketdata.service;
 
+import com.beartrail.marketdata.config.CandleSchedulerConfig;
 import com.beartrail.marketdata.model.entity.TimeInterval;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-@Service
+import java.time.Clock;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST polling ingestion, the default {@code beartrail.ingestion.mode}; see {@link LiveFeedIngestionService}
+ * for the streaming alternative.
+ * <p>
+ * Each polled interval has its own single-threaded worker, so one interval's run never queues behind
+ * another's. A worker fires when a candle of its interval closes (per {@link CandleBuckets}) and, with
+ * {@code market-hours-only}, only for candles that overlapped a trading session; overnight and on
+ * non-trading days it sleeps until the next session. The next run is scheduled after the current one
+ * finishes, so an overrun coalesces the closes it missed into the next run instead of stacking them.
+ */
 @Slf4j
+@Service
+@ConditionalOnProperty(prefix = "beartrail.ingestion", name = "mode", havingValue = "polling", matchIfMissing = true)
 public class CandleUpdateScheduler {
 
     private final CandleUpdateService candleUpdateService;
+    private final MarketSessionCalendar marketSessionCalendar;
+    private final CandleBuckets candleBuckets;
+    private final CandleSchedulerConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<TimeInterval, ScheduledExecutorService> workers = new EnumMap<>(TimeInterval.class);
 
-    public CandleUpdateScheduler(CandleUpdateService candleUpdateService) {
+    @Autowired
+    public CandleUpdateScheduler(CandleUpdateService candleUpdateService,
+                                 MarketSessionCalendar marketSessionCalendar,
+                                 CandleBuckets candleBuckets,
+                                 CandleSchedulerConfig config,
+                                 MeterRegistry meterRegistry) {
+        this(candleUpdateService, marketSessionCalendar, candleBuckets, config, meterRegistry, Clock.systemUTC());
+    }
+
+    CandleUpdateScheduler(CandleUpdateService candleUpdateService,
+                          MarketSessionCalendar marketSessionCalendar,
+                          CandleBuckets candleBuckets,
+                          CandleSchedulerConfig config,
+                          MeterRegistry meterRegistry,
+                          Clock clock) {
         this.candleUpdateService = candleUpdateService;
+        this.marketSessionCalendar = marketSessionCalendar;
+        this.candleBuckets = candleBuckets;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        for (TimeInterval interval : config.getIntervals()) {
+            if (workers.containsKey(interval)) {
+                continue;
+            }
+            ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "candle-scheduler-" + interval.getValue());
+                thread.setDaemon(true);
+                return thread;
+            });
+            workers.put(interval, worker);
+            scheduleNext(worker, interval, clock.millis());
+        }
     }
 
-    @Scheduled(cron = "0 0/1 * * * ?") // Runs every minute
-    public void oneMinuteCandleUpdate() {
-        log.info("Starting one minute candle update for all intervals");
-        candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE);
-        log.info("Completed one minute candle update for all intervals");
+    @PreDestroy
+    public synchronized void stop() {
+        workers.values().forEach(ScheduledExecutorService::shutdownNow);
+        workers.clear();
     }
 
-//    @Scheduled(cron = "0 0/5 * * * ?") // Runs every 5 minutes
-//    public void fiveMinuteCandleUpdate() {
-//        log.info("Starting candle update for all intervals");
-//        candleUpdateService.updateCandlesForInterval(TimeInterval.FIVE_MINUTES);
-//        log.info("Completed candle update for all intervals");
-//    }
+    private void scheduleNext(ScheduledExecutorService worker, TimeInterval interval, long after) {
+        long fireAt = nextFireTime(interval, after);
+        log.debug("Next {} candle update at {}", interval, Instant.ofEpochMilli(fireAt));
+        worker.schedule(() -> {
+            try {
+                runScheduled(interval, fireAt);
+            } finally {
+                if (!worker.isShutdown()) {
+                    scheduleNext(worker, interval, Math.max(fireAt, clock.millis()));
+                }
+            }
+        }, Math.max(0, fireAt - clock.millis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs one scheduled update and records how late it started, how long it took, and whether it
+     * overran the next candle close.
+     */
+    void runScheduled(TimeInterval interval, long scheduledAt) {
+        String tag = interval.getValue();
+        long start = clock.millis();
+        Timer.builder("marketdata.scheduler.lateness")
+                .description("Delay between a candle update's scheduled and actual start")
+                .tag("interval", tag)
+                .register(meterRegistry)
+                .record(Math.max(0, start - scheduledAt), TimeUnit.MILLISECONDS);
+
+        log.info("Starting {} candle update", interval);
+        try {
+            candleUpdateService.updateCandlesForInterval(interval);
+            log.info("Completed {} candle update", interval);
+        } catch (RuntimeException e) {
+            Counter.builder("marketdata.scheduler.failures").tag("interval", tag).register(meterRegistry).increment();
+            log.error("{} candle update failed", interval, e);
+        }
+
+        long end = clock.millis();
+        Timer.builder("marketdata.scheduler.run")
+                .description("Duration of a scheduled candle update")
+                .tag("interval", tag)
+                .register(meterRegistry)
+                .record(end - start, TimeUnit.MILLISECONDS);
+        if (nextFireTime(interval, scheduledAt) <= end) {
+            Counter.builder("marketdata.scheduler.overruns")
+                    .description("Candle updates that ran past the next candle close; the missed run is coalesced")
+                    .tag("interval", tag)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} candle update took {} ms and overran the next candle close", interval, end - start);
+        }
+    }
+
+    /**
+     * @return When to fetch the first candle of {@code interval} that closes after {@code after}.
+     */
+    long nextFireTime(TimeInterval interval, long after) {
+        long fireDelay = config.getFireDelay().toMillis();
+        long close = nextClose(interval, after - fireDelay);
+        if (config.isMarketHoursOnly() && !traded(interval, close)) {
+            close = nextClose(interval, marketSessionCalendar.sessionOpenAtOrAfter(close));
+        }
+        return close + fireDelay;
+    }
 
-    @Scheduled(cron = "0 0/30 * * * ?") // Runs every 30 minutes
-    public void thirtyMinuteCandleUpdate() {
-        log.info("Starting thirty minute candle update for all intervals");
-        candleUpdateService.updateCandlesForInterval(TimeInterval.THIRTY_MINUTES);
-        log.info("Completed thirty minute candle update for all intervals");
+    private long nextClose(TimeInterval interval, long after) {
+        long bucketStart = candleBuckets.bucketStart(interval, after);
+        long close = candleBuckets.bucketClose(interval, bucketStart);
+        return close > after ? close : bucketStart + CandleBuckets.duration(interval);
     }
 
-    @Scheduled(cron = "0 0 0 * * ?")   // Runs daily at midnight
-    public void dailyCandleUpdate() {
-        log.info("Starting daily candle update for all intervals");
-        candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_DAY);
-        log.info("Completed daily candle update for all intervals");
+    private boolean traded(TimeInterval interval, long close) {
+        long bucketStart = candleBuckets.bucketStart(interval, close - 1);
+        return marketSessionCalendar.sessionOpenAtOrAfter(bucketStart) < close;
     }
 }
@@ -1,5 +1,6 @@
 package com.beartrail.marketdata.service;
 
+import com.beartrail.marketdata.model.batch.CandleBatch;
 import com.beartrail.marketdata.model.entity.TimeInterval;
 
 import java.util.List;
@@ -8,6 +9,12 @@ public interface CandleUpdateService {
 
     void updateCandlesForInterval(TimeInterval interval);
 
+    /**
+     * Publishes, persists and rolls up one-minute candles built outside the polling path (e.g., from
+     * the market feed).
+     */
+    void ingestOneMinuteCandles(CandleBatch candles);
+
     void updateCandlesForSymbol(String symbol, TimeInterval interval);
 
     long calculateCompletedIntervalTimestamp(TimeInterval interval);
@@ -0,0 +1,182 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.client.upstox.UpstoxInstrumentDecoder;
+import com.beartrail.marketdata.config.InstrumentRegistryConfig;
+import com.beartrail.marketdata.model.instrument.InstrumentDiff;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import com.beartrail.marketdata.model.instrument.InstrumentsReloadedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The equity instrument universe (NSE_EQ and BSE_EQ) from the instrument master, as an
+ * {@link InstrumentTable}: dense int ids, columnar attributes and O(1) lookups by instrument key,
+ * trading symbol and exchange token.
+ * <p>
+ * With {@code beartrail.instruments.path} set, the file is re-read whenever its modification time
+ * changes. A reload parses on its own thread, diffs against the current table, swaps the new table in
+ * atomically and publishes an {@link InstrumentsReloadedEvent} so subscribers update only what changed.
+ * Readers are never blocked: they keep using whichever table they read. A file that fails to parse
+ * leaves the current table in place and is retried on the next check.
+ */
+@Slf4j
+@Component
+public class InstrumentRegistry {
+
+    static final String RESOURCE = "instrument_keys.json";
+
+    private final InstrumentRegistryConfig config;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UpstoxInstrumentDecoder decoder = new UpstoxInstrumentDecoder();
+    private final ExecutorService reloadExecutor;
+    private final Counter reloads;
+    private final Counter reloadFailures;
+
+    private volatile InstrumentTable instruments = InstrumentTable.EMPTY;
+    private volatile FileTime loadedModifiedTime;
+    private CompletableFuture<InstrumentDiff> pendingReload;
+
+    public InstrumentRegistry(InstrumentRegistryConfig config, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.eventPublisher = eventPublisher;
+        this.reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "instrument-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reloads = Counter.builder("marketdata.instruments.reloads").register(meterRegistry);
+        this.reloadFailures = Counter.builder("marketdata.instruments.reload.failures").register(meterRegistry);
+        Gauge.builder("marketdata.instruments", this, registry -> registry.instruments.size())
+                .description("Instruments in the current registry table")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void loadInstruments() {
+        try {
+            reloadNow(false);                                   // consumers read the initial table when they start
+        } catch (RuntimeException e) {
+            reloadFailures.increment();
+            log.error("Failed to load instruments; the registry stays empty until a reload succeeds", e);
+        }
+    }
+
+    /**
+     * @return The current instrument table; hold on to it rather than re-reading for a consistent view.
+     */
+    public InstrumentTable instruments() {
+        return instruments;
+    }
+
+    /**
+     * @return The instrument keys in id order.
+     */
+    public List<String> getInstrumentKeys() {
+        return instruments.instrumentKeys();
+    }
+
+    @Scheduled(fixedDelayString = "${beartrail.instruments.reload-check-interval:1m}")
+    public void reloadIfModified() {
+        if (!fromFile()) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(Path.of(config.getPath())).equals(loadedModifiedTime)) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("Could not check instrument file {}: {}", config.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads the instrument master on the reload thread. A reload requested while one is running
+     * joins it.
+     *
+     * @return The difference the reload applied; completes exceptionally if the file could not be read.
+     */
+    public synchronized CompletableFuture<InstrumentDiff> reload() {
+        if (pendingReload != null && !pendingReload.isDone()) {
+            return pendingReload;
+        }
+        pendingReload = CompletableFuture.supplyAsync(() -> reloadNow(true), reloadExecutor);
+        pendingReload.whenComplete((diff, ex) -> {
+            if (ex != null) {
+                reloadFailures.increment();
+                log.error("Instrument reload failed; keeping {} instruments", instruments.size(), ex);
+            }
+        });
+        return pendingReload;
+    }
+
+    @PreDestroy
+    public void stop() {
+        reloadExecutor.shutdownNow();
+    }
+
+    private InstrumentDiff reloadNow(boolean publishChanges) {
+        long start = System.nanoTime();
+        FileTime modifiedTime = null;
+        InstrumentTable loaded;
+        try {
+            if (fromFile()) {
+                Path path = Path.of(config.getPath());
+                modifiedTime = Files.getLastModifiedTime(path);      // read first, so a write during the parse triggers another reload
+                try (InputStream is = Files.newInputStream(path)) {
+                    loaded = decoder.decode(is);
+                }
+            } else {
+                try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(RESOURCE)) {
+                    if (is == null) {
+                        throw new IllegalStateException(RESOURCE + " not found in resources");
+                    }
+                    loaded = decoder.decode(is);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read instruments from " + source(), e);
+        }
+        if (loaded.isEmpty()) {
+            throw new IllegalStateException("No equity instruments in " + source());
+        }
+
+        InstrumentTable previous = instruments;
+        InstrumentDiff diff = InstrumentDiff.between(previous, loaded);
+        instruments = loaded;
+        loadedModifiedTime = modifiedTime;
+        reloads.increment();
+        log.info("Loaded {} equity instruments from {} in {} ms (+{} -{} ~{})", loaded.size(), source(),
+                (System.nanoTime() - start) / 1_000_000, diff.added().size(), diff.removed().size(), diff.changed().size());
+
+        if (publishChanges && !diff.isEmpty()) {
+            eventPublisher.publishEvent(new InstrumentsReloadedEvent(previous, loaded, diff));
+        }
+        return diff;
+    }
+
+    private boolean fromFile() {
+        return config.getPath() != null && !config.getPath().isBlank();
+    }
+
+    private String source() {
+        return fromFile() ? config.getPath() : "classpath:" + RESOURCE;
+    }
+}
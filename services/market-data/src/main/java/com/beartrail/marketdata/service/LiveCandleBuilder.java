@@ -0,0 +1,143 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.client.upstox.feed.TickListener;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds one-minute candles from market feed ticks, in memory. Each instrument has one forming candle
+ * that is updated in place; it completes when a tick for a later minute arrives or when
+ * {@link #closeMinutesBefore(long)} passes its end. Only candles whose price or volume moved since the
+ * last {@link #drainChanged()} are reported as changed, so quiet instruments produce no updates.
+ * <p>
+ * Candles carry the Upstox quote key ({@code NSE_EQ:RELIANCE}) as their symbol, the key polled candles
+ * are stored and cached under, and the feed's instrument key as their instrument token.
+ * <p>
+ * Volume is the sum of last-trade quantities seen, which undercounts when the feed coalesces trades.
+ */
+@Component
+@ConditionalOnProperty(prefix = "beartrail.ingestion", name = "mode", havingValue = "websocket")
+public class LiveCandleBuilder implements TickListener {
+
+    private final InstrumentRegistry instrumentRegistry;
+    private final Map<String, FormingCandle> candles = new HashMap<>();
+    private CandleBatch completed = new CandleBatch(256);
+
+    public LiveCandleBuilder(InstrumentRegistry instrumentRegistry) {
+        this.instrumentRegistry = instrumentRegistry;
+    }
+
+    @Override
+    public synchronized void onTick(String instrumentKey, double lastPrice, long lastTradeTime, long lastTradeQuantity) {
+        long minute = Math.floorDiv(lastTradeTime, CandleBuckets.MINUTE) * CandleBuckets.MINUTE;
+        FormingCandle candle = candles.get(instrumentKey);
+        if (candle == null) {
+            candle = new FormingCandle(symbolOf(instrumentKey), instrumentKey);
+            candles.put(instrumentKey, candle);
+        }
+        if (minute <= candle.completedThrough || (candle.active && minute < candle.minute)) {
+            return;                                                     // late tick for an already completed minute
+        }
+        if (candle.active && minute > candle.minute) {
+            candle.complete(completed);
+        }
+        candle.update(minute, lastPrice, lastTradeQuantity);
+    }
+
+    /**
+     * Completes every forming candle whose minute started before {@code minuteStart}.
+     */
+    public synchronized void closeMinutesBefore(long minuteStart) {
+        for (FormingCandle candle : candles.values()) {
+            if (candle.active && candle.minute < minuteStart) {
+                candle.complete(completed);
+            }
+        }
+    }
+
+    /**
+     * @return The candles completed since the previous call.
+     */
+    public synchronized CandleBatch drainCompleted() {
+        CandleBatch drained = completed;
+        completed = new CandleBatch(Math.max(256, drained.size()));
+        return drained;
+    }
+
+    /**
+     * @return A snapshot of the forming candles that changed since the previous call.
+     */
+    public synchronized CandleBatch drainChanged() {
+        CandleBatch changed = new CandleBatch(64);
+        for (FormingCandle candle : candles.values()) {
+            if (candle.active && candle.changed) {
+                candle.appendTo(changed);
+                candle.changed = false;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return The quote key of {@code instrumentKey}, or the instrument key itself if the registry does not list it.
+     */
+    private String symbolOf(String instrumentKey) {
+        InstrumentTable instruments = instrumentRegistry.instruments();
+        int id = instruments.idOfKey(instrumentKey);
+        return id >= 0 ? instruments.quoteKey(id) : instrumentKey;
+    }
+
+    private static final class FormingCandle {
+        private final String symbol;
+        private final String instrumentKey;
+        private boolean active;
+        private boolean changed;
+        private long minute;
+        private long completedThrough = Long.MIN_VALUE;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+
+        private FormingCandle(String symbol, String instrumentKey) {
+            this.symbol = symbol;
+            this.instrumentKey = instrumentKey;
+        }
+
+        private void update(long tickMinute, double price, long quantity) {
+            if (!active) {
+                active = true;
+                changed = true;
+                minute = tickMinute;
+                open = high = low = close = price;
+                volume = quantity;
+                return;
+            }
+            if (price != close || quantity != 0) {
+                changed = true;
+            }
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            volume += quantity;
+        }
+
+        private void complete(CandleBatch out) {
+            appendTo(out);
+            completedThrough = minute;
+            active = false;
+            changed = false;
+        }
+
+        private void appendTo(CandleBatch out) {
+            out.add(symbol, TimeInterval.ONE_MINUTE, instrumentKey, minute, close, open, high, low, close, volume);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.client.upstox.feed.UpstoxFeedClient;
+import com.beartrail.marketdata.config.UpstoxFeedConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.instrument.InstrumentsReloadedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Streaming ingestion, selected with {@code beartrail.ingestion.mode=websocket} in place of
+ * {@link CandleUpdateScheduler}. Ticks from the Upstox market feed are folded into live one-minute
+ * candles; every publish interval the forming candles that changed go to {@code market-data-updates}
+ * marked as forming (not persisted), and candles whose minute has ended go through the same publish,
+ * persist and roll-up path as polled ones. Candles are keyed by the polling symbol ({@code NSE_EQ:RELIANCE}).
+ * Ticks traded outside a {@link MarketSessionCalendar} session (pre-open, post-close, holidays) are dropped.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "beartrail.ingestion", name = "mode", havingValue = "websocket")
+public class LiveFeedIngestionService {
+
+    private final UpstoxFeedClient feedClient;
+    private final LiveCandleBuilder liveCandleBuilder;
+    private final InstrumentRegistry instrumentRegistry;
+    private final CandleUpdateService candleUpdateService;
+    private final MarketDataKafkaProducer marketDataKafkaProducer;
+    private final MarketSessionCalendar marketSessionCalendar;
+    private final UpstoxFeedConfig feedConfig;
+
+    public LiveFeedIngestionService(UpstoxFeedClient feedClient,
+                                    LiveCandleBuilder liveCandleBuilder,
+                                    InstrumentRegistry instrumentRegistry,
+                                    CandleUpdateService candleUpdateService,
+                                    MarketDataKafkaProducer marketDataKafkaProducer,
+                                    MarketSessionCalendar marketSessionCalendar,
+                                    UpstoxFeedConfig feedConfig) {
+        this.feedClient = feedClient;
+        this.liveCandleBuilder = liveCandleBuilder;
+        this.instrumentRegistry = instrumentRegistry;
+        this.candleUpdateService = candleUpdateService;
+        this.marketDataKafkaProducer = marketDataKafkaProducer;
+        this.marketSessionCalendar = marketSessionCalendar;
+        this.feedConfig = feedConfig;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Starting market feed ingestion for {} instruments", instrumentRegistry.getInstrumentKeys().size());
+        feedClient.start(instrumentRegistry.getInstrumentKeys(), (instrumentKey, lastPrice, lastTradeTime, lastTradeQuantity) -> {
+            if (marketSessionCalendar.isOpen(lastTradeTime)) {
+                liveCandleBuilder.onTick(instrumentKey, lastPrice, lastTradeTime, lastTradeQuantity);
+            }
+        });
+    }
+
+    @EventListener
+    public void onInstrumentsReloaded(InstrumentsReloadedEvent event) {
+        feedClient.updateSubscriptions(event.diff().added(), event.diff().removed());
+    }
+
+    @Scheduled(fixedDelayString = "${beartrail.upstox.feed.publish-interval:1s}")
+    public void publish() {
+        long now = System.currentTimeMillis() - feedConfig.getCandleCloseGrace().toMillis();
+        liveCandleBuilder.closeMinutesBefore(Math.floorDiv(now, CandleBuckets.MINUTE) * CandleBuckets.MINUTE);
+
+        CandleBatch completed = liveCandleBuilder.drainCompleted();
+        if (!completed.isEmpty()) {
+            candleUpdateService.ingestOneMinuteCandles(completed);     // publishes the final bar as well
+            log.debug("Completed {} live one-minute candles", completed.size());
+        }
+
+        CandleBatch changed = liveCandleBuilder.drainChanged();
+        marketDataKafkaProducer.sendFormingCandles(changed);
+    }
+}
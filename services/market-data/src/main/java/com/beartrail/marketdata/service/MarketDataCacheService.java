@@ -6,11 +6,19 @@ import java.util.Optional;
 
 public interface MarketDataCacheService {
 
-    Optional<MarketData> get(String cacheKey);
+    /**
+     * Looks up the latest candle for a symbol and interval, checking the in-process cache
+     * first and falling back to Redis.
+     *
+     * @param symbol       The instrument key of the candle.
+     * @param timeInterval The time interval of the candle (e.g., "I1", "1d").
+     * @return The cached candle, or empty if neither tier holds it.
+     */
+    Optional<MarketData> get(String symbol, String timeInterval);
 
-    void cacheLatestMarketData(String symbol, String timeInterval, String data);
+    void cacheLatestMarketData(String symbol, String timeInterval, MarketData data);
 
     void invalidateCache(String symbol, String timeInterval);
 
     void invalidateAllCache();
-}
\ No newline at end of file
+}
@@ -1,40 +1,264 @@
 package com.beartrail.marketdata.service;
 
 import com.beartrail.marketdata.event.publisher.PriceUpdateEvent;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.CompletableFuture;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Publishes price updates to {@code beartrail.kafka.topics.market-data-updates}. Throughput comes from
+ * the producer profile in {@code spring.kafka.producer} (linger, batch size, compression, idempotence):
+ * callers hand over a whole burst without waiting on individual acks and the producer packs it into a
+ * few compressed batches per partition.
+ * <p>
+ * Records are keyed by symbol and assigned the same partition Kafka's default partitioner would pick,
+ * computed up front so send latency and in-flight counts can be tracked per partition. The topic's
+ * partition count is read in the background at startup and refreshed periodically, backing off while
+ * the metadata is unavailable, so a send never waits on metadata; until it is known, records go out
+ * without a partition and the producer partitions them by key.
+ * <p>
+ * Live candles whose minute is still forming carry the {@link #FORMING_HEADER}: they are superseded by the
+ * completed candle, so the persistence consumer skips them.
+ */
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class MarketDataKafkaProducer {
 
+    public static final String FORMING_HEADER = "beartrail-candle-forming";
+
+    private static final List<Header> FORMING = List.of(new RecordHeader(FORMING_HEADER, new byte[0]));
+    private static final Duration PARTITION_REFRESH_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration PARTITION_RETRY_INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration PARTITION_RETRY_MAX_BACKOFF = Duration.ofMinutes(1);
+
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String topic;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Map<Integer, PartitionMeters> partitionMeters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService partitionRefresher;
+    private volatile int partitionCount;
+    private Duration partitionRetryBackoff = PARTITION_RETRY_INITIAL_BACKOFF;
+
+    public MarketDataKafkaProducer(KafkaTemplate<String, String> kafkaTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${beartrail.kafka.topics.market-data-updates}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.topic = topic;
+        this.partitionRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kafka-partition-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        partitionRefresher.execute(this::refreshPartitionCountAndReschedule);
+    }
+
+    @PreDestroy
+    public void stop() {
+        partitionRefresher.shutdownNow();
+    }
 
     public void sendPriceUpdate(PriceUpdateEvent priceUpdateEvent) {
-        log.info("Sending price update event: {}", priceUpdateEvent);
+        log.debug("Sending price update event: {}", priceUpdateEvent);
         try {
-            String eventJson = objectMapper.writeValueAsString(priceUpdateEvent);
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send("market-data-updates", priceUpdateEvent.getSymbol(), eventJson);
-            future.whenComplete(
-                    (result, ex) -> {
-                        if (ex != null) {
-                            log.error("Failed to send price update event: {}", eventJson, ex);
-                        } else {
-                            log.info("Price update event sent successfully: {}", result.getProducerRecord());
-                        }
-                    }
-            );
+            send(priceUpdateEvent.getSymbol(), objectMapper.writeValueAsString(priceUpdateEvent), null);
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize price update event: {}", priceUpdateEvent, e);
         }
     }
+
+    /**
+     * Publishes a burst of events without waiting for acknowledgements in between.
+     *
+     * @return The number of events handed to the producer.
+     */
+    public int sendAll(Collection<PriceUpdateEvent> priceUpdateEvents) {
+        int sent = 0;
+        for (PriceUpdateEvent event : priceUpdateEvents) {
+            try {
+                send(event.getSymbol(), objectMapper.writeValueAsString(event), null);
+                sent++;
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize price update event: {}", event, e);
+            }
+        }
+        log.debug("Sent {} of {} price update events", sent, priceUpdateEvents.size());
+        return sent;
+    }
+
+    /**
+     * Publishes every row of a batch as a {@link PriceUpdateEvent}-shaped JSON message, written straight
+     * from the batch's columns with one reused generator instead of building and reflecting over an
+     * event object per row.
+     */
+    public void sendCandles(CandleBatch batch) {
+        sendCandles(batch, null);
+    }
+
+    /**
+     * Publishes live candles whose minute has not ended yet, marked with {@link #FORMING_HEADER}.
+     */
+    public void sendFormingCandles(CandleBatch batch) {
+        sendCandles(batch, FORMING);
+    }
+
+    private void sendCandles(CandleBatch batch, List<Header> headers) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        CharArrayWriter buffer = new CharArrayWriter(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            generator.setRootValueSeparator(null);
+            for (int row = 0; row < batch.size(); row++) {
+                writeEvent(generator, batch, row);
+                generator.flush();
+                String eventJson = buffer.toString();
+                buffer.reset();
+                send(batch.symbol(row), eventJson, headers);
+            }
+        } catch (IOException e) {
+            log.error("Failed to serialize price update batch of {} candles", batch.size(), e);
+        }
+        log.debug("Sent {} price update events", batch.size());
+    }
+
+    /**
+     * Writes one batch row as a {@link PriceUpdateEvent} JSON object.
+     */
+    public static void writeEvent(JsonGenerator generator, CandleBatch batch, int row) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("symbol", batch.symbol(row));
+        generator.writeStringField("instrumentToken", batch.instrumentToken(row));
+        writePrice(generator, "lastPrice", batch.lastPrice(row));
+        writePrice(generator, "openPrice", batch.openPrice(row));
+        writePrice(generator, "highPrice", batch.highPrice(row));
+        writePrice(generator, "lowPrice", batch.lowPrice(row));
+        writePrice(generator, "closePrice", batch.closePrice(row));
+        generator.writeNumberField("volume", batch.volume(row));
+        generator.writeNumberField("timestamp", batch.timestamp(row));
+        generator.writeStringField("timeInterval", batch.interval(row).getValue());
+        generator.writeEndObject();
+    }
+
+    private static void writePrice(JsonGenerator generator, String field, double price) throws IOException {
+        if (Double.isNaN(price)) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, price);
+        }
+    }
+
+    private void send(String symbol, String eventJson, List<Header> headers) {
+        Integer partition = partitionFor(symbol);
+        PartitionMeters meters = partitionMeters.computeIfAbsent(partition == null ? -1 : partition, this::registerMeters);
+        meters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        kafkaTemplate.send(new ProducerRecord<>(topic, partition, null, symbol, eventJson, headers)).whenComplete((result, ex) -> {
+            meters.inFlight.decrementAndGet();
+            meters.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (ex != null) {
+                log.error("Failed to send price update event for {}", symbol, ex);
+            }
+        });
+    }
+
+    /**
+     * Mirrors the default partitioner for keyed records (murmur2 of the serialized key), or returns
+     * {@code null} to let the producer partition by key while the partition count is unknown.
+     */
+    Integer partitionFor(String symbol) {
+        int partitions = partitionCount;
+        if (partitions <= 0 || symbol == null) {
+            return null;
+        }
+        return Utils.toPositive(Utils.murmur2(symbol.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    /**
+     * Reads the topic's partition count; may block for up to the producer's {@code max.block.ms}.
+     *
+     * @return The delay before the next refresh: the regular interval, or a doubling backoff while the
+     * metadata cannot be read.
+     */
+    Duration refreshPartitionCount() {
+        try {
+            List<PartitionInfo> partitions = kafkaTemplate.partitionsFor(topic);
+            if (partitions != null && !partitions.isEmpty()) {
+                partitionCount = partitions.size();
+                partitionRetryBackoff = PARTITION_RETRY_INITIAL_BACKOFF;
+                return PARTITION_REFRESH_INTERVAL;
+            }
+            log.warn("No partition metadata for {}", topic);
+        } catch (RuntimeException e) {
+            log.warn("Could not read partitions of {}: {}", topic, e.getMessage());
+        }
+        Duration backoff = partitionRetryBackoff;
+        Duration doubled = backoff.multipliedBy(2);
+        partitionRetryBackoff = doubled.compareTo(PARTITION_RETRY_MAX_BACKOFF) < 0 ? doubled : PARTITION_RETRY_MAX_BACKOFF;
+        return backoff;
+    }
+
+    private void refreshPartitionCountAndReschedule() {
+        Duration delay = refreshPartitionCount();
+        try {
+            partitionRefresher.schedule(this::refreshPartitionCountAndReschedule, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Partition refresh stopped");                         // shutting down
+        }
+    }
+
+    private PartitionMeters registerMeters(int partition) {
+        String tag = partition < 0 ? "unassigned" : Integer.toString(partition);
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("marketdata.kafka.send.in.flight", inFlight, AtomicInteger::get)
+                .description("Price update records sent and not yet acknowledged")
+                .tags("topic", topic, "partition", tag)
+                .register(meterRegistry);
+        Timer latency = Timer.builder("marketdata.kafka.send")
+                .description("Time from send to broker acknowledgement of a price update record")
+                .tags("topic", topic, "partition", tag)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new PartitionMeters(latency, inFlight);
+    }
+
+    private record PartitionMeters(Timer latency, AtomicInteger inFlight) {
+    }
 }
@@ -1,9 +1,13 @@
 package com.beartrail.marketdata.service;
 
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.dto.ChartCandles;
 import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface MarketDataService {
     /**
@@ -17,11 +21,39 @@ public interface MarketDataService {
     Optional<MarketData> getLatestMarketData(String symbol, String timeInterval, Long timestamp);
 
     /**
-     * Fetches all the historical market data for a given symbol and time interval.
+     * Fetches the historical market data for a given symbol within a time range, for charting. The
+     * interval is coarsened as needed so the range fits the configured point budget; at most that many
+     * candles, the most recent, are returned.
      *
      * @param symbol       The stock symbol to fetch historical data for.
-     * @param timeInterval The time interval for the historical data (e.g., "1d", "1w").
-     * @return A string representing the historical market data in JSON format.
+     * @param timeInterval The finest time interval wanted (e.g., "1m", "1d").
+     * @param from         The inclusive start of the range, in ms from epoch.
+     * @param to           The exclusive end of the range, in ms from epoch.
+     * @return The candles in the range, ordered by bucket start; their interval is the one served.
      */
-    List<MarketData> getHistoricalMarketData(String symbol, String timeInterval);
+    List<MarketData> getHistoricalMarketData(String symbol, String timeInterval, Long from, Long to);
+
+    /**
+     * Like {@link #getHistoricalMarketData}, but also reports the interval the candles are served at.
+     *
+     * @param symbol   The stock symbol to fetch historical data for.
+     * @param interval The finest time interval wanted.
+     * @param from     The inclusive start of the range, in ms from epoch.
+     * @param to       The exclusive end of the range, in ms from epoch.
+     * @return The candles in the range, ordered by bucket start, and the interval chosen for them.
+     */
+    ChartCandles getChartCandles(String symbol, TimeInterval interval, long from, long to);
+
+    /**
+     * Streams the historical candles for a given symbol and time interval within a time range,
+     * without materialising the range in memory.
+     *
+     * @param symbol   The stock symbol to fetch historical data for.
+     * @param interval The time interval of the candles.
+     * @param from     The inclusive start of the range, in ms from epoch.
+     * @param to       The exclusive end of the range, in ms from epoch.
+     * @param consumer Receives each candle in ascending time order.
+     * @return The number of candles streamed.
+     */
+    long streamHistoricalMarketData(String symbol, TimeInterval interval, long from, long to, Consumer<CandleDto> consumer);
 }
@@ -0,0 +1,189 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers when the exchange trades, from {@link MarketSessionConfig}: regular hours on trading days,
+ * no session on holidays, and special sessions (e.g., Muhurat trading) in place of a day's regular
+ * hours, even on a holiday or weekend. Times are epoch milliseconds, matching the candle timestamps.
+ * <p>
+ * Holidays come from {@code holidays} and the {@code holiday-calendar} resource, which is maintained a
+ * year at a time; a startup warning flags a current year with no holidays listed.
+ */
+@Slf4j
+@Component
+public class MarketSessionCalendar {
+
+    private static final int MAX_DAYS_TO_NEXT_SESSION = 366;
+
+    private final MarketSessionConfig config;
+    private final Set<LocalDate> holidays;
+    private final Map<LocalDate, TradingSession> specialSessions = new HashMap<>();
+    private final Map<LocalDate, TradingSession> regularSessions = new ConcurrentHashMap<>();
+
+    public MarketSessionCalendar(MarketSessionConfig config) {
+        this.config = config;
+        Set<LocalDate> allHolidays = new HashSet<>(config.getHolidays());
+        if (config.getHolidayCalendar() != null) {
+            allHolidays.addAll(readHolidays(config.getHolidayCalendar()));
+        }
+        this.holidays = Set.copyOf(allHolidays);
+        for (MarketSessionConfig.SpecialSession special : config.getSpecialSessions()) {
+            if (!special.getOpen().isBefore(special.getClose())) {
+                throw new IllegalArgumentException("Special session on " + special.getDate() + " must open before it closes");
+            }
+            specialSessions.put(special.getDate(), session(special.getDate(), special.getOpen(), special.getClose(), special.getName()));
+        }
+    }
+
+    @PostConstruct
+    public void checkHolidayCoverage() {
+        int year = LocalDate.now(config.getZone()).getYear();
+        if (!hasHolidaysIn(year)) {
+            log.warn("No {} holidays configured for {}; every weekday will be treated as a trading day. "
+                    + "Add them to beartrail.market.session.holiday-calendar", config.getExchange(), year);
+        }
+    }
+
+    public boolean hasHolidaysIn(int year) {
+        for (LocalDate holiday : holidays) {
+            if (holiday.getYear() == year) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The session trading on {@code date}, or {@code null} if the exchange is closed all day. A
+     * special session takes precedence over a holiday or weekend on the same date.
+     */
+    public TradingSession sessionOn(LocalDate date) {
+        TradingSession special = specialSessions.get(date);
+        if (special != null) {
+            return special;
+        }
+        if (holidays.contains(date) || !config.getTradingDays().contains(date.getDayOfWeek())) {
+            return null;
+        }
+        return regularHoursOn(date);
+    }
+
+    /**
+     * @return The hours candles on {@code date} are anchored to: its session, or the regular hours
+     * when the exchange is closed that day.
+     */
+    public TradingSession hoursOn(LocalDate date) {
+        TradingSession special = specialSessions.get(date);
+        return special != null ? special : regularHoursOn(date);
+    }
+
+    public boolean isTradingDay(LocalDate date) {
+        return sessionOn(date) != null;
+    }
+
+    public boolean isOpen(long timestamp) {
+        TradingSession session = sessionOn(dateOf(timestamp));
+        return session != null && session.contains(timestamp);
+    }
+
+    /**
+     * @return The start of the session in progress at {@code timestamp}, or of the next one.
+     */
+    public long sessionOpenAtOrAfter(long timestamp) {
+        TradingSession session = sessionAtOrAfter(timestamp);
+        return session.open();
+    }
+
+    /**
+     * @return The session in progress at {@code timestamp}, or the next one.
+     */
+    public TradingSession sessionAtOrAfter(long timestamp) {
+        LocalDate date = dateOf(timestamp);
+        for (int day = 0; day < MAX_DAYS_TO_NEXT_SESSION; day++, date = date.plusDays(1)) {
+            TradingSession session = sessionOn(date);
+            if (session != null && timestamp < session.close()) {
+                return session;
+            }
+        }
+        throw new IllegalStateException("No trading session within a year of " + Instant.ofEpochMilli(timestamp));
+    }
+
+    public LocalDate dateOf(long timestamp) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), config.getZone());
+    }
+
+    public ZoneId zone() {
+        return config.getZone();
+    }
+
+    public String exchange() {
+        return config.getExchange();
+    }
+
+    /**
+     * Reads one ISO date per line; blank lines and anything after {@code #} are ignored.
+     */
+    static Set<LocalDate> readHolidays(Resource resource) {
+        Set<LocalDate> dates = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String date = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!date.isEmpty()) {
+                    dates.add(LocalDate.parse(date));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read holiday calendar " + resource.getDescription(), e);
+        }
+        return dates;
+    }
+
+    private TradingSession regularHoursOn(LocalDate date) {
+        return regularSessions.computeIfAbsent(date, day -> session(day, config.getOpen(), config.getClose(), null));
+    }
+
+    private TradingSession session(LocalDate date, LocalTime open, LocalTime close, String name) {
+        return new TradingSession(date,
+                date.atTime(open).atZone(config.getZone()).toInstant().toEpochMilli(),
+                date.atTime(close).atZone(config.getZone()).toInstant().toEpochMilli(),
+                name);
+    }
+
+    /**
+     * One day's trading hours, {@code [open, close)} in epoch milliseconds.
+     *
+     * @param name The special session's name, or {@code null} for regular hours.
+     */
+    public record TradingSession(LocalDate date, long open, long close, String name) {
+
+        public boolean contains(long timestamp) {
+            return timestamp >= open && timestamp < close;
+        }
+
+        public boolean isSpecial() {
+            return name != null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.event.publisher.MarketSessionEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+
+/**
+ * Publishes {@link MarketSessionEvent}s to {@code beartrail.kafka.topics.market-session-events} when the
+ * exchange opens or closes, so order, portfolio and leaderboard services can follow the session without
+ * keeping their own calendar. The state is checked every minute; the state found on the first check is
+ * only recorded, so a restart mid-session does not announce a second open.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "beartrail.market.session", name = "publish-events", havingValue = "true", matchIfMissing = true)
+public class MarketSessionEventPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final MarketSessionCalendar marketSessionCalendar;
+    private final String topic;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Boolean open;
+
+    @Autowired
+    public MarketSessionEventPublisher(KafkaTemplate<String, String> kafkaTemplate,
+                                       MarketSessionCalendar marketSessionCalendar,
+                                       @Value("${beartrail.kafka.topics.market-session-events}") String topic) {
+        this(kafkaTemplate, marketSessionCalendar, topic, Clock.systemUTC());
+    }
+
+    MarketSessionEventPublisher(KafkaTemplate<String, String> kafkaTemplate,
+                                MarketSessionCalendar marketSessionCalendar,
+                                String topic,
+                                Clock clock) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.marketSessionCalendar = marketSessionCalendar;
+        this.topic = topic;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "0 * * * * *")
+    public synchronized void checkSession() {
+        long now = clock.millis();
+        boolean nowOpen = marketSessionCalendar.isOpen(now);
+        if (open == null || open == nowOpen) {
+            open = nowOpen;
+            return;
+        }
+        open = nowOpen;
+
+        // on close, the session that just ended started before now; on open, it is the one in progress
+        MarketSessionCalendar.TradingSession session = nowOpen
+                ? marketSessionCalendar.sessionAtOrAfter(now)
+                : marketSessionCalendar.sessionOn(marketSessionCalendar.dateOf(now - 1));
+        publish(nowOpen ? MarketSessionEvent.Type.MARKET_OPEN : MarketSessionEvent.Type.MARKET_CLOSE, session, now);
+    }
+
+    private void publish(MarketSessionEvent.Type type, MarketSessionCalendar.TradingSession session, long now) {
+        MarketSessionEvent.MarketSessionEventBuilder event = MarketSessionEvent.builder()
+                .type(type)
+                .exchange(marketSessionCalendar.exchange())
+                .sessionDate(marketSessionCalendar.dateOf(now).toString())
+                .timestamp(now);
+        if (session != null) {
+            event.sessionDate(session.date().toString())
+                    .sessionOpen(session.open())
+                    .sessionClose(session.close())
+                    .sessionName(session.name());
+        }
+        MarketSessionEvent marketSessionEvent = event.build();
+        try {
+            kafkaTemplate.send(topic, marketSessionEvent.getExchange(), objectMapper.writeValueAsString(marketSessionEvent))
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("Failed to send market session event {}", marketSessionEvent, ex);
+                        }
+                    });
+            log.info("Published {} for {} session of {}", type, marketSessionEvent.getExchange(), marketSessionEvent.getSessionDate());
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize market session event: {}", marketSessionEvent, e);
+        }
+    }
+}
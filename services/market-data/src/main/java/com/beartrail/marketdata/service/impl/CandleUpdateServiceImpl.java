@@ -1,32 +1,35 @@
 package com.beartrail.marketdata.service.impl;
 
-import com.beartrail.marketdata.client.upstox.UpstoxApiClient;
-import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.client.upstox.UpstoxFetchExecutor;
+import com.beartrail.marketdata.model.batch.CandleBatch;
 import com.beartrail.marketdata.model.entity.TimeInterval;
-import com.beartrail.marketdata.repository.MarketDataRepository;
+import com.beartrail.marketdata.service.CandleChangeFilter;
+import com.beartrail.marketdata.service.CandleRollupEngine;
 import com.beartrail.marketdata.service.CandleUpdateService;
-import com.beartrail.marketdata.service.InstrumentKeyLoader;
+import com.beartrail.marketdata.service.InstrumentRegistry;
 import com.beartrail.marketdata.service.MarketDataKafkaProducer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
+@Slf4j
 @Service
 public class CandleUpdateServiceImpl implements CandleUpdateService {
 
     @Autowired
     private MarketDataServiceImpl marketDataService;
     @Autowired
-    private MarketDataCacheServiceImpl marketDataCacheService;
+    private UpstoxFetchExecutor upstoxFetchExecutor;
     @Autowired
-    private MarketDataRepository marketDataRepository;
+    private InstrumentRegistry instrumentRegistry;
     @Autowired
-    private UpstoxApiClient upstoxApiClient;
+    private MarketDataKafkaProducer marketDataKafkaProducer;
     @Autowired
-    private InstrumentKeyLoader instrumentKeyLoader;
+    private CandleRollupEngine candleRollupEngine;
     @Autowired
-    private MarketDataKafkaProducer marketDataKafkaProducer;
+    private CandleChangeFilter candleChangeFilter;
 
     @Override
     public void updateCandlesForInterval(TimeInterval interval) {
@@ -34,24 +37,45 @@ public class CandleUpdateServiceImpl implements CandleUpdateService {
             throw new IllegalArgumentException("Time interval cannot be null");
         }
 
-        List<String> symbols = instrumentKeyLoader.getInstrumentKeys();
+        List<String> symbols = instrumentRegistry.getInstrumentKeys();
 
         if (symbols.isEmpty()) {
             throw new RuntimeException("No instrument keys found for the given interval: " + interval);
         }
-        //process symbols in batches of 500
-        for (int i = 0; i < symbols.size(); i += 500) {
-            int end = Math.min(i + 500, symbols.size());
-            List<String> batchSymbols = symbols.subList(i, end);
-
-            List<MarketData> marketDataList = upstoxApiClient.getMarketData(batchSymbols, interval.getValue());
-
-            for (MarketData marketData : marketDataList) {
-                marketDataKafkaProducer.sendPriceUpdate(marketData.toPriceUpdateEvent());
-                marketDataRepository.save(marketData);                                                  // TODO: decouple this and make it consume from market_data kafka topic
-                marketDataCacheService.cacheLatestMarketData(marketData.getSymbol(), interval.getValue(), marketData.toString());
-            }
+
+        int failedBatches = upstoxFetchExecutor.fetchAll(symbols, interval.getValue(),
+                batch -> processBatch(batch, interval));
+        if (failedBatches > 0) {
+            log.warn("{} Upstox batches failed for interval: {}", failedBatches, interval);
+        }
+        if (interval == TimeInterval.ONE_MINUTE) {
+            publishRollups(candleRollupEngine.flushCompleted(System.currentTimeMillis()));
+        }
+    }
+
+    @Override
+    public void ingestOneMinuteCandles(CandleBatch candles) {
+        processBatch(candles, TimeInterval.ONE_MINUTE);
+        publishRollups(candleRollupEngine.flushCompleted(System.currentTimeMillis()));
+    }
+
+    private void processBatch(CandleBatch fetched, TimeInterval interval) {
+        CandleBatch batch = candleChangeFilter.changed(fetched);  // repeats of an unchanged candle are not republished
+        if (!batch.isEmpty()) {
+            marketDataKafkaProducer.sendCandles(batch);             // persisted by CandlePersistenceListener
+        }
+
+        if (interval == TimeInterval.ONE_MINUTE) {
+            publishRollups(candleRollupEngine.accept(fetched));     // the roll-up sees every minute, changed or not
+        }
+    }
+
+    private void publishRollups(CandleBatch bars) {
+        if (bars.isEmpty()) {
+            return;
         }
+
+        marketDataKafkaProducer.sendCandles(bars);
     }
 
     @Override
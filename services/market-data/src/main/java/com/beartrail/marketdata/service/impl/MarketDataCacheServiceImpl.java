@@ -1,31 +1,182 @@
 package com.beartrail.marketdata.service.impl;
 
+import com.beartrail.marketdata.config.MarketDataCacheConfig;
+import com.beartrail.marketdata.model.codec.MarketDataCodec;
 import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import com.beartrail.marketdata.model.instrument.InstrumentsReloadedEvent;
 import com.beartrail.marketdata.service.MarketDataCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Two-tier cache for the latest candle per (symbol, interval): a bounded on-heap L1 in front of
+ * Redis. Redis holds the compact {@link MarketDataCodec} encoding and is treated as best effort,
+ * so a Redis outage degrades to L1 plus database reads instead of failing the request.
+ */
+@Slf4j
 @Service
-public class MarketDataCacheServiceImpl implements MarketDataCacheService {         // TODO: Implement caching logic
+public class MarketDataCacheServiceImpl implements MarketDataCacheService {
 
-    @Override
-    public Optional<MarketData> get(String cacheKey) {
-        return Optional.empty();
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final MarketDataCacheConfig config;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Cache<String, MarketData> localCache;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter redisErrors;
+
+    public MarketDataCacheServiceImpl(MarketDataCacheConfig config,
+                                      RedisTemplate<String, byte[]> redisTemplate,
+                                      MeterRegistry meterRegistry) {
+        this.config = config;
+        this.redisTemplate = redisTemplate;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(config.getLocalMaxSize())
+                .expireAfterWrite(config.getLocalTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "marketdata.latest.local");
+        this.redisHits = redisCounter(meterRegistry, "hit");
+        this.redisMisses = redisCounter(meterRegistry, "miss");
+        this.redisErrors = redisCounter(meterRegistry, "error");
     }
 
     @Override
-    public void cacheLatestMarketData(String symbol, String timeInterval, String data) {
+    public Optional<MarketData> get(String symbol, String timeInterval) {
+        String key = cacheKey(symbol, timeInterval);
+        MarketData cached = localCache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        MarketData marketData;
+        try {
+            byte[] encoded = redisTemplate.opsForValue().get(redisKey(key));
+            if (encoded == null) {
+                redisMisses.increment();
+                return Optional.empty();
+            }
+            marketData = MarketDataCodec.decode(encoded);      // entries from an older encoding version fail here and count as errors
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Redis lookup failed for key: {}", key, e);
+            return Optional.empty();
+        }
 
+        redisHits.increment();
+        localCache.put(key, marketData);
+        return Optional.of(marketData);
+    }
+
+    @Override
+    public void cacheLatestMarketData(String symbol, String timeInterval, MarketData data) {
+        String key = cacheKey(symbol, timeInterval);
+        localCache.put(key, data);
+        try {
+            redisTemplate.opsForValue().set(redisKey(key), MarketDataCodec.encode(data), config.getRedisTtl());
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Redis write failed for key: {}", key, e);
+        }
     }
 
     @Override
     public void invalidateCache(String symbol, String timeInterval) {
+        String key = cacheKey(symbol, timeInterval);
+        localCache.invalidate(key);
+        try {
+            redisTemplate.delete(redisKey(key));
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Redis invalidation failed for key: {}", key, e);
+        }
+    }
 
+    /**
+     * Drops the cached candles of instruments that left the instrument master or changed trading symbol;
+     * everything else stays warm. Candles are cached under the quote key ({@code NSE_EQ:RELIANCE}), so
+     * each instrument key in the diff is resolved through the table it was listed in.
+     */
+    @EventListener
+    public void onInstrumentsReloaded(InstrumentsReloadedEvent event) {
+        InstrumentTable previous = event.previous();
+        for (String instrumentKey : event.diff().removed()) {
+            invalidateAllIntervals(previous.quoteKey(previous.idOfKey(instrumentKey)));
+        }
+        InstrumentTable current = event.current();
+        for (String instrumentKey : event.diff().changed()) {
+            String previousSymbol = previous.quoteKey(previous.idOfKey(instrumentKey));
+            if (!previousSymbol.equals(current.quoteKey(current.idOfKey(instrumentKey)))) {
+                invalidateAllIntervals(previousSymbol);
+            }
+        }
+    }
+
+    private void invalidateAllIntervals(String symbol) {
+        for (TimeInterval interval : TimeInterval.values()) {
+            invalidateCache(symbol, interval.getValue());
+        }
     }
 
     @Override
     public void invalidateAllCache() {
+        localCache.invalidateAll();
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(config.getRedisKeyPrefix() + "*")
+                .count(SCAN_BATCH_SIZE)
+                .build();
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                List<byte[]> keys = new ArrayList<>(SCAN_BATCH_SIZE);
+                try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                    while (cursor.hasNext()) {
+                        keys.add(cursor.next());
+                        if (keys.size() == SCAN_BATCH_SIZE) {
+                            connection.keyCommands().del(keys.toArray(new byte[0][]));
+                            keys.clear();
+                        }
+                    }
+                }
+                if (!keys.isEmpty()) {
+                    connection.keyCommands().del(keys.toArray(new byte[0][]));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Redis invalidation failed for prefix: {}", config.getRedisKeyPrefix(), e);
+        }
+    }
+
+    private static String cacheKey(String symbol, String timeInterval) {
+        return symbol + ':' + timeInterval;
+    }
+
+    private String redisKey(String key) {
+        return config.getRedisKeyPrefix() + key;
+    }
 
+    private static Counter redisCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("marketdata.latest.redis")
+                .description("Redis tier lookups for the latest candle cache")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 }
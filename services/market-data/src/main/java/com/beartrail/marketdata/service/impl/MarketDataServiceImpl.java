@@ -1,16 +1,25 @@
 package com.beartrail.marketdata.service.impl;
 
+import com.beartrail.marketdata.config.MarketDataQueryConfig;
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.dto.ChartCandles;
 import com.beartrail.marketdata.model.entity.MarketData;
 import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.repository.CandleHistoryRepository;
 import com.beartrail.marketdata.repository.MarketDataRepository;
+import com.beartrail.marketdata.repository.archive.CandleArchive;
+import com.beartrail.marketdata.repository.archive.CandleArchiveSlice;
+import com.beartrail.marketdata.service.CandleQueryRouter;
 import com.beartrail.marketdata.service.MarketDataCacheService;
 import com.beartrail.marketdata.service.MarketDataService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -18,10 +27,20 @@ public class MarketDataServiceImpl implements MarketDataService {
 
     private final MarketDataRepository marketDataRepository;
     private final MarketDataCacheService marketDataCacheService;
+    private final CandleHistoryRepository candleHistoryRepository;
+    private final MarketDataQueryConfig queryConfig;
+    private final CandleArchive candleArchive;
+    private final CandleQueryRouter candleQueryRouter;
 
-    public MarketDataServiceImpl(MarketDataRepository marketDataRepository, MarketDataCacheService marketDataCacheService) {
+    public MarketDataServiceImpl(MarketDataRepository marketDataRepository, MarketDataCacheService marketDataCacheService,
+                                 CandleHistoryRepository candleHistoryRepository, MarketDataQueryConfig queryConfig,
+                                 CandleArchive candleArchive, CandleQueryRouter candleQueryRouter) {
         this.marketDataRepository = marketDataRepository;
         this.marketDataCacheService = marketDataCacheService;
+        this.candleHistoryRepository = candleHistoryRepository;
+        this.queryConfig = queryConfig;
+        this.candleArchive = candleArchive;
+        this.candleQueryRouter = candleQueryRouter;
     }
 
     @Override
@@ -32,8 +51,8 @@ public class MarketDataServiceImpl implements MarketDataService {
         }
 
         try {
-            String cacheKey = String.format("%s_%s", symbol, timeInterval);
-            Optional<MarketData> cachedData = marketDataCacheService.get(cacheKey);
+            TimeInterval interval = TimeInterval.fromValue(timeInterval);
+            Optional<MarketData> cachedData = marketDataCacheService.get(symbol, interval.getValue());
 
             if (cachedData.isPresent()) {
                 log.info("Cache hit for symbol: {}, time interval: {}", symbol, timeInterval);
@@ -41,10 +60,10 @@ public class MarketDataServiceImpl implements MarketDataService {
             }
 
             log.info("Cache miss for symbol: {}, time interval: {}", symbol, timeInterval);
-            Optional<MarketData> marketData = marketDataRepository.findBySymbolAndTimestamp(symbol, timestamp);
+            Optional<MarketData> marketData = marketDataRepository.findBySymbolAndTimeIntervalAndTimestamp(symbol, interval, timestamp);
             if (marketData.isPresent()) {
                 log.info("Latest market data found for symbol: {}, time interval: {}", symbol, timeInterval);
-                marketDataCacheService.cacheLatestMarketData(symbol, timeInterval, marketData.get().toString());
+                marketDataCacheService.cacheLatestMarketData(symbol, interval.getValue(), marketData.get());
                 return marketData;
             } else {
                 log.warn("No market data found for symbol: {}, time interval: {}", symbol, timeInterval);
@@ -57,23 +76,107 @@ public class MarketDataServiceImpl implements MarketDataService {
     }
 
     @Override
-    public List<MarketData> getHistoricalMarketData(String symbol, String timeInterval) {
+    public List<MarketData> getHistoricalMarketData(String symbol, String timeInterval, Long from, Long to) {
 
         if (symbol == null || symbol.isEmpty()) {
             log.error("Invalid stock symbol provided: {}", symbol);
             return List.of();
         }
         try {
-            List<MarketData> historicalData = marketDataRepository.findBySymbol(symbol);
-            if (historicalData.isEmpty()) {
-                log.warn("No historical market data found for symbol: {}, time interval: {}", symbol, timeInterval);
-            } else {
-                log.info("Historical market data retrieved for symbol: {}, time interval: {}", symbol, timeInterval);
+            TimeInterval interval = TimeInterval.fromValue(timeInterval);
+            if (from == null || to == null || from >= to) {
+                log.error("Invalid time range for symbol: {}, from: {}, to: {}", symbol, from, to);
+                return List.of();
             }
-            return historicalData;
+            return chart(symbol, interval, from, to).candles();
         } catch (IllegalArgumentException e) {
             log.error("Invalid time interval: {}", timeInterval, e);
             return List.of();
         }
     }
+
+    @Override
+    public ChartCandles getChartCandles(String symbol, TimeInterval interval, long from, long to) {
+        if (symbol == null || symbol.isEmpty()) {
+            throw new IllegalArgumentException("Invalid stock symbol provided: " + symbol);
+        }
+        if (from >= to) {
+            throw new IllegalArgumentException("Invalid time range: from must be before to");
+        }
+        return chart(symbol, interval, from, to);
+    }
+
+    private ChartCandles chart(String symbol, TimeInterval interval, long from, long to) {
+        CandleQueryRouter.Route route = candleQueryRouter.route(interval, from, to);
+        List<MarketData> candles = readLatest(symbol, route.source(), from, to, queryConfig.getMaxScanRows());
+        List<MarketData> historicalData = candles;
+        if (route.rollsUp()) {
+            historicalData = candleQueryRouter.rollUp(candles, route.interval());
+            if (candles.size() == queryConfig.getMaxScanRows() && !historicalData.isEmpty()) {
+                historicalData = historicalData.subList(1, historicalData.size());     // the scan cap may have cut the oldest bucket short
+            }
+        }
+        if (historicalData.size() > queryConfig.getMaxPoints()) {
+            historicalData = historicalData.subList(historicalData.size() - queryConfig.getMaxPoints(), historicalData.size());
+        }
+        if (historicalData.isEmpty()) {
+            log.warn("No historical market data found for symbol: {}, time interval: {}", symbol, interval);
+        } else {
+            log.info("Historical market data retrieved for symbol: {}, time interval: {} (served as {} from {})",
+                    symbol, interval, route.interval(), route.source());
+        }
+        return new ChartCandles(route.interval(), List.copyOf(historicalData));
+    }
+
+    @Override
+    public long streamHistoricalMarketData(String symbol, TimeInterval interval, long from, long to, Consumer<CandleDto> consumer) {
+        if (symbol == null || symbol.isEmpty()) {
+            throw new IllegalArgumentException("Invalid stock symbol provided: " + symbol);
+        }
+        if (from >= to) {
+            throw new IllegalArgumentException("Invalid time range: from must be before to");
+        }
+
+        long streamed = 0;
+        long databaseFrom = from;
+        long archiveEnd = candleArchive.end(symbol, interval);
+        if (archiveEnd > from) {
+            CandleArchiveSlice archived = candleArchive.read(symbol, interval, from, Math.min(to, archiveEnd));
+            for (int row = 0; row < archived.size(); row++) {
+                consumer.accept(archived.toCandleDto(row));
+            }
+            streamed += archived.size();
+            databaseFrom = archiveEnd;
+        }
+        if (databaseFrom < to) {
+            streamed += candleHistoryRepository.streamRange(symbol, interval, databaseFrom, to, queryConfig.getPageSize(), consumer);
+        }
+        log.debug("Streamed {} candles for symbol: {}, time interval: {}", streamed, symbol, interval);
+        return streamed;
+    }
+
+    /**
+     * Reads the newest {@code limit} candles of {@code [from, to)} in ascending order: from the database
+     * past the archive's end, topped up from the archive's tail.
+     */
+    private List<MarketData> readLatest(String symbol, TimeInterval interval, long from, long to, int limit) {
+        long archiveEnd = candleArchive.end(symbol, interval);
+        long databaseFrom = Math.max(from, archiveEnd);
+        List<MarketData> newest = databaseFrom < to
+                ? marketDataRepository.findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+                        symbol, interval, databaseFrom, to, Limit.of(limit))
+                : List.of();
+
+        List<MarketData> candles = new ArrayList<>(newest.size());
+        if (newest.size() < limit && archiveEnd > from) {
+            CandleArchiveSlice archived = candleArchive.read(symbol, interval, from, Math.min(to, archiveEnd));
+            for (int row = Math.max(0, archived.size() - (limit - newest.size())); row < archived.size(); row++) {
+                candles.add(archived.toMarketData(row, symbol, interval));
+            }
+        }
+        for (int i = newest.size() - 1; i >= 0; i--) {
+            candles.add(newest.get(i));
+        }
+        return candles;
+    }
 }
@@ -0,0 +1,34 @@
+-- Time-series candle store.
+-- One row per (symbol, interval, bucket start). The parent is list-partitioned by interval, and each
+-- interval is range-partitioned by bucket start (ms from epoch, IST calendar boundaries):
+--   intraday intervals up to 30m -> one partition per trading day
+--   1h / 4h                       -> one partition per month
+--   1d / 1w                       -> one partition per year
+-- Child range partitions are created ahead of time and dropped past retention by CandlePartitionManager.
+
+CREATE TABLE candles (
+    symbol           VARCHAR(64)      NOT NULL,
+    time_interval    VARCHAR(16)      NOT NULL,
+    bucket_start     BIGINT           NOT NULL,
+    instrument_token VARCHAR(64),
+    last_price       DOUBLE PRECISION,
+    open_price       DOUBLE PRECISION,
+    high_price       DOUBLE PRECISION,
+    low_price        DOUBLE PRECISION,
+    close_price      DOUBLE PRECISION,
+    volume           BIGINT,
+    PRIMARY KEY (symbol, time_interval, bucket_start)
+) PARTITION BY LIST (time_interval);
+
+CREATE TABLE candles_one_minute      PARTITION OF candles FOR VALUES IN ('ONE_MINUTE')      PARTITION BY RANGE (bucket_start);
+CREATE TABLE candles_five_minutes    PARTITION OF candles FOR VALUES IN ('FIVE_MINUTES')    PARTITION BY RANGE (bucket_start);
+CREATE TABLE candles_fifteen_minutes PARTITION OF candles FOR VALUES IN ('FIFTEEN_MINUTES') PARTITION BY RANGE (bucket_start);
+CREATE TABLE candles_thirty_minutes  PARTITION OF candles FOR VALUES IN ('THIRTY_MINUTES')  PARTITION BY RANGE (bucket_start);
+CREATE TABLE candles_one_hour        PARTITION OF candles FOR VALUES IN ('ONE_HOUR')        PARTITION BY RANGE (bucket_start);
+CREATE TABLE candles_four_hours      PARTITION OF candles FOR VALUES IN ('FOUR_HOURS')      PARTITION BY RANGE (bucket_start);
+CREATE TABLE candles_one_day         PARTITION OF candles FOR VALUES IN ('ONE_DAY')         PARTITION BY RANGE (bucket_start);
+CREATE TABLE candles_one_week        PARTITION OF candles FOR VALUES IN ('ONE_WEEK')        PARTITION BY RANGE (bucket_start);
+
+-- The primary key's btree already serves (symbol, interval, bucket_start) lookups and range scans.
+-- BRIN keeps a tiny summary per block range for time-only scans over append-ordered partitions.
+CREATE INDEX idx_candles_bucket_start_brin ON candles USING BRIN (bucket_start);
@@ -0,0 +1,62 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.config.UpstoxConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+class UpstoxApiClientTest {
+
+    private MockRestServiceServer server;
+    private UpstoxApiClient upstoxApiClient;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        UpstoxConfig config = new UpstoxConfig();
+        config.setAuthToken("token");
+        upstoxApiClient = new UpstoxApiClient(config, restTemplate);
+    }
+
+    @Test
+    void fetchMarketData_streamsResponseIntoBatch() {
+        server.expect(requestTo("https://api.upstox.test/v2/market-quote/ohlc?instrument_key=NSE_EQ:TCS&interval=I1"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header("Authorization", "Bearer token"))
+                .andRespond(withSuccess("{\"status\":\"success\",\"data\":{\"NSE_EQ:TCS\":{\"last_price\":3400,"
+                        + "\"prev_ohlc\":{\"open\":3399,\"high\":3401,\"low\":3398,\"close\":3400,\"volume\":7,\"ts\":1754451660000}}}}",
+                        MediaType.APPLICATION_JSON));
+        CandleBatch batch = new CandleBatch(1);
+
+        assertEquals(1, upstoxApiClient.fetchMarketData(request("NSE_EQ:TCS"), batch));
+
+        assertEquals(3400.0, batch.closePrice(0));
+        server.verify();
+    }
+
+    @Test
+    void fetchMarketData_serverError_propagatesStatusException() {
+        server.expect(requestTo("https://api.upstox.test/v2/market-quote/ohlc?instrument_key=NSE_EQ:TCS&interval=I1"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(HttpServerErrorException.class,
+                () -> upstoxApiClient.fetchMarketData(request("NSE_EQ:TCS"), new CandleBatch(1)));
+    }
+
+    private static UpstoxQuoteRequest request(String... symbols) {
+        return UpstoxQuoteRequest.of("https://api.upstox.test/v2", List.of(symbols), "I1");
+    }
+}
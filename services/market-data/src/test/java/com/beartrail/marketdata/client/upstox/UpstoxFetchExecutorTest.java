@@ -0,0 +1,199 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.config.UpstoxConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UpstoxFetchExecutorTest {
+
+    @Mock
+    private UpstoxApiClient upstoxApiClient;
+
+    private UpstoxConfig config;
+    private UpstoxFetchExecutor fetchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new UpstoxConfig();
+        config.setBaseUrl("http://upstox.test/v2");
+        config.setMaxInstrumentsPerRequest(2);
+        config.setInitialBackoff(Duration.ofMillis(1));
+        config.setMaxBackoff(Duration.ofMillis(5));
+        fetchExecutor = new UpstoxFetchExecutor(upstoxApiClient, config, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdown();
+    }
+
+    @Test
+    void fetchAll_mergesEveryBatchOnCallingThread() {
+        doAnswer(fillsRequestedSymbols()).when(upstoxApiClient).fetchMarketData(any(UpstoxQuoteRequest.class), any(CandleBatch.class));
+        List<String> merged = Collections.synchronizedList(new ArrayList<>());
+        Thread caller = Thread.currentThread();
+
+        int failed = fetchExecutor.fetchAll(List.of("A", "B", "C", "D", "E"), "I1", batch -> {
+            assertSame(caller, Thread.currentThread());
+            merged.addAll(symbols(batch));
+        });
+
+        assertEquals(0, failed);
+        assertEquals(5, merged.size());
+        verify(upstoxApiClient, times(3)).fetchMarketData(any(UpstoxQuoteRequest.class), any(CandleBatch.class));
+    }
+
+    @Test
+    void fetchAll_recyclesBatchesAcrossRefreshes() {
+        doAnswer(fillsRequestedSymbols()).when(upstoxApiClient).fetchMarketData(any(UpstoxQuoteRequest.class), any(CandleBatch.class));
+        Set<CandleBatch> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        fetchExecutor.fetchAll(List.of("A"), "I1", seen::add);
+        fetchExecutor.fetchAll(List.of("B"), "I1", batch -> {
+            seen.add(batch);
+            assertEquals(List.of("B"), symbols(batch));
+        });
+
+        assertEquals(1, seen.size());
+    }
+
+    @Test
+    void fetchAll_callbackThrows_recyclesOutstandingBatches() throws Exception {
+        CountDownLatch fetched = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            int rows = fillsRequestedSymbols().answer(invocation);
+            fetched.countDown();
+            return rows;
+        }).when(upstoxApiClient).fetchMarketData(any(UpstoxQuoteRequest.class), any(CandleBatch.class));
+        List<String> universe = List.of("A", "B", "C", "D", "E", "F");
+        Set<CandleBatch> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        assertThrows(IllegalStateException.class, () -> fetchExecutor.fetchAll(universe, "I1", batch -> {
+            seen.add(batch);
+            try {
+                assertTrue(fetched.await(5, TimeUnit.SECONDS));
+                Thread.sleep(50);                                                // let the other fetches complete
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("merge failed");
+        }));
+        fetchExecutor.fetchAll(universe, "I1", seen::add);
+
+        assertEquals(3, seen.size());
+    }
+
+    @Test
+    void fetchAll_sameUniverse_reusesPrecomputedRequests() {
+        List<UpstoxQuoteRequest> requests = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return 0;
+        }).when(upstoxApiClient).fetchMarketData(any(UpstoxQuoteRequest.class), any(CandleBatch.class));
+        List<String> universe = List.of("NSE_EQ|INE002A01018");
+
+        fetchExecutor.fetchAll(universe, "I1", batch -> { });
+        fetchExecutor.fetchAll(universe, "I1", batch -> { });
+
+        assertEquals(2, requests.size());
+        assertSame(requests.get(0), requests.get(1));
+        assertEquals("http://upstox.test/v2/market-quote/ohlc?instrument_key=NSE_EQ%7CINE002A01018&interval=I1",
+                requests.get(0).uri().toString());
+    }
+
+    @Test
+    void fetchAll_transientFailure_isRetried() {
+        doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .doThrow(new ResourceAccessException("connection reset"))
+                .doAnswer(fillsRequestedSymbols())
+                .when(upstoxApiClient).fetchMarketData(forSymbols("A"), any(CandleBatch.class));
+        List<String> merged = new ArrayList<>();
+
+        int failed = fetchExecutor.fetchAll(List.of("A"), "I1", batch -> merged.addAll(symbols(batch)));
+
+        assertEquals(0, failed);
+        assertEquals(List.of("A"), merged);
+        verify(upstoxApiClient, times(3)).fetchMarketData(forSymbols("A"), any(CandleBatch.class));
+    }
+
+    @Test
+    void fetchAll_clientError_failsWithoutRetry() {
+        doThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED))
+                .when(upstoxApiClient).fetchMarketData(forSymbols("A"), any(CandleBatch.class));
+
+        int failed = fetchExecutor.fetchAll(List.of("A"), "I1", batch -> fail("no batch expected"));
+
+        assertEquals(1, failed);
+        verify(upstoxApiClient, times(1)).fetchMarketData(forSymbols("A"), any(CandleBatch.class));
+    }
+
+    @Test
+    void fetchAll_retriesExhausted_countsFailure() {
+        doThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS))
+                .when(upstoxApiClient).fetchMarketData(forSymbols("A"), any(CandleBatch.class));
+
+        assertEquals(1, fetchExecutor.fetchAll(List.of("A"), "I1", batch -> fail("no batch expected")));
+        verify(upstoxApiClient, times(config.getMaxRetries() + 1)).fetchMarketData(forSymbols("A"), any(CandleBatch.class));
+    }
+
+    @Test
+    void tokenBucket_burstThenThrottlesAtRate() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(1), clock::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(500, TimeUnit.NANOSECONDS.toMillis(bucket.reserve()));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(0, bucket.reserve());
+    }
+
+    private static Answer<Integer> fillsRequestedSymbols() {
+        return invocation -> {
+            List<String> symbols = invocation.<UpstoxQuoteRequest>getArgument(0).symbols();
+            CandleBatch batch = invocation.getArgument(1);
+            for (String symbol : symbols) {
+                batch.add(symbol, TimeInterval.ONE_MINUTE, null, 0L, 1.0, 1.0, 1.0, 1.0, 1.0, 1L);
+            }
+            return symbols.size();
+        };
+    }
+
+    private static UpstoxQuoteRequest forSymbols(String... symbols) {
+        return argThat(request -> request != null && request.symbols().equals(List.of(symbols)));
+    }
+
+    private static List<String> symbols(CandleBatch batch) {
+        List<String> symbols = new ArrayList<>(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            symbols.add(batch.symbol(row));
+        }
+        return symbols;
+    }
+}
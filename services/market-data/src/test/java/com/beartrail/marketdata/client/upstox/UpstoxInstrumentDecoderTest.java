@@ -0,0 +1,67 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstoxInstrumentDecoderTest {
+
+    private static final String INSTRUMENTS = """
+            [
+              {"segment": "NSE_EQ", "name": "RELIANCE INDUSTRIES LTD", "exchange": "NSE", "isin": "INE002A01018",
+               "instrument_type": "EQ", "instrument_key": "NSE_EQ|INE002A01018", "lot_size": 1, "freeze_quantity": 100000.0,
+               "exchange_token": "2885", "tick_size": 10.0, "trading_symbol": "RELIANCE", "short_name": "Reliance",
+               "security_type": "NORMAL", "qty_multiplier": 1.0},
+              {"segment": "NSE_FO", "name": "RELIANCE", "instrument_key": "NSE_FO|12345", "exchange_token": "12345",
+               "trading_symbol": "RELIANCE FUT 28 AUG 25", "underlying_key": "NSE_EQ|INE002A01018"},
+              {"segment": "BSE_EQ", "name": "RELIANCE INDUSTRIES LTD.", "instrument_key": "BSE_EQ|INE002A01018",
+               "exchange_token": "500325", "trading_symbol": "RELIANCE", "tags": ["A", "SENSEX"]},
+              {"segment": "BSE_EQ", "name": "TATA CONSULTANCY SERV LT", "instrument_key": "BSE_EQ|INE467B01029",
+               "exchange_token": "2885", "trading_symbol": "TCS", "short_name": null},
+              {"segment": "NSE_EQ", "name": "RELIANCE INDUSTRIES LTD", "instrument_key": "NSE_EQ|INE002A01018",
+               "exchange_token": "2885", "trading_symbol": "RELIANCE"}
+            ]
+            """;
+
+    private final UpstoxInstrumentDecoder decoder = new UpstoxInstrumentDecoder();
+
+    @Test
+    void decode_keepsEquitySegmentsInFileOrder() throws IOException {
+        InstrumentTable table = decode(INSTRUMENTS);
+
+        assertEquals(List.of("NSE_EQ|INE002A01018", "BSE_EQ|INE002A01018", "BSE_EQ|INE467B01029"), table.instrumentKeys());
+        assertEquals("RELIANCE INDUSTRIES LTD", table.name(0));
+        assertEquals("BSE_EQ", table.segment(2));
+        assertEquals("500325", table.exchangeToken(1));
+    }
+
+    @Test
+    void lookups_resolveByKeySymbolAndToken() throws IOException {
+        InstrumentTable table = decode(INSTRUMENTS);
+
+        assertEquals(2, table.idOfKey("BSE_EQ|INE467B01029"));
+        assertEquals(-1, table.idOfKey("NSE_FO|12345"));
+        assertEquals(0, table.idOfTradingSymbol("RELIANCE"));                 // NSE preferred
+        assertEquals(1, table.idOfTradingSymbol("BSE_EQ", "RELIANCE"));
+        assertEquals(2, table.idOfTradingSymbol("TCS"));
+        assertEquals(-1, table.idOfTradingSymbol("NSE_EQ", "TCS"));
+        assertEquals(0, table.idOfExchangeToken("NSE_EQ", "2885"));
+        assertEquals(2, table.idOfExchangeToken("BSE_EQ", "2885"));
+        assertEquals(-1, table.idOfExchangeToken("MCX_FO", "2885"));
+    }
+
+    @Test
+    void decode_notAnArray_throws() {
+        assertThrows(IOException.class, () -> decode("{\"segment\": \"NSE_EQ\"}"));
+    }
+
+    private InstrumentTable decode(String json) throws IOException {
+        return decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.beartrail.marketdata.client.upstox;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstoxQuoteDecoderTest {
+
+    private final UpstoxQuoteDecoder decoder = new UpstoxQuoteDecoder();
+
+    @Test
+    void decode_readsPrevOhlcAndSkipsUnusedFields() throws IOException {
+        String json = """
+                {"status":"success","data":{
+                  "NSE_EQ:RELIANCE":{"last_price":2501.5,"instrument_token":"NSE_EQ|INE002A01018",
+                    "live_ohlc":{"open":2500,"high":2502,"low":2499,"close":2501.5,"volume":10,"ts":1754451720000},
+                    "depth":{"buy":[{"price":2501,"quantity":5}]},
+                    "prev_ohlc":{"open":2498,"high":2503,"low":2497.5,"close":2500,"volume":1200,"ts":1754451660000}},
+                  "NSE_EQ:TCS":{"last_price":3400,"instrument_token":"NSE_EQ|INE467B01029",
+                    "prev_ohlc":{"open":3399,"high":3401,"low":3398,"close":null,"volume":null,"ts":1754451660000}}}}
+                """;
+        CandleBatch batch = new CandleBatch(2);
+
+        assertEquals(2, decode(json, batch));
+
+        assertEquals("NSE_EQ:RELIANCE", batch.symbol(0));
+        assertEquals(TimeInterval.ONE_MINUTE, batch.interval(0));
+        assertEquals("NSE_EQ|INE002A01018", batch.instrumentToken(0));
+        assertEquals(1_754_451_660_000L, batch.timestamp(0));
+        assertEquals(2501.5, batch.lastPrice(0));
+        assertEquals(2498.0, batch.openPrice(0));
+        assertEquals(2497.5, batch.lowPrice(0));
+        assertEquals(2500.0, batch.closePrice(0));
+        assertEquals(1200L, batch.volume(0));
+        assertTrue(Double.isNaN(batch.closePrice(1)));
+        assertEquals(0L, batch.volume(1));
+    }
+
+    @Test
+    void decode_quoteWithoutCompletedCandle_isSkipped() throws IOException {
+        String json = """
+                {"data":{"NSE_EQ:RELIANCE":{"last_price":2501.5,"prev_ohlc":null},
+                         "NSE_EQ:TCS":{"last_price":3400,"prev_ohlc":{"close":3400,"ts":1754451660000}}},"status":"success"}
+                """;
+        CandleBatch batch = new CandleBatch(2);
+
+        assertEquals(1, decode(json, batch));
+        assertEquals("NSE_EQ:TCS", batch.symbol(0));
+    }
+
+    @Test
+    void decode_emptyOrMissingData_throws() {
+        assertThrows(RuntimeException.class, () -> decode("{\"status\":\"success\",\"data\":{}}", new CandleBatch(1)));
+        assertThrows(RuntimeException.class, () -> decode("{\"status\":\"error\",\"errors\":[{\"message\":\"bad key\"}]}", new CandleBatch(1)));
+    }
+
+    @Test
+    void decode_malformedBody_throwsRuntimeException() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> decode("{\"data\":{\"NSE_EQ:TCS\":[1,2]}}", new CandleBatch(1)));
+        assertEquals("Failed to parse market data response", e.getMessage());
+    }
+
+    private int decode(String json, CandleBatch batch) throws IOException {
+        return decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), TimeInterval.ONE_MINUTE, batch);
+    }
+}
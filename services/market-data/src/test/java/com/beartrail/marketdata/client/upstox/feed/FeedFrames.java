@@ -0,0 +1,88 @@
+package com.beartrail.marketdata.client.upstox.feed;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes {@code FeedResponse} frames in protobuf wire format for feed tests.
+ */
+final class FeedFrames {
+
+    private final ByteArrayOutputStream feeds = new ByteArrayOutputStream();
+
+    FeedFrames ltpc(String instrumentKey, double lastPrice, long lastTradeTime, long lastTradeQuantity) {
+        return entry(instrumentKey, message(1, ltpcBlock(lastPrice, lastTradeTime, lastTradeQuantity)));
+    }
+
+    FeedFrames marketFullFeed(String instrumentKey, double lastPrice, long lastTradeTime, long lastTradeQuantity) {
+        ByteArrayOutputStream marketFF = new ByteArrayOutputStream();
+        writeBytes(marketFF, message(1, ltpcBlock(lastPrice, lastTradeTime, lastTradeQuantity)));
+        writeBytes(marketFF, varintField(7, 123_456));                        // vtt, skipped
+        return entry(instrumentKey, message(2, message(1, marketFF.toByteArray())));
+    }
+
+    FeedFrames indexFullFeed(String instrumentKey, double lastPrice, long lastTradeTime) {
+        return entry(instrumentKey, message(2, message(2, message(1, ltpcBlock(lastPrice, lastTradeTime, 0)))));
+    }
+
+    byte[] toBytes() {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        writeBytes(frame, varintField(1, 1));                                   // type = live_feed
+        writeBytes(frame, feeds.toByteArray());
+        writeBytes(frame, varintField(3, System.currentTimeMillis()));          // currentTs
+        return frame.toByteArray();
+    }
+
+    private FeedFrames entry(String instrumentKey, byte[] feed) {
+        ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        writeBytes(entry, message(1, instrumentKey.getBytes(StandardCharsets.UTF_8)));
+        writeBytes(entry, message(2, feed));
+        writeBytes(feeds, message(2, entry.toByteArray()));
+        return this;
+    }
+
+    private static byte[] ltpcBlock(double lastPrice, long lastTradeTime, long lastTradeQuantity) {
+        ByteArrayOutputStream ltpc = new ByteArrayOutputStream();
+        writeBytes(ltpc, doubleField(1, lastPrice));
+        writeBytes(ltpc, varintField(2, lastTradeTime));
+        writeBytes(ltpc, varintField(3, lastTradeQuantity));
+        writeBytes(ltpc, doubleField(4, lastPrice - 1));
+        return ltpc.toByteArray();
+    }
+
+    static byte[] message(int field, byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (long) field << 3 | 2);
+        writeVarint(out, body.length);
+        writeBytes(out, body);
+        return out.toByteArray();
+    }
+
+    static byte[] varintField(int field, long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (long) field << 3);
+        writeVarint(out, value);
+        return out.toByteArray();
+    }
+
+    private static byte[] doubleField(int field, double value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (long) field << 3 | 1);
+        writeBytes(out, ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putDouble(value).array());
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,136 @@
+package com.beartrail.marketdata.client.upstox.feed;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-connection WebSocket server standing in for the Upstox market feed: it completes the opening
+ * handshake, records every binary message the client sends and pushes {@link #send(byte[]) frames} back.
+ */
+final class StubFeedServer implements AutoCloseable {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket serverSocket;
+    private final BlockingQueue<byte[]> received = new ArrayBlockingQueue<>(16);
+    private volatile Socket connection;
+
+    StubFeedServer() throws IOException {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::serve, "stub-feed-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String uri() {
+        return "ws://localhost:" + serverSocket.getLocalPort() + "/feed";
+    }
+
+    /**
+     * @return The next message the client sent, or {@code null} if none arrived in time.
+     */
+    byte[] nextMessage() throws InterruptedException {
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+
+    synchronized void send(byte[] payload) throws IOException {
+        OutputStream out = connection.getOutputStream();
+        out.write(0x82);                                                    // FIN + binary
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length);
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private void serve() {
+        try {
+            Socket socket = serverSocket.accept();
+            handshake(socket);
+            connection = socket;
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            while (true) {
+                int opcode = in.readUnsignedByte() & 0x0F;
+                byte[] payload = readPayload(in);
+                if (opcode == 0x8) {                                        // close
+                    return;
+                }
+                if (opcode == 0x2) {
+                    received.add(payload);
+                }
+            }
+        } catch (IOException e) {
+            // server closed at the end of the test
+        }
+    }
+
+    private static void handshake(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+        String key = null;
+        for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+            if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(':') + 1).trim();
+            }
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+        socket.getOutputStream().write(response.getBytes(StandardCharsets.ISO_8859_1));
+        socket.getOutputStream().flush();
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        int second = in.readUnsignedByte();
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = in.readUnsignedShort();
+        } else if (length == 127) {
+            length = in.readLong();
+        }
+        byte[] mask = new byte[4];
+        if ((second & 0x80) != 0) {
+            in.readFully(mask);
+        }
+        byte[] payload = new byte[(int) length];
+        in.readFully(payload);
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] ^= mask[i % 4];
+        }
+        return payload;
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
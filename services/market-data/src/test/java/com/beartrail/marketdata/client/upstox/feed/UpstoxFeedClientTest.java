@@ -0,0 +1,107 @@
+package com.beartrail.marketdata.client.upstox.feed;
+
+import com.beartrail.marketdata.config.UpstoxConfig;
+import com.beartrail.marketdata.config.UpstoxFeedConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UpstoxFeedClientTest {
+
+    private static final long TRADE_TIME = 1_754_452_800_123L;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private StubFeedServer server;
+    private UpstoxFeedConfig feedConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private UpstoxFeedClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        server = new StubFeedServer();
+        feedConfig = new UpstoxFeedConfig();
+        feedConfig.setUri(server.uri());
+        feedConfig.setSubscribeBatchSize(2);
+        feedConfig.setReconnectInitialBackoff(Duration.ofMillis(100));
+        meterRegistry = new SimpleMeterRegistry();
+        client = new UpstoxFeedClient(new UpstoxConfig(), feedConfig, restTemplate, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.stop();
+        server.close();
+    }
+
+    @Test
+    void start_subscribesInChunksAndDeliversTicks() throws Exception {
+        List<String> ticks = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(2);
+        client.start(List.of("NSE_EQ|INE002A01018", "NSE_EQ|INE009A01021", "NSE_EQ|INE467B01029"), (key, price, time, quantity) -> {
+            ticks.add(key + "@" + price);
+            delivered.countDown();
+        });
+
+        JsonNode first = new ObjectMapper().readTree(server.nextMessage());
+        JsonNode second = new ObjectMapper().readTree(server.nextMessage());
+        assertEquals("sub", first.path("method").asText());
+        assertEquals("ltpc", first.path("data").path("mode").asText());
+        assertEquals(2, first.path("data").path("instrumentKeys").size());
+        assertEquals("NSE_EQ|INE467B01029", second.path("data").path("instrumentKeys").get(0).asText());
+
+        server.send(new FeedFrames()
+                .ltpc("NSE_EQ|INE002A01018", 2850.5, TRADE_TIME, 25)
+                .marketFullFeed("NSE_EQ|INE009A01021", 1500.0, TRADE_TIME, 3)
+                .toBytes());
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("NSE_EQ|INE002A01018@2850.5", "NSE_EQ|INE009A01021@1500.0"), ticks);
+        assertTrue(client.isConnected());
+        verifyNoInteractions(restTemplate);                                 // fixed URI, no authorization call
+    }
+
+    @Test
+    void updateSubscriptions_connected_sendsOnlyTheDifference() throws Exception {
+        client.start(List.of("NSE_EQ|INE002A01018"), (key, price, time, quantity) -> { });
+        assertNotNull(server.nextMessage());
+
+        client.updateSubscriptions(List.of("BSE_EQ|INE467B01029"), List.of("NSE_EQ|INE002A01018"));
+
+        JsonNode unsubscribe = new ObjectMapper().readTree(server.nextMessage());
+        JsonNode subscribe = new ObjectMapper().readTree(server.nextMessage());
+        assertEquals("unsub", unsubscribe.path("method").asText());
+        assertEquals("NSE_EQ|INE002A01018", unsubscribe.path("data").path("instrumentKeys").get(0).asText());
+        assertEquals("sub", subscribe.path("method").asText());
+        assertEquals(1, subscribe.path("data").path("instrumentKeys").size());
+        assertEquals("BSE_EQ|INE467B01029", subscribe.path("data").path("instrumentKeys").get(0).asText());
+    }
+
+    @Test
+    void reconnectDelay_growsExponentiallyUpToMax() {
+        feedConfig.setReconnectInitialBackoff(Duration.ofSeconds(1));
+        feedConfig.setReconnectMaxBackoff(Duration.ofSeconds(30));
+
+        assertEquals(Duration.ofSeconds(1), client.reconnectDelay(0));
+        assertEquals(Duration.ofSeconds(8), client.reconnectDelay(3));
+        assertEquals(Duration.ofSeconds(30), client.reconnectDelay(10));
+        assertEquals(Duration.ofSeconds(30), client.reconnectDelay(1_000));
+    }
+}
@@ -0,0 +1,61 @@
+package com.beartrail.marketdata.client.upstox.feed;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstoxFeedDecoderTest {
+
+    private static final long TRADE_TIME = 1_754_452_800_123L;
+
+    private final List<String> ticks = new ArrayList<>();
+    private final TickListener recorder = (key, price, time, quantity) -> ticks.add(key + "@" + price + "@" + time + "x" + quantity);
+
+    @Test
+    void decode_ltpcFeeds_deliversEveryTick() {
+        byte[] frame = new FeedFrames()
+                .ltpc("NSE_EQ|INE002A01018", 2850.5, TRADE_TIME, 25)
+                .ltpc("NSE_EQ|INE009A01021", 1500.0, TRADE_TIME + 1, 3)
+                .toBytes();
+
+        int decoded = UpstoxFeedDecoder.decode(ByteBuffer.wrap(frame), recorder);
+
+        assertEquals(2, decoded);
+        assertEquals(List.of("NSE_EQ|INE002A01018@2850.5@" + TRADE_TIME + "x25",
+                "NSE_EQ|INE009A01021@1500.0@" + (TRADE_TIME + 1) + "x3"), ticks);
+    }
+
+    @Test
+    void decode_fullFeeds_readsNestedLtpc() {
+        byte[] frame = new FeedFrames()
+                .marketFullFeed("NSE_EQ|INE002A01018", 2851.0, TRADE_TIME, 10)
+                .indexFullFeed("NSE_INDEX|Nifty 50", 24500.25, TRADE_TIME)
+                .toBytes();
+
+        int decoded = UpstoxFeedDecoder.decode(ByteBuffer.wrap(frame), recorder);
+
+        assertEquals(2, decoded);
+        assertEquals(List.of("NSE_EQ|INE002A01018@2851.0@" + TRADE_TIME + "x10",
+                "NSE_INDEX|Nifty 50@24500.25@" + TRADE_TIME + "x0"), ticks);
+    }
+
+    @Test
+    void decode_marketInfoFrame_deliversNothing() {
+        byte[] frame = FeedFrames.message(4, FeedFrames.varintField(1, 1));     // marketInfo only
+
+        assertEquals(0, UpstoxFeedDecoder.decode(ByteBuffer.wrap(frame), recorder));
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void decode_truncatedFrame_throwsIllegalArgumentException() {
+        byte[] frame = new FeedFrames().ltpc("NSE_EQ|INE002A01018", 2850.5, TRADE_TIME, 25).toBytes();
+        ByteBuffer truncated = ByteBuffer.wrap(frame, 0, 12);
+
+        assertThrows(IllegalArgumentException.class, () -> UpstoxFeedDecoder.decode(truncated, recorder));
+    }
+}
@@ -0,0 +1,182 @@
+package com.beartrail.marketdata.controller;
+
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.dto.ChartCandles;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import com.beartrail.marketdata.service.InstrumentRegistry;
+import com.beartrail.marketdata.service.MarketDataService;
+import com.beartrail.marketdata.service.MarketSessionCalendar;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MarketDataControllerTest {
+
+    private static final String TEST_SYMBOL = "RELIANCE";
+    private static final String STORED_SYMBOL = "NSE_EQ:RELIANCE";
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Mock
+    private InstrumentRegistry instrumentRegistry;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        InstrumentTable.Builder instruments = InstrumentTable.builder(2);
+        instruments.add("BSE_EQ", "BSE_EQ|INE002A01018", TEST_SYMBOL, "RELIANCE INDUSTRIES LTD", "500325");
+        instruments.add("NSE_EQ", "NSE_EQ|INE002A01018", TEST_SYMBOL, "RELIANCE INDUSTRIES LTD", "2885");
+        when(instrumentRegistry.instruments()).thenReturn(instruments.build());
+        mockMvc = MockMvcBuilders.standaloneSetup(new MarketDataController(marketDataService, instrumentRegistry,
+                new MarketSessionCalendar(new MarketSessionConfig()), new ObjectMapper())).build();
+        doAnswer(invocation -> {
+            Consumer<CandleDto> consumer = invocation.getArgument(4);
+            consumer.accept(new CandleDto(1_753_833_600_000L, 149.0, 152.0, 148.5, 150.25, 1_000_000L));
+            consumer.accept(new CandleDto(1_753_920_000_000L, 150.25, 151.0, 149.0, 150.5, 900_000L));
+            return 2L;
+        }).when(marketDataService).streamHistoricalMarketData(eq(STORED_SYMBOL), eq(TimeInterval.ONE_DAY), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void getHistory_json_streamsContractShape() throws Exception {
+        MvcResult result = mockMvc.perform(get("/market/history/{symbol}", TEST_SYMBOL)
+                        .param("interval", "1d")
+                        .param("from", "2025-07-30T00:00:00Z")
+                        .param("to", "2025-08-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"symbol\":\"RELIANCE\",\"interval\":\"1d\",\"data\":["
+                        + "{\"timestamp\":\"2025-07-30T00:00:00Z\",\"open\":149.0,\"high\":152.0,\"low\":148.5,\"close\":150.25,\"volume\":1000000},"
+                        + "{\"timestamp\":\"2025-07-31T00:00:00Z\",\"open\":150.25,\"high\":151.0,\"low\":149.0,\"close\":150.5,\"volume\":900000}]}"));
+    }
+
+    @Test
+    void getHistory_ndjson_writesOneCandlePerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/market/history/{symbol}", TEST_SYMBOL)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("interval", "1d")
+                        .param("from", "2025-07-30")
+                        .param("to", "2025-07-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"timestamp\":\"2025-07-30T00:00:00Z\",\"open\":149.0,\"high\":152.0,\"low\":148.5,\"close\":150.25,\"volume\":1000000}\n"
+                        + "{\"timestamp\":\"2025-07-31T00:00:00Z\",\"open\":150.25,\"high\":151.0,\"low\":149.0,\"close\":150.5,\"volume\":900000}\n"));
+    }
+
+    @Test
+    void getChart_returnsCandlesAtServedInterval() throws Exception {
+        MarketData candle = new MarketData();
+        candle.setTimeInterval(TimeInterval.FIVE_MINUTES);
+        candle.setTimestamp(1_753_833_600_000L);
+        candle.setOpenPrice(149.0);
+        candle.setHighPrice(152.0);
+        candle.setLowPrice(148.5);
+        candle.setClosePrice(150.25);
+        candle.setVolume(1_000L);
+        when(marketDataService.getChartCandles(eq(STORED_SYMBOL), eq(TimeInterval.ONE_MINUTE), anyLong(), anyLong()))
+                .thenReturn(new ChartCandles(TimeInterval.FIVE_MINUTES, List.of(candle)));
+
+        MvcResult result = mockMvc.perform(get("/market/chart/{symbol}", TEST_SYMBOL)
+                        .param("from", "2025-07-28")
+                        .param("to", "2025-08-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"symbol\":\"RELIANCE\",\"interval\":\"5m\",\"data\":["
+                        + "{\"timestamp\":\"2025-07-30T00:00:00Z\",\"open\":149.0,\"high\":152.0,\"low\":148.5,\"close\":150.25,\"volume\":1000}]}"));
+    }
+
+    @Test
+    void getChart_emptyRange_reportsRoutedInterval() throws Exception {
+        when(marketDataService.getChartCandles(eq(STORED_SYMBOL), eq(TimeInterval.ONE_MINUTE), anyLong(), anyLong()))
+                .thenReturn(new ChartCandles(TimeInterval.ONE_DAY, List.of()));
+
+        MvcResult result = mockMvc.perform(get("/market/chart/{symbol}", TEST_SYMBOL)
+                        .param("from", "2024-08-01")
+                        .param("to", "2025-08-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"symbol\":\"RELIANCE\",\"interval\":\"1d\",\"data\":[]}"));
+    }
+
+    @Test
+    void getChart_missingPrice_writesNull() throws Exception {
+        MarketData candle = new MarketData();
+        candle.setTimeInterval(TimeInterval.ONE_MINUTE);
+        candle.setTimestamp(1_753_833_600_000L);
+        candle.setClosePrice(150.25);
+        when(marketDataService.getChartCandles(eq(STORED_SYMBOL), eq(TimeInterval.ONE_MINUTE), anyLong(), anyLong()))
+                .thenReturn(new ChartCandles(TimeInterval.ONE_MINUTE, List.of(candle)));
+
+        MvcResult result = mockMvc.perform(get("/market/chart/{symbol}", STORED_SYMBOL)
+                        .param("from", "2025-07-30")
+                        .param("to", "2025-07-30"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"data\":[{\"open\":null,\"high\":null,\"low\":null,\"close\":150.25,\"volume\":null}]}"));
+    }
+
+    @Test
+    void getHistory_invalidInterval_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/market/history/{symbol}", TEST_SYMBOL)
+                        .param("interval", "7m")
+                        .param("from", "2025-07-30")
+                        .param("to", "2025-07-31"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(marketDataService);
+    }
+
+    @Test
+    void getHistory_invertedRange_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/market/history/{symbol}", TEST_SYMBOL)
+                        .param("interval", "1d")
+                        .param("from", "2025-08-01T00:00:00Z")
+                        .param("to", "2025-07-30T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(marketDataService);
+    }
+}
@@ -0,0 +1,135 @@
+package com.beartrail.marketdata.event.consumer;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.repository.CandleBatchWriter;
+import com.beartrail.marketdata.service.MarketDataKafkaProducer;
+import com.beartrail.marketdata.service.impl.MarketDataCacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandlePersistenceListenerTest {
+
+    private static final String TOPIC = "market-data-updates";
+    private static final String TEST_SYMBOL = "NSE_EQ|INE002A01018";
+
+    @Mock
+    private CandleBatchWriter candleBatchWriter;
+    @Mock
+    private MarketDataCacheServiceImpl marketDataCacheService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CandlePersistenceListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new CandlePersistenceListener(candleBatchWriter, marketDataCacheService, meterRegistry);
+    }
+
+    @Test
+    void persist_upsertsPolledBatchThenInvalidatesCache() {
+        listener.persist(List.of(
+                record(event(TEST_SYMBOL, "I1", 1_754_451_660_000L, "100.5")),
+                record(event("NSE_EQ|INE009A01021", "I5", 1_754_451_500_000L, "null"))));
+
+        CandleBatch written = captureWritten();
+        assertEquals(2, written.size());
+        assertEquals(TEST_SYMBOL, written.symbol(0));
+        assertEquals("2885", written.instrumentToken(0));
+        assertEquals(TimeInterval.ONE_MINUTE, written.interval(0));
+        assertEquals(1_754_451_660_000L, written.timestamp(0));
+        assertEquals(100.5, written.closePrice(0));
+        assertEquals(42L, written.volume(0));
+        assertTrue(Double.isNaN(written.closePrice(1)));
+        assertEquals(TimeInterval.FIVE_MINUTES, written.interval(1));
+
+        var order = inOrder(candleBatchWriter, marketDataCacheService);
+        order.verify(candleBatchWriter).upsertAll(any(CandleBatch.class));
+        order.verify(marketDataCacheService).invalidateCache(TEST_SYMBOL, "I1");
+        verify(marketDataCacheService).invalidateCache("NSE_EQ|INE009A01021", "I5");
+    }
+
+    @Test
+    void persist_repeatedCandle_keepsLastUpdateOnly() {
+        listener.persist(List.of(
+                record(event(TEST_SYMBOL, "I1", 1_754_451_660_000L, "100.0")),
+                record(event(TEST_SYMBOL, "I1", 1_754_451_720_000L, "101.0")),
+                record(event(TEST_SYMBOL, "I1", 1_754_451_660_000L, "100.75"))));
+
+        CandleBatch written = captureWritten();
+        assertEquals(2, written.size());
+        assertEquals(1_754_451_720_000L, written.timestamp(0));
+        assertEquals(100.75, written.closePrice(1));
+    }
+
+    @Test
+    void persist_formingLiveCandle_isSkipped() {
+        ConsumerRecord<String, String> forming = record(event(TEST_SYMBOL, "I1", 1_754_451_720_000L, "101.0"));
+        forming.headers().add(new RecordHeader(MarketDataKafkaProducer.FORMING_HEADER, new byte[0]));
+
+        listener.persist(List.of(record(event(TEST_SYMBOL, "I1", 1_754_451_660_000L, "100.0")), forming));
+
+        CandleBatch written = captureWritten();
+        assertEquals(1, written.size());
+        assertEquals(1_754_451_660_000L, written.timestamp(0));
+        assertEquals(0.0, meterRegistry.counter("marketdata.candles.consumer.skipped").count());
+    }
+
+    @Test
+    void persist_undecodableRecords_areSkippedAndCounted() {
+        listener.persist(List.of(
+                record("not json"),
+                record("{\"symbol\":\"" + TEST_SYMBOL + "\",\"timeInterval\":\"I7\",\"timestamp\":1}"),
+                record(event(TEST_SYMBOL, "I1", 1_754_451_660_000L, "100.0"))));
+
+        assertEquals(1, captureWritten().size());
+        assertEquals(2.0, meterRegistry.counter("marketdata.candles.consumer.skipped").count());
+    }
+
+    @Test
+    void persist_nothingDecodable_writesNothing() {
+        listener.persist(List.of(record("[]")));
+
+        verifyNoInteractions(candleBatchWriter);
+        verifyNoInteractions(marketDataCacheService);
+    }
+
+    @Test
+    void persist_writerFails_propagatesSoOffsetsAreNotCommitted() {
+        doThrow(new RuntimeException("DB error")).when(candleBatchWriter).upsertAll(any(CandleBatch.class));
+
+        List<ConsumerRecord<String, String>> records = List.of(record(event(TEST_SYMBOL, "I1", 1_754_451_660_000L, "100.0")));
+
+        assertThrows(RuntimeException.class, () -> listener.persist(records));
+        verifyNoInteractions(marketDataCacheService);
+    }
+
+    private CandleBatch captureWritten() {
+        ArgumentCaptor<CandleBatch> captor = ArgumentCaptor.forClass(CandleBatch.class);
+        verify(candleBatchWriter).upsertAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static ConsumerRecord<String, String> record(String value) {
+        return new ConsumerRecord<>(TOPIC, 0, 0L, TEST_SYMBOL, value);
+    }
+
+    private static String event(String symbol, String interval, long timestamp, String close) {
+        return "{\"symbol\":\"" + symbol + "\",\"instrumentToken\":\"2885\",\"lastPrice\":100.25,\"openPrice\":100.0,"
+                + "\"highPrice\":101.0,\"lowPrice\":99.5,\"closePrice\":" + close + ",\"volume\":42,"
+                + "\"timestamp\":" + timestamp + ",\"timeInterval\":\"" + interval + "\",\"extra\":{\"ignored\":true}}";
+    }
+}
@@ -0,0 +1,89 @@
+package com.beartrail.marketdata.model.batch;
+
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleBatchTest {
+
+    @Test
+    void add_beyondCapacity_growsAndKeepsRows() {
+        CandleBatch batch = new CandleBatch(2);
+        for (int i = 0; i < 5; i++) {
+            batch.add("SYM" + i, TimeInterval.ONE_MINUTE, null, i, 1.0, 1.0, 1.0, 1.0, 100.0 + i, i);
+        }
+
+        assertEquals(5, batch.size());
+        assertEquals("SYM0", batch.symbol(0));
+        assertEquals(104.0, batch.closePrice(4));
+        assertEquals(4L, batch.timestamp(4));
+    }
+
+    @Test
+    void add_rowOfAnotherBatch_copiesEveryColumn() {
+        CandleBatch source = new CandleBatch(2);
+        source.add("SYM0", TimeInterval.ONE_MINUTE, null, 0L, 1.0, 1.0, 1.0, 1.0, 1.0, 1L);
+        source.add("SYM1", TimeInterval.ONE_HOUR, "2885", 60L, 2.0, 3.0, 4.0, 1.5, Double.NaN, 7L);
+        CandleBatch target = new CandleBatch(1);
+
+        target.add(source, 1);
+
+        assertEquals(1, target.size());
+        assertEquals("SYM1", target.symbol(0));
+        assertEquals(TimeInterval.ONE_HOUR, target.interval(0));
+        assertEquals("2885", target.instrumentToken(0));
+        assertEquals(4.0, target.highPrice(0));
+        assertTrue(Double.isNaN(target.closePrice(0)));
+        assertEquals(7L, target.volume(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> target.add(source, 2));
+    }
+
+    @Test
+    void clear_emptiesBatchForReuse() {
+        CandleBatch batch = new CandleBatch(1);
+        batch.add("SYM", TimeInterval.ONE_MINUTE, null, 0L, 1.0, 1.0, 1.0, 1.0, 1.0, 1L);
+
+        batch.clear();
+
+        assertTrue(batch.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.symbol(0));
+    }
+
+    @Test
+    void of_roundTripsThroughMarketDataWithMissingPrices() {
+        MarketData candle = new MarketData();
+        candle.setSymbol("NSE_EQ|INE002A01018");
+        candle.setTimeInterval(TimeInterval.FIVE_MINUTES);
+        candle.setTimestamp(1_754_451_900_000L);
+        candle.setClosePrice(2500.5);
+
+        CandleBatch batch = CandleBatch.of(List.of(candle));
+
+        assertTrue(Double.isNaN(batch.lastPrice(0)));
+        assertEquals(0L, batch.volume(0));
+        MarketData copy = batch.toMarketData(0);
+        assertNull(copy.getLastPrice());
+        assertEquals(2500.5, copy.getClosePrice());
+        assertEquals(TimeInterval.FIVE_MINUTES, copy.getTimeInterval());
+    }
+
+    @Test
+    void of_candleWithoutTimestamp_isSkipped() {
+        MarketData unkeyed = new MarketData();
+        unkeyed.setSymbol("NSE_EQ:RELIANCE");
+        unkeyed.setTimeInterval(TimeInterval.ONE_MINUTE);
+        MarketData keyed = new MarketData();
+        keyed.setSymbol("NSE_EQ:TCS");
+        keyed.setTimeInterval(TimeInterval.ONE_MINUTE);
+        keyed.setTimestamp(1_754_451_900_000L);
+
+        CandleBatch batch = CandleBatch.of(List.of(unkeyed, keyed));
+
+        assertEquals(1, batch.size());
+        assertEquals("NSE_EQ:TCS", batch.symbol(0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.beartrail.marketdata.repository;
+
+import com.beartrail.marketdata.config.CandlePersistenceConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.service.CandlePartitionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandleBatchWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<CandlePartitionManager> partitionManager;
+
+    private MeterRegistry meterRegistry;
+    private CandleBatchWriter candleBatchWriter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        CandlePersistenceConfig config = new CandlePersistenceConfig();
+        config.setBatchSize(2);
+        candleBatchWriter = new CandleBatchWriter(jdbcTemplate, partitionManager, config, meterRegistry);
+    }
+
+    @Test
+    void upsertAll_splitsIntoMultiRowStatements() {
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenReturn(2, 2, 1);
+
+        int written = candleBatchWriter.upsertAll(candles(5));
+
+        assertEquals(5, written);
+        verify(jdbcTemplate, times(2)).update(eq(CandleBatchWriter.upsertSql(2)), any(PreparedStatementSetter.class));
+        verify(jdbcTemplate, times(1)).update(eq(CandleBatchWriter.upsertSql(1)), any(PreparedStatementSetter.class));
+        assertEquals(5.0, meterRegistry.get("marketdata.candles.persisted").counter().count());
+        assertEquals(1L, meterRegistry.get("marketdata.candles.persist.throughput").summary().count());
+    }
+
+    @Test
+    void upsertAll_emptyList_noStatements() {
+        assertEquals(0, candleBatchWriter.upsertAll(List.of()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void upsertAll_candleBatch_bindsPrimitivesAndNullsMissingPrices() throws Exception {
+        CandleBatch batch = new CandleBatch(1);
+        batch.add("NSE_EQ|SYM0", TimeInterval.ONE_MINUTE, "738561", 1_754_451_660_000L, Double.NaN, 100.0, 101.0, 99.0, 100.5, 42L);
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        when(jdbcTemplate.update(eq(CandleBatchWriter.upsertSql(1)), setter.capture())).thenReturn(1);
+
+        assertEquals(1, candleBatchWriter.upsertAll(batch));
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps);
+        verify(ps).setString(2, "ONE_MINUTE");
+        verify(ps).setLong(3, 1_754_451_660_000L);
+        verify(ps).setNull(5, Types.DOUBLE);
+        verify(ps).setDouble(9, 100.5);
+        verify(ps).setLong(10, 42L);
+    }
+
+    @Test
+    void upsertAll_ensuresPartitionsBeforeInserting() {
+        CandlePartitionManager manager = mock(CandlePartitionManager.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<CandlePartitionManager>>getArgument(0).accept(manager);
+            return null;
+        }).when(partitionManager).ifAvailable(any());
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenReturn(1);
+
+        candleBatchWriter.upsertAll(candles(1));
+
+        InOrder order = inOrder(manager, jdbcTemplate);
+        order.verify(manager).ensurePartitions(any(CandleBatch.class));
+        order.verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void upsertSql_containsOneValuesTuplePerRowAndConflictClause() {
+        String sql = CandleBatchWriter.upsertSql(3);
+        assertEquals(3, sql.split("\\(\\?, \\?, \\?, \\?, \\?, \\?, \\?, \\?, \\?, \\?\\)", -1).length - 1);
+        assertTrue(sql.contains("ON CONFLICT (symbol, time_interval, bucket_start) DO UPDATE"));
+    }
+
+    @Test
+    void constructor_batchSizeExceedingBindLimit_throws() {
+        CandlePersistenceConfig config = new CandlePersistenceConfig();
+        config.setBatchSize(7_000);
+        assertThrows(IllegalArgumentException.class, () -> new CandleBatchWriter(jdbcTemplate, partitionManager, config, meterRegistry));
+    }
+
+    private static List<MarketData> candles(int count) {
+        List<MarketData> candles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MarketData marketData = new MarketData();
+            marketData.setSymbol("NSE_EQ|SYM" + i);
+            marketData.setTimeInterval(TimeInterval.ONE_MINUTE);
+            marketData.setClosePrice(100.0 + i);
+            marketData.setTimestamp(1_754_451_660_000L);
+            candles.add(marketData);
+        }
+        return candles;
+    }
+}
@@ -0,0 +1,99 @@
+package com.beartrail.marketdata.repository;
+
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandleHistoryRepositoryTest {
+
+    private static final String TEST_SYMBOL = "RELIANCE";
+    private static final long MINUTE = 60_000L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CandleHistoryRepository candleHistoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        candleHistoryRepository = new CandleHistoryRepository(jdbcTemplate);
+    }
+
+    @Test
+    void streamRange_walksKeysetPagesUntilShortPage() throws Exception {
+        long from = 0;
+        long to = 10 * MINUTE;
+        // five stored candles, one per minute
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            long cursor = invocation.getArgument(4);
+            int limit = invocation.getArgument(6);
+            int rows = 0;
+            for (long ts = 0; ts < 5 * MINUTE && rows < limit; ts += MINUTE) {
+                if (ts >= cursor) {
+                    handler.processRow(row(ts));
+                    rows++;
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq(CandleHistoryRepository.PAGE_SQL), any(RowCallbackHandler.class),
+                eq(TEST_SYMBOL), eq("ONE_MINUTE"), anyLong(), eq(to), eq(2));
+
+        List<Long> timestamps = new ArrayList<>();
+        long emitted = candleHistoryRepository.streamRange(TEST_SYMBOL, TimeInterval.ONE_MINUTE, from, to, 2,
+                candle -> timestamps.add(candle.getTimestamp()));
+
+        assertEquals(5, emitted);
+        assertEquals(List.of(0L, MINUTE, 2 * MINUTE, 3 * MINUTE, 4 * MINUTE), timestamps);
+        verify(jdbcTemplate).query(eq(CandleHistoryRepository.PAGE_SQL), any(RowCallbackHandler.class),
+                eq(TEST_SYMBOL), eq("ONE_MINUTE"), eq(3 * MINUTE + 1), eq(to), eq(2));
+        verify(jdbcTemplate, times(3)).query(eq(CandleHistoryRepository.PAGE_SQL), any(RowCallbackHandler.class),
+                eq(TEST_SYMBOL), eq("ONE_MINUTE"), anyLong(), eq(to), eq(2));
+    }
+
+    @Test
+    void streamRange_nullPrices_stayNull() throws Exception {
+        ResultSet rs = row(0);
+        when(rs.getObject(2, Double.class)).thenReturn(null);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(eq(CandleHistoryRepository.PAGE_SQL), any(RowCallbackHandler.class),
+                eq(TEST_SYMBOL), eq("ONE_MINUTE"), anyLong(), anyLong(), anyInt());
+        List<CandleDto> candles = new ArrayList<>();
+
+        candleHistoryRepository.streamRange(TEST_SYMBOL, TimeInterval.ONE_MINUTE, 0, MINUTE, 100, candles::add);
+
+        assertNull(candles.get(0).getOpen());
+        assertEquals(100.0, candles.get(0).getClose());
+        assertNull(candles.get(0).getVolume());
+    }
+
+    @Test
+    void streamRange_emptyRange_emitsNothing() {
+        List<CandleDto> candles = new ArrayList<>();
+        assertEquals(0, candleHistoryRepository.streamRange(TEST_SYMBOL, TimeInterval.ONE_DAY, 0, MINUTE, 100, candles::add));
+        assertTrue(candles.isEmpty());
+    }
+
+    private static ResultSet row(long timestamp) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(timestamp);
+        when(rs.getObject(2, Double.class)).thenReturn(99.0);
+        when(rs.getObject(5, Double.class)).thenReturn(100.0);
+        return rs;
+    }
+}
@@ -0,0 +1,101 @@
+package com.beartrail.marketdata.repository.archive;
+
+import com.beartrail.marketdata.config.CandleArchiveConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleArchiveTest {
+
+    private static final String SYMBOL = "NSE_EQ|INE002A01018";
+    private static final long DAY = 86_400_000L;
+    private static final long T0 = 1_577_817_000_000L;                  // 2020-01-01 00:00 IST
+
+    @TempDir
+    Path dir;
+
+    private CandleArchiveConfig config;
+    private CandleArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        config = new CandleArchiveConfig();
+        config.setEnabled(true);
+        config.setDirectory(dir.toString());
+        config.setBlockRows(3);
+        archive = new CandleArchive(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    @Test
+    void read_rangeAcrossBlocks_returnsRowsInPlace() {
+        assertEquals(7, archive.append(SYMBOL, TimeInterval.ONE_DAY, days(0, 7)));
+
+        CandleArchiveSlice slice = archive.read(SYMBOL, TimeInterval.ONE_DAY, T0 + 2 * DAY, T0 + 5 * DAY);
+
+        assertEquals(3, slice.size());
+        assertEquals(T0 + 2 * DAY, slice.timestamp(0));
+        assertEquals(T0 + 4 * DAY, slice.timestamp(2));
+        assertEquals(102.25, slice.close(0));
+        assertEquals(103.5, slice.high(1));
+        assertEquals(1_004L, slice.volume(2));
+        assertEquals(T0 + 6 * DAY + 1, archive.end(SYMBOL, TimeInterval.ONE_DAY));
+    }
+
+    @Test
+    void append_overlappingRows_skipsAlreadyArchived() {
+        archive.append(SYMBOL, TimeInterval.ONE_DAY, days(0, 4));
+
+        assertEquals(2, archive.append(SYMBOL, TimeInterval.ONE_DAY, days(2, 6)));
+        assertEquals(6, archive.read(SYMBOL, TimeInterval.ONE_DAY, T0, T0 + 10 * DAY).size());
+    }
+
+    @Test
+    void reopen_readsCommittedBlocksAndAbsentPrices() {
+        CandleBatch candles = days(0, 2);
+        candles.add(SYMBOL, TimeInterval.ONE_DAY, null, T0 + 40 * DAY, Double.NaN, Double.NaN, 200, 190, 195, 0);   // gap > int offset
+        archive.append(SYMBOL, TimeInterval.ONE_DAY, candles);
+        archive.close();
+
+        CandleArchive reopened = new CandleArchive(config);
+        CandleArchiveSlice slice = reopened.read(SYMBOL, TimeInterval.ONE_DAY, T0, T0 + 41 * DAY);
+
+        assertEquals(3, slice.size());
+        assertEquals(T0 + 40 * DAY, slice.timestamp(2));
+        assertTrue(Double.isNaN(slice.open(2)));
+        assertNull(slice.toMarketData(2, SYMBOL, TimeInterval.ONE_DAY).getOpenPrice());
+        assertEquals(195.0, slice.toMarketData(2, SYMBOL, TimeInterval.ONE_DAY).getLastPrice());
+        reopened.close();
+    }
+
+    @Test
+    void disabled_holdsNothing() {
+        config.setEnabled(false);
+
+        assertEquals(0, archive.append(SYMBOL, TimeInterval.ONE_DAY, days(0, 3)));
+        assertEquals(Long.MIN_VALUE, archive.end(SYMBOL, TimeInterval.ONE_DAY));
+        assertTrue(archive.read(SYMBOL, TimeInterval.ONE_DAY, T0, T0 + DAY).isEmpty());
+        assertFalse(Files.exists(archive.pathOf(SYMBOL, TimeInterval.ONE_DAY)));
+    }
+
+    private static CandleBatch days(int from, int to) {
+        CandleBatch candles = new CandleBatch(to - from);
+        for (int day = from; day < to; day++) {
+            candles.add(SYMBOL, TimeInterval.ONE_DAY, null, T0 + day * DAY, 100 + day + 0.25,
+                    100 + day, 100 + day + 0.5, 100 + day - 0.5, 100 + day + 0.25, 1_000 + day);
+        }
+        return candles;
+    }
+}
@@ -0,0 +1,79 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.CandleArchiveConfig;
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.repository.CandleHistoryRepository;
+import com.beartrail.marketdata.repository.archive.CandleArchive;
+import com.beartrail.marketdata.repository.archive.CandleArchiveSlice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandleArchiverTest {
+
+    private static final String SYMBOL = "NSE_EQ:RELIANCE";
+    private static final long DAY = 86_400_000L;
+    private static final long T0 = 1_577_817_000_000L;                  // 2020-01-01 00:00 IST
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private CandleHistoryRepository candleHistoryRepository;
+
+    private CandleArchive archive;
+    private CandleArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        CandleArchiveConfig config = new CandleArchiveConfig();
+        config.setEnabled(true);
+        config.setDirectory(dir.toString());
+        config.setBlockRows(2);
+        archive = new CandleArchive(config);
+        archiver = new CandleArchiver(candleHistoryRepository, archive, config, Clock.fixed(Instant.ofEpochMilli(T0 + 30 * DAY), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    @Test
+    void archive_nullPrices_roundTripAsAbsent() {
+        doAnswer(invocation -> {
+            Consumer<CandleDto> consumer = invocation.getArgument(5);
+            consumer.accept(new CandleDto(T0, 100.0, 102.0, 99.5, 101.25, 1_000L));
+            consumer.accept(new CandleDto(T0 + DAY, null, null, null, 101.5, null));
+            consumer.accept(new CandleDto(T0 + 2 * DAY, 101.5, 103.0, 101.0, 102.75, 900L));
+            return 3L;
+        }).when(candleHistoryRepository).streamRange(eq(SYMBOL), eq(TimeInterval.ONE_DAY), anyLong(), anyLong(), anyInt(), any());
+
+        assertEquals(3, archiver.archive(SYMBOL, TimeInterval.ONE_DAY, T0 + 10 * DAY));
+
+        CandleArchiveSlice slice = archive.read(SYMBOL, TimeInterval.ONE_DAY, T0, T0 + 10 * DAY);
+        assertEquals(3, slice.size());
+        CandleDto gap = slice.toCandleDto(1);
+        assertNull(gap.getOpen());
+        assertNull(gap.getHigh());
+        assertNull(gap.getLow());
+        assertEquals(101.5, gap.getClose());
+        assertEquals(0L, gap.getVolume());                                  // volumes are not nullable in the archive
+        assertEquals(100.0, slice.toCandleDto(0).getOpen());
+        assertNull(slice.toMarketData(1, SYMBOL, TimeInterval.ONE_DAY).getOpenPrice());
+    }
+}
@@ -0,0 +1,79 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.beartrail.marketdata.service.CandleBuckets.MINUTE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleChangeFilterTest {
+
+    private static final long T0 = 1_754_451_660_000L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CandleChangeFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new CandleChangeFilter(meterRegistry);
+    }
+
+    @Test
+    void changed_firstSighting_passesWholeBatchThrough() {
+        CandleBatch batch = batch(T0, "A", 100, 10, "B", 200, 5);
+
+        assertSame(batch, filter.changed(batch));
+    }
+
+    @Test
+    void changed_repeatedAndFlatCandles_dropped() {
+        filter.changed(batch(T0, "A", 100, 10, "B", 200, 0, "C", 300, 7));
+
+        CandleBatch next = filter.changed(batch(T0 + MINUTE, "A", 100, 10, "B", 200, 0, "C", 301, 7));
+        CandleBatch repeat = filter.changed(batch(T0 + MINUTE, "A", 100, 10, "B", 200, 0, "C", 301, 7));
+
+        assertEquals(List.of("A", "C"), symbols(next));       // A traded again at the same prices; B had no trades
+        assertTrue(repeat.isEmpty());
+        assertEquals(5, meterRegistry.counter("marketdata.candles.changed", "interval", "I1").count());
+        assertEquals(4, meterRegistry.counter("marketdata.candles.unchanged", "interval", "I1").count());
+        assertEquals(0.0, meterRegistry.get("marketdata.candles.changed.ratio").tag("interval", "I1").gauge().value());
+    }
+
+    @Test
+    void changed_manyInstruments_keepsStateAcrossGrowth() {
+        CandleBatch first = new CandleBatch(5000);
+        CandleBatch second = new CandleBatch(5000);
+        for (int i = 0; i < 5000; i++) {
+            first.add("NSE_EQ|" + i, TimeInterval.ONE_MINUTE, null, T0, i, i, i, i, i, 1);
+            second.add("NSE_EQ|" + i, TimeInterval.ONE_MINUTE, null, T0, i, i, i, i, i % 2 == 0 ? i : i + 1, 1);
+        }
+
+        assertSame(first, filter.changed(first));
+        assertEquals(2500, filter.changed(second).size());
+    }
+
+    private static CandleBatch batch(long timestamp, Object... symbolPriceVolume) {
+        CandleBatch batch = new CandleBatch(symbolPriceVolume.length / 3);
+        for (int i = 0; i < symbolPriceVolume.length; i += 3) {
+            double price = ((Number) symbolPriceVolume[i + 1]).doubleValue();
+            long volume = ((Number) symbolPriceVolume[i + 2]).longValue();
+            batch.add((String) symbolPriceVolume[i], TimeInterval.ONE_MINUTE, null, timestamp, price, price, price, price, price, volume);
+        }
+        return batch;
+    }
+
+    private static List<String> symbols(CandleBatch batch) {
+        List<String> symbols = new ArrayList<>();
+        for (int row = 0; row < batch.size(); row++) {
+            symbols.add(batch.symbol(row));
+        }
+        return symbols;
+    }
+}
@@ -0,0 +1,113 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.CandlePartitionConfig;
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandlePartitionManagerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 8, 6);
+    private static final ZoneId ZONE = new MarketSessionConfig().getZone();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CandlePartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Clock clock = Clock.fixed(ZonedDateTime.of(TODAY.atTime(10, 0), ZONE).toInstant(), ZONE);
+        partitionManager = new CandlePartitionManager(jdbcTemplate, new CandlePartitionConfig(), TransactionOperations.withoutTransaction(), clock);
+    }
+
+    @Test
+    void createPartitions_oneMinute_createsDailyPartitionsFromYesterdayToDaysAhead() {
+        partitionManager.createPartitions(TimeInterval.ONE_MINUTE, TODAY);
+
+        verify(jdbcTemplate, times(5)).execute(startsWith("CREATE TABLE IF NOT EXISTS candles_one_minute_p"));
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS candles_one_minute_p20250806 PARTITION OF candles_one_minute "
+                + "FOR VALUES FROM (1754418600000) TO (1754505000000)");
+    }
+
+    @Test
+    void createPartitions_oneDay_createsYearlyPartition() {
+        partitionManager.createPartitions(TimeInterval.ONE_DAY, TODAY);
+
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE IF NOT EXISTS candles_one_day_p2025 "));
+    }
+
+    @Test
+    void ensurePartitions_backfill_createsMissingPartitionOnce() {
+        long backfill = ZonedDateTime.of(LocalDate.of(2025, 6, 2).atTime(9, 15), ZONE).toInstant().toEpochMilli();
+        CandleBatch batch = new CandleBatch(3);
+        batch.add("NSE_EQ:RELIANCE", TimeInterval.ONE_MINUTE, null, backfill, 1.0, 1.0, 1.0, 1.0, 1.0, 1L);
+        batch.add("NSE_EQ:RELIANCE", TimeInterval.ONE_MINUTE, null, backfill + 60_000L, 1.0, 1.0, 1.0, 1.0, 1.0, 1L);
+        batch.add("NSE_EQ:RELIANCE", TimeInterval.ONE_HOUR, null, backfill, 1.0, 1.0, 1.0, 1.0, 1.0, 1L);
+
+        partitionManager.ensurePartitions(batch);
+        partitionManager.ensurePartitions(batch);
+
+        verify(jdbcTemplate, times(1)).execute("CREATE TABLE IF NOT EXISTS candles_one_minute_p20250602 PARTITION OF candles_one_minute "
+                + "FOR VALUES FROM (1748802600000) TO (1748889000000)");
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE IF NOT EXISTS candles_one_hour_p202506 "));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void ensurePartitions_preCreatedPartition_noStatement() {
+        partitionManager.createPartitions(TimeInterval.ONE_MINUTE, TODAY);
+        clearInvocations(jdbcTemplate);
+        CandleBatch batch = new CandleBatch(1);
+        batch.add("NSE_EQ:RELIANCE", TimeInterval.ONE_MINUTE, null, partitionManager.epochMillis(TODAY) + 60_000L,
+                1.0, 1.0, 1.0, 1.0, 1.0, 1L);
+
+        partitionManager.ensurePartitions(batch);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void dropExpiredPartitions_dropsOnlyPartitionsPastRetention() {
+        when(jdbcTemplate.queryForList(CandlePartitionManager.CHILD_PARTITIONS_SQL, String.class, "candles_one_minute"))
+                .thenReturn(List.of("candles_one_minute_p20250705", "candles_one_minute_p20250707", "candles_one_minute_default"));
+
+        partitionManager.dropExpiredPartitions(TimeInterval.ONE_MINUTE, TODAY);
+
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS candles_one_minute_p20250705");
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS candles_one_minute_p20250707");
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS candles_one_minute_default");
+    }
+
+    @Test
+    void maintainPartitions_coversEveryInterval() {
+        partitionManager.maintainPartitions();
+
+        for (TimeInterval interval : TimeInterval.values()) {
+            verify(jdbcTemplate).queryForList(CandlePartitionManager.CHILD_PARTITIONS_SQL, String.class,
+                    CandlePartitionManager.parentTable(interval));
+        }
+    }
+
+    @Test
+    void partitionName_usesIntervalGranularity() {
+        assertEquals("candles_one_hour_p202508", CandlePartitionManager.partitionName(TimeInterval.ONE_HOUR, TODAY.withDayOfMonth(1)));
+        assertEquals("candles_one_week_p2025", CandlePartitionManager.partitionName(TimeInterval.ONE_WEEK, TODAY.withDayOfYear(1)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.CandleArchiveConfig;
+import com.beartrail.marketdata.config.CandlePartitionConfig;
+import com.beartrail.marketdata.config.MarketDataQueryConfig;
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.beartrail.marketdata.service.CandleBuckets.MINUTE;
+import static com.beartrail.marketdata.service.MarketSessionCalendarTest.ist;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleQueryRouterTest {
+
+    private MarketDataQueryConfig queryConfig;
+    private CandleArchiveConfig archiveConfig;
+    private CandleQueryRouter router;
+
+    @BeforeEach
+    void setUp() {
+        queryConfig = new MarketDataQueryConfig();
+        archiveConfig = new CandleArchiveConfig();
+        MarketSessionCalendar calendar = new MarketSessionCalendar(new MarketSessionConfig());
+        Clock clock = Clock.fixed(Instant.parse("2025-08-08T12:00:00Z"), ZoneOffset.UTC);
+        router = new CandleQueryRouter(queryConfig, new CandlePartitionConfig(), archiveConfig, calendar,
+                new CandleBuckets(calendar), clock);
+    }
+
+    @Test
+    void route_coarsensToFitPointBudget() {
+        assertEquals(direct(TimeInterval.ONE_MINUTE), router.route(TimeInterval.ONE_MINUTE, ist("2025-08-06T00:00"), ist("2025-08-07T00:00")));
+        assertEquals(direct(TimeInterval.FIVE_MINUTES), router.route(TimeInterval.ONE_MINUTE, ist("2025-08-04T00:00"), ist("2025-08-09T00:00")));
+        assertEquals(direct(TimeInterval.THIRTY_MINUTES), router.route(TimeInterval.ONE_MINUTE, ist("2025-07-01T00:00"), ist("2025-08-01T00:00")));
+        assertEquals(direct(TimeInterval.ONE_DAY), router.route(TimeInterval.ONE_MINUTE, ist("2024-08-01T00:00"), ist("2025-08-01T00:00")));
+    }
+
+    @Test
+    void route_requestedIntervalIsTheFinestServed() {
+        assertEquals(direct(TimeInterval.ONE_DAY), router.route(TimeInterval.ONE_DAY, ist("2025-08-06T00:00"), ist("2025-08-07T00:00")));
+    }
+
+    @Test
+    void route_rangeOlderThanRetention_usesCoarserStoredInterval() {
+        long from = ist("2025-06-02T00:00");                                    // past one-minute retention
+        assertEquals(direct(TimeInterval.FIVE_MINUTES), router.route(TimeInterval.ONE_MINUTE, from, from + CandleBuckets.DAY));
+
+        long yearsAgo = ist("2023-08-01T00:00");
+        assertEquals(direct(TimeInterval.ONE_DAY), router.route(TimeInterval.ONE_HOUR, yearsAgo, yearsAgo + CandleBuckets.DAY));
+        archiveConfig.setEnabled(true);                                         // archived hourly candles outlive retention
+        assertEquals(direct(TimeInterval.ONE_HOUR), router.route(TimeInterval.ONE_HOUR, yearsAgo, yearsAgo + CandleBuckets.DAY));
+    }
+
+    @Test
+    void route_intervalNotStored_rollsUpFromCoarsestFinerOne() {
+        queryConfig.getStoredIntervals().remove(TimeInterval.FIFTEEN_MINUTES);
+
+        CandleQueryRouter.Route route = router.route(TimeInterval.FIFTEEN_MINUTES, ist("2025-08-06T00:00"), ist("2025-08-07T00:00"));
+
+        assertEquals(new CandleQueryRouter.Route(TimeInterval.FIFTEEN_MINUTES, TimeInterval.FIVE_MINUTES), route);
+        assertTrue(route.rollsUp());
+    }
+
+    @Test
+    void rollUp_foldsFinerCandlesIntoSessionAnchoredBuckets() {
+        long open = ist("2025-08-06T09:15");
+        List<MarketData> minutes = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            minutes.add(candle(open + i * MINUTE, 100 + i));
+        }
+
+        List<MarketData> rolled = router.rollUp(minutes, TimeInterval.FIVE_MINUTES);
+
+        assertEquals(2, rolled.size());
+        MarketData first = rolled.get(0);
+        assertEquals(open, first.getTimestamp());
+        assertEquals(TimeInterval.FIVE_MINUTES, first.getTimeInterval());
+        assertEquals(100.0, first.getOpenPrice());
+        assertEquals(105.0, first.getHighPrice());
+        assertEquals(99.0, first.getLowPrice());
+        assertEquals(104.5, first.getClosePrice());
+        assertEquals(50L, first.getVolume());
+        assertEquals(open + 5 * MINUTE, rolled.get(1).getTimestamp());
+        assertEquals(20L, rolled.get(1).getVolume());
+    }
+
+    private static CandleQueryRouter.Route direct(TimeInterval interval) {
+        return new CandleQueryRouter.Route(interval, interval);
+    }
+
+    private static MarketData candle(long timestamp, double open) {
+        MarketData candle = new MarketData();
+        candle.setSymbol("RELIANCE");
+        candle.setTimeInterval(TimeInterval.ONE_MINUTE);
+        candle.setTimestamp(timestamp);
+        candle.setOpenPrice(open);
+        candle.setHighPrice(open + 1);
+        candle.setLowPrice(open - 1);
+        candle.setClosePrice(open + 0.5);
+        candle.setVolume(10L);
+        return candle;
+    }
+}
@@ -0,0 +1,163 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.beartrail.marketdata.service.CandleBuckets.MINUTE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleRollupEngineTest {
+
+    private static final String TEST_SYMBOL = "NSE_EQ|INE002A01018";
+    private static final long SESSION_OPEN = Instant.parse("2025-08-06T03:45:00Z").toEpochMilli();    // Wed 09:15 IST
+    private static final long SESSION_CLOSE = Instant.parse("2025-08-06T10:00:00Z").toEpochMilli();   // Wed 15:30 IST
+
+    private CandleBuckets buckets;
+    private CandleRollupEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        buckets = new CandleBuckets(new MarketSessionCalendar(new MarketSessionConfig()));
+        engine = new CandleRollupEngine(buckets);
+    }
+
+    @Test
+    void accept_fiveMinutes_emitsBarWhenBucketCloses() {
+        List<MarketData> completed = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            completed.addAll(accept(candle(SESSION_OPEN + i * MINUTE, 100 + i, 10)));
+        }
+        assertTrue(completed.isEmpty());
+
+        completed.addAll(accept(candle(SESSION_OPEN + 4 * MINUTE, 99, 10)));
+
+        MarketData bar = only(completed, TimeInterval.FIVE_MINUTES);
+        assertEquals(SESSION_OPEN, bar.getTimestamp());
+        assertEquals(100.0, bar.getOpenPrice());
+        assertEquals(104.0, bar.getHighPrice());     // candle high is close + 1
+        assertEquals(98.0, bar.getLowPrice());       // candle low is close - 1
+        assertEquals(99.0, bar.getClosePrice());
+        assertEquals(50L, bar.getVolume());
+    }
+
+    @Test
+    void accept_lastMinuteOfSession_closesIntradayAndDailyBars() {
+        accept(candle(SESSION_OPEN, 100, 10));
+        List<MarketData> completed = accept(candle(SESSION_CLOSE - MINUTE, 101, 5));
+
+        MarketData daily = only(completed, TimeInterval.ONE_DAY);
+        assertEquals(buckets.dayStart(SESSION_OPEN), daily.getTimestamp());
+        assertEquals(15L, daily.getVolume());
+        long lastHour = Instant.parse("2025-08-06T09:45:00Z").toEpochMilli();   // 15:15 IST, cut short at 15:30
+        assertTrue(completed.stream().anyMatch(bar -> bar.getTimeInterval() == TimeInterval.ONE_HOUR && bar.getTimestamp() == lastHour));
+        assertTrue(completed.stream().noneMatch(bar -> bar.getTimeInterval() == TimeInterval.ONE_WEEK));
+    }
+
+    @Test
+    void accept_duplicateMinute_isNotCountedTwice() {
+        accept(candle(SESSION_OPEN, 100, 10));
+        accept(candle(SESSION_OPEN, 100, 10));
+        List<MarketData> completed = flush(SESSION_CLOSE);
+
+        assertEquals(10L, only(completed, TimeInterval.ONE_DAY).getVolume());
+    }
+
+    @Test
+    void accept_stragglerAfterClose_doesNotReemitBar() {
+        accept(candle(SESSION_CLOSE - MINUTE, 100, 10));
+        List<MarketData> completed = accept(candle(SESSION_CLOSE, 100, 10));
+
+        assertTrue(completed.stream().noneMatch(bar -> bar.getTimeInterval() == TimeInterval.ONE_DAY));
+    }
+
+    @Test
+    void accept_gapIntoLaterBucket_emitsPartialBar() {
+        accept(candle(SESSION_OPEN, 100, 10));
+        List<MarketData> completed = accept(candle(SESSION_OPEN + 7 * MINUTE, 101, 10));
+
+        MarketData bar = only(completed, TimeInterval.FIVE_MINUTES);
+        assertEquals(SESSION_OPEN, bar.getTimestamp());
+        assertEquals(10L, bar.getVolume());
+    }
+
+    @Test
+    void flushCompleted_emitsOnlyBucketsPastClose() {
+        accept(candle(SESSION_OPEN, 100, 10));
+
+        List<MarketData> completed = flush(SESSION_OPEN + 5 * MINUTE);
+
+        assertEquals(List.of(TimeInterval.FIVE_MINUTES),
+                completed.stream().map(MarketData::getTimeInterval).toList());
+        assertTrue(flush(SESSION_OPEN + 5 * MINUTE).isEmpty());
+    }
+
+    @Test
+    void bucketStart_alignsToSessionOpenDayAndMonday() {
+        long t = SESSION_OPEN + 70 * MINUTE;       // 10:25 IST
+        assertEquals(SESSION_OPEN + 60 * MINUTE, buckets.bucketStart(TimeInterval.ONE_HOUR, t));
+        assertEquals(Instant.parse("2025-08-05T18:30:00Z").toEpochMilli(), buckets.bucketStart(TimeInterval.ONE_DAY, t));
+        assertEquals(Instant.parse("2025-08-03T18:30:00Z").toEpochMilli(), buckets.bucketStart(TimeInterval.ONE_WEEK, t));
+    }
+
+    @Test
+    void bucketStart_specialSession_anchorsAtItsOpenAndClosesAtItsClose() {
+        MarketSessionConfig.SpecialSession muhurat = new MarketSessionConfig.SpecialSession();
+        muhurat.setDate(LocalDate.of(2025, 10, 21));
+        muhurat.setOpen(LocalTime.of(13, 45));
+        muhurat.setClose(LocalTime.of(14, 45));
+        MarketSessionConfig config = new MarketSessionConfig();
+        config.getSpecialSessions().add(muhurat);
+        CandleBuckets special = new CandleBuckets(new MarketSessionCalendar(config));
+
+        long open = Instant.parse("2025-10-21T08:15:00Z").toEpochMilli();          // 13:45 IST
+        long bucket = special.bucketStart(TimeInterval.THIRTY_MINUTES, open + 40 * MINUTE);
+        assertEquals(open + 30 * MINUTE, bucket);
+        assertEquals(open + 60 * MINUTE, special.bucketClose(TimeInterval.FOUR_HOURS, open));
+    }
+
+    private List<MarketData> accept(MarketData candle) {
+        return rows(engine.accept(CandleBatch.of(List.of(candle))));
+    }
+
+    private List<MarketData> flush(long now) {
+        return rows(engine.flushCompleted(now));
+    }
+
+    private static List<MarketData> rows(CandleBatch batch) {
+        List<MarketData> rows = new ArrayList<>(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            rows.add(batch.toMarketData(row));
+        }
+        return rows;
+    }
+
+    private static MarketData only(List<MarketData> bars, TimeInterval interval) {
+        List<MarketData> matching = bars.stream().filter(bar -> bar.getTimeInterval() == interval).toList();
+        assertEquals(1, matching.size(), "expected one " + interval + " bar in " + bars);
+        return matching.get(0);
+    }
+
+    private static MarketData candle(long timestamp, double close, long volume) {
+        MarketData marketData = new MarketData();
+        marketData.setSymbol(TEST_SYMBOL);
+        marketData.setTimeInterval(TimeInterval.ONE_MINUTE);
+        marketData.setTimestamp(timestamp);
+        marketData.setOpenPrice(close);
+        marketData.setHighPrice(close + 1);
+        marketData.setLowPrice(close - 1);
+        marketData.setClosePrice(close);
+        marketData.setLastPrice(close);
+        marketData.setVolume(volume);
+        return marketData;
+    }
+}
@@ -0,0 +1,106 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.CandleSchedulerConfig;
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandleUpdateSchedulerTest {
+
+    private static final long WED_10_00_30 = Instant.parse("2025-08-06T04:30:30Z").toEpochMilli();   // IST = UTC+05:30
+
+    @Mock
+    private CandleUpdateService candleUpdateService;
+    @Mock
+    private Clock clock;
+
+    private CandleSchedulerConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private CandleUpdateScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new CandleSchedulerConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        MarketSessionCalendar calendar = new MarketSessionCalendar(new MarketSessionConfig());
+        scheduler = new CandleUpdateScheduler(candleUpdateService, calendar, new CandleBuckets(calendar),
+                config, meterRegistry, clock);
+    }
+
+    @Test
+    void nextFireTime_duringSession_firesAtNextMinuteClose() {
+        assertEquals(ist("2025-08-06T10:01:00"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, WED_10_00_30));
+        assertEquals(ist("2025-08-06T15:30:00"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, ist("2025-08-06T15:29:10")));
+    }
+
+    @Test
+    void nextFireTime_afterCloseOrOnWeekend_sleepsUntilFirstCandleOfNextSession() {
+        assertEquals(ist("2025-08-07T09:16:00"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, ist("2025-08-06T15:30:00")));
+        assertEquals(ist("2025-08-07T09:16:00"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, ist("2025-08-07T02:00:00")));
+        assertEquals(ist("2025-08-11T09:16:00"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, ist("2025-08-08T16:00:00")));   // Fri -> Mon
+    }
+
+    @Test
+    void nextFireTime_dailyInterval_firesAtSessionClose() {
+        assertEquals(ist("2025-08-06T15:30:00"), scheduler.nextFireTime(TimeInterval.ONE_DAY, WED_10_00_30));
+        assertEquals(ist("2025-08-11T15:30:00"), scheduler.nextFireTime(TimeInterval.ONE_DAY, ist("2025-08-09T12:00:00")));     // Sat -> Mon
+    }
+
+    @Test
+    void nextFireTime_fireDelay_isAddedAfterClose() {
+        config.setFireDelay(Duration.ofSeconds(2));
+
+        assertEquals(ist("2025-08-06T10:01:02"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, WED_10_00_30));
+        assertEquals(ist("2025-08-06T10:02:02"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, ist("2025-08-06T10:01:02")));
+    }
+
+    @Test
+    void nextFireTime_notMarketHoursOnly_firesAroundTheClock() {
+        config.setMarketHoursOnly(false);
+
+        assertEquals(ist("2025-08-06T20:01:00"), scheduler.nextFireTime(TimeInterval.ONE_MINUTE, ist("2025-08-06T20:00:30")));
+    }
+
+    @Test
+    void runScheduled_recordsLatenessAndDuration() {
+        long scheduledAt = ist("2025-08-06T10:01:00");
+        when(clock.millis()).thenReturn(scheduledAt + 150, scheduledAt + 2_150);
+
+        scheduler.runScheduled(TimeInterval.ONE_MINUTE, scheduledAt);
+
+        verify(candleUpdateService).updateCandlesForInterval(TimeInterval.ONE_MINUTE);
+        assertEquals(150.0, meterRegistry.get("marketdata.scheduler.lateness").tag("interval", "I1").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(2_000.0, meterRegistry.get("marketdata.scheduler.run").tag("interval", "I1").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertNull(meterRegistry.find("marketdata.scheduler.overruns").counter());
+    }
+
+    @Test
+    void runScheduled_overrunAndFailure_areCountedNotThrown() {
+        long scheduledAt = ist("2025-08-06T10:01:00");
+        when(clock.millis()).thenReturn(scheduledAt, scheduledAt + 75_000);
+        doThrow(new RuntimeException("Upstox down")).when(candleUpdateService).updateCandlesForInterval(TimeInterval.ONE_MINUTE);
+
+        assertDoesNotThrow(() -> scheduler.runScheduled(TimeInterval.ONE_MINUTE, scheduledAt));
+
+        assertEquals(1.0, meterRegistry.get("marketdata.scheduler.failures").counter().count());
+        assertEquals(1.0, meterRegistry.get("marketdata.scheduler.overruns").counter().count());
+    }
+
+    private static long ist(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(new MarketSessionConfig().getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,89 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.InstrumentRegistryConfig;
+import com.beartrail.marketdata.model.instrument.InstrumentDiff;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import com.beartrail.marketdata.model.instrument.InstrumentsReloadedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InstrumentRegistryReloadTest {
+
+    private static final String RELIANCE = "{\"segment\": \"NSE_EQ\", \"instrument_key\": \"NSE_EQ|INE002A01018\", \"trading_symbol\": \"RELIANCE\", \"exchange_token\": \"2885\"}";
+    private static final String INFY = "{\"segment\": \"NSE_EQ\", \"instrument_key\": \"NSE_EQ|INE009A01021\", \"trading_symbol\": \"INFY\", \"exchange_token\": \"1594\"}";
+    private static final String TCS = "{\"segment\": \"NSE_EQ\", \"instrument_key\": \"NSE_EQ|INE467B01029\", \"trading_symbol\": \"TCS\", \"exchange_token\": \"11536\"}";
+
+    @TempDir
+    Path dir;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private Path file;
+    private InstrumentRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        file = dir.resolve("instruments.json");
+        Files.writeString(file, "[" + RELIANCE + "," + INFY + "]");
+        InstrumentRegistryConfig config = new InstrumentRegistryConfig();
+        config.setPath(file.toString());
+        registry = new InstrumentRegistry(config, eventPublisher, new SimpleMeterRegistry());
+        registry.loadInstruments();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.stop();
+    }
+
+    @Test
+    void reload_swapsTableAndPublishesOnlyTheDifference() throws Exception {
+        InstrumentTable before = registry.instruments();
+        Files.writeString(file, "[" + RELIANCE + "," + TCS + "]");
+
+        InstrumentDiff diff = registry.reload().get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("NSE_EQ|INE467B01029"), diff.added());
+        assertEquals(List.of("NSE_EQ|INE009A01021"), diff.removed());
+        assertEquals(List.of("NSE_EQ|INE002A01018", "NSE_EQ|INE467B01029"), registry.getInstrumentKeys());
+        assertEquals(List.of("NSE_EQ|INE002A01018", "NSE_EQ|INE009A01021"), before.instrumentKeys());   // old snapshot intact
+        ArgumentCaptor<InstrumentsReloadedEvent> event = ArgumentCaptor.forClass(InstrumentsReloadedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertSame(before, event.getValue().previous());
+        assertEquals(diff, event.getValue().diff());
+    }
+
+    @Test
+    void reload_unparseableFile_keepsCurrentTable() throws Exception {
+        Files.writeString(file, "[" + RELIANCE + ",");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> registry.reload().get(5, TimeUnit.SECONDS));
+
+        assertNotNull(failure.getCause());
+        assertEquals(2, registry.instruments().size());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void reload_unchangedContent_publishesNothing() throws Exception {
+        assertTrue(registry.reload().get(5, TimeUnit.SECONDS).isEmpty());
+        verifyNoInteractions(eventPublisher);
+    }
+}
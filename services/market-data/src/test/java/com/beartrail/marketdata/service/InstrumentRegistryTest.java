@@ -9,15 +9,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 @ActiveProfiles("test")
-class InstrumentKeyLoaderTest {
+class InstrumentRegistryTest {
 
     @Autowired
-    private InstrumentKeyLoader instrumentKeyLoader;
+    private InstrumentRegistry instrumentRegistry;
 
     @Test
-    void instrumentKeysShouldBeLoaded() {
-        assertThat(instrumentKeyLoader.getInstrumentKeys())
+    void instrumentsShouldBeLoaded() {
+        assertThat(instrumentRegistry.getInstrumentKeys())
             .isNotNull()
             .isNotEmpty();
+        String firstKey = instrumentRegistry.getInstrumentKeys().get(0);
+        assertThat(instrumentRegistry.instruments().idOfKey(firstKey)).isZero();
     }
 }
@@ -0,0 +1,114 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+
+import static com.beartrail.marketdata.service.CandleBuckets.MINUTE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LiveCandleBuilderTest {
+
+    private static final String TEST_KEY = "NSE_EQ|INE002A01018";
+    private static final String TEST_SYMBOL = "NSE_EQ:RELIANCE";
+    private static final long MINUTE_START = Instant.parse("2025-08-06T04:00:00Z").toEpochMilli();
+
+    @Mock
+    private InstrumentRegistry instrumentRegistry;
+
+    private LiveCandleBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        InstrumentTable.Builder instruments = InstrumentTable.builder(1);
+        instruments.add("NSE_EQ", TEST_KEY, "RELIANCE", "RELIANCE INDUSTRIES LTD", "2885");
+        when(instrumentRegistry.instruments()).thenReturn(instruments.build());
+        builder = new LiveCandleBuilder(instrumentRegistry);
+    }
+
+    @Test
+    void onTick_tickForNextMinute_completesFormingCandle() {
+        builder.onTick(TEST_KEY, 100.0, MINUTE_START + 1_000, 10);
+        builder.onTick(TEST_KEY, 102.5, MINUTE_START + 20_000, 5);
+        builder.onTick(TEST_KEY, 99.0, MINUTE_START + 40_000, 1);
+        builder.onTick(TEST_KEY, 101.0, MINUTE_START + 59_999, 4);
+        assertTrue(builder.drainCompleted().isEmpty());
+
+        builder.onTick(TEST_KEY, 103.0, MINUTE_START + MINUTE + 500, 7);
+
+        CandleBatch completed = builder.drainCompleted();
+        assertEquals(1, completed.size());
+        assertEquals(TEST_SYMBOL, completed.symbol(0));
+        assertEquals(TEST_KEY, completed.instrumentToken(0));
+        assertEquals(TimeInterval.ONE_MINUTE, completed.interval(0));
+        assertEquals(MINUTE_START, completed.timestamp(0));
+        assertEquals(100.0, completed.openPrice(0));
+        assertEquals(102.5, completed.highPrice(0));
+        assertEquals(99.0, completed.lowPrice(0));
+        assertEquals(101.0, completed.closePrice(0));
+        assertEquals(20L, completed.volume(0));
+        assertTrue(builder.drainCompleted().isEmpty());
+    }
+
+    @Test
+    void drainChanged_reportsOnlyCandlesThatMoved() {
+        builder.onTick(TEST_KEY, 100.0, MINUTE_START + 1_000, 10);
+        builder.onTick("NSE_EQ|INE009A01021", 1500.0, MINUTE_START + 2_000, 1);
+        assertEquals(2, builder.drainChanged().size());
+
+        builder.onTick(TEST_KEY, 100.0, MINUTE_START + 3_000, 0);       // same price, no trade
+        assertTrue(builder.drainChanged().isEmpty());
+
+        builder.onTick(TEST_KEY, 100.5, MINUTE_START + 4_000, 3);
+        CandleBatch changed = builder.drainChanged();
+        assertEquals(1, changed.size());
+        assertEquals(TEST_SYMBOL, changed.symbol(0));
+        assertEquals(100.5, changed.closePrice(0));
+        assertEquals(13L, changed.volume(0));
+    }
+
+    @Test
+    void onTick_keyMissingFromRegistry_keepsInstrumentKey() {
+        builder.onTick("NSE_EQ|INE009A01021", 1500.0, MINUTE_START + 1_000, 1);
+
+        assertEquals("NSE_EQ|INE009A01021", builder.drainChanged().symbol(0));
+    }
+
+    @Test
+    void onTick_lateTickForCompletedMinute_isIgnored() {
+        builder.onTick(TEST_KEY, 100.0, MINUTE_START + 1_000, 10);
+        builder.onTick(TEST_KEY, 101.0, MINUTE_START + MINUTE + 1_000, 10);
+        builder.drainCompleted();
+        builder.drainChanged();
+
+        builder.onTick(TEST_KEY, 90.0, MINUTE_START + 59_000, 10);
+
+        assertTrue(builder.drainCompleted().isEmpty());
+        assertTrue(builder.drainChanged().isEmpty());
+    }
+
+    @Test
+    void closeMinutesBefore_completesQuietCandlesOnce() {
+        builder.onTick(TEST_KEY, 100.0, MINUTE_START + 1_000, 10);
+
+        builder.closeMinutesBefore(MINUTE_START);
+        assertTrue(builder.drainCompleted().isEmpty());
+
+        builder.closeMinutesBefore(MINUTE_START + MINUTE);
+        builder.closeMinutesBefore(MINUTE_START + 2 * MINUTE);
+        CandleBatch completed = builder.drainCompleted();
+        assertEquals(1, completed.size());
+        assertEquals(MINUTE_START, completed.timestamp(0));
+
+        builder.onTick(TEST_KEY, 100.0, MINUTE_START + 30_000, 1);      // within the closed minute
+        assertTrue(builder.drainChanged().isEmpty());
+    }
+}
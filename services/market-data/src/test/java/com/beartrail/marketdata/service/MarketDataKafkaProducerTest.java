@@ -0,0 +1,135 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.event.publisher.PriceUpdateEvent;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MarketDataKafkaProducerTest {
+
+    private static final String TOPIC = "market-data-updates-test";
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MarketDataKafkaProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        producer = new MarketDataKafkaProducer(kafkaTemplate, meterRegistry, TOPIC);
+        when(kafkaTemplate.partitionsFor(TOPIC)).thenReturn(List.of(
+                new PartitionInfo(TOPIC, 0, null, null, null),
+                new PartitionInfo(TOPIC, 1, null, null, null),
+                new PartitionInfo(TOPIC, 2, null, null, null)));
+        producer.refreshPartitionCount();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendAll_sendsKeyedRecordsToConfiguredTopicAndTracksInFlight() {
+        CompletableFuture<SendResult<String, String>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(pending);
+
+        int sent = producer.sendAll(List.of(event("NSE_EQ|INE002A01018"), event("NSE_EQ|INE009A01021")));
+
+        assertEquals(2, sent);
+        ArgumentCaptor<ProducerRecord<String, String>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(records.capture());
+        ProducerRecord<String, String> first = records.getAllValues().get(0);
+        assertEquals(TOPIC, first.topic());
+        assertEquals("NSE_EQ|INE002A01018", first.key());
+        assertEquals(producer.partitionFor("NSE_EQ|INE002A01018"), first.partition());
+        assertTrue(first.value().contains("\"symbol\":\"NSE_EQ|INE002A01018\""));
+        verify(kafkaTemplate, times(1)).partitionsFor(TOPIC);                  // read once, not per send
+        assertEquals(2.0, inFlight());
+
+        pending.complete(null);
+
+        assertEquals(0.0, inFlight());
+        assertEquals(2L, meterRegistry.find("marketdata.kafka.send").timers().stream().mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendFormingCandles_marksRecordsAsForming() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        CandleBatch batch = new CandleBatch(1);
+        batch.add("NSE_EQ:RELIANCE", TimeInterval.ONE_MINUTE, "NSE_EQ|INE002A01018", 1_754_452_800_000L, 100.0, 100.0, 100.0, 100.0, 100.0, 1L);
+
+        producer.sendFormingCandles(batch);
+        producer.sendCandles(batch);
+
+        ArgumentCaptor<ProducerRecord<String, String>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(records.capture());
+        assertNotNull(records.getAllValues().get(0).headers().lastHeader(MarketDataKafkaProducer.FORMING_HEADER));
+        assertNull(records.getAllValues().get(1).headers().lastHeader(MarketDataKafkaProducer.FORMING_HEADER));
+    }
+
+    @Test
+    void partitionFor_beforeCountIsKnown_leavesChoiceToProducerWithoutReadingMetadata() {
+        MarketDataKafkaProducer unrefreshed = new MarketDataKafkaProducer(kafkaTemplate, meterRegistry, TOPIC);
+        clearInvocations(kafkaTemplate);
+
+        assertNull(unrefreshed.partitionFor("NSE_EQ|INE002A01018"));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void refreshPartitionCount_metadataUnavailable_backsOffThenRecovers() {
+        MarketDataKafkaProducer unrefreshed = new MarketDataKafkaProducer(kafkaTemplate, meterRegistry, TOPIC);
+        when(kafkaTemplate.partitionsFor(TOPIC))
+                .thenThrow(new TimeoutException("metadata"))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+
+        assertEquals(Duration.ofSeconds(1), unrefreshed.refreshPartitionCount());
+        assertEquals(Duration.ofSeconds(2), unrefreshed.refreshPartitionCount());
+        assertNull(unrefreshed.partitionFor("NSE_EQ|INE002A01018"));
+        assertEquals(Duration.ofMinutes(5), unrefreshed.refreshPartitionCount());
+        assertEquals(0, unrefreshed.partitionFor("NSE_EQ|INE002A01018"));
+    }
+
+    @Test
+    void partitionFor_isStablePerSymbol() {
+        Integer partition = producer.partitionFor("NSE_EQ|INE002A01018");
+
+        assertNotNull(partition);
+        assertTrue(partition >= 0 && partition < 3);
+        assertEquals(partition, producer.partitionFor("NSE_EQ|INE002A01018"));
+    }
+
+    private double inFlight() {
+        return meterRegistry.find("marketdata.kafka.send.in.flight").gauges().stream().mapToDouble(gauge -> gauge.value()).sum();
+    }
+
+    private static PriceUpdateEvent event(String symbol) {
+        return PriceUpdateEvent.builder()
+                .symbol(symbol)
+                .lastPrice(100.0)
+                .closePrice(100.0)
+                .volume(10L)
+                .timestamp(1_754_452_800_000L)
+                .timeInterval("I1")
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketSessionCalendarTest {
+
+    private static final LocalDate INDEPENDENCE_DAY = LocalDate.of(2025, 8, 15);   // Friday
+    private static final LocalDate DIWALI = LocalDate.of(2025, 10, 21);            // Tuesday, Muhurat session only
+
+    private MarketSessionCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        MarketSessionConfig.SpecialSession muhurat = new MarketSessionConfig.SpecialSession();
+        muhurat.setDate(DIWALI);
+        muhurat.setOpen(LocalTime.of(13, 45));
+        muhurat.setClose(LocalTime.of(14, 45));
+        muhurat.setName("Muhurat Trading");
+
+        MarketSessionConfig config = new MarketSessionConfig();
+        config.getHolidays().add(INDEPENDENCE_DAY);
+        config.getHolidays().add(DIWALI);
+        config.getSpecialSessions().add(muhurat);
+        calendar = new MarketSessionCalendar(config);
+    }
+
+    @Test
+    void isOpen_regularDay_followsSessionHours() {
+        assertFalse(calendar.isOpen(ist("2025-08-06T09:14:59")));
+        assertTrue(calendar.isOpen(ist("2025-08-06T09:15:00")));
+        assertTrue(calendar.isOpen(ist("2025-08-06T15:29:59")));
+        assertFalse(calendar.isOpen(ist("2025-08-06T15:30:00")));
+    }
+
+    @Test
+    void isOpen_holidayAndWeekend_closed() {
+        assertFalse(calendar.isOpen(ist("2025-08-15T11:00:00")));
+        assertFalse(calendar.isOpen(ist("2025-08-16T11:00:00")));
+        assertFalse(calendar.isTradingDay(INDEPENDENCE_DAY));
+        assertTrue(calendar.isTradingDay(LocalDate.of(2025, 8, 14)));
+    }
+
+    @Test
+    void sessionOn_specialSession_replacesHoliday() {
+        MarketSessionCalendar.TradingSession session = calendar.sessionOn(DIWALI);
+
+        assertNotNull(session);
+        assertTrue(session.isSpecial());
+        assertEquals(ist("2025-10-21T13:45:00"), session.open());
+        assertEquals(ist("2025-10-21T14:45:00"), session.close());
+        assertFalse(calendar.isOpen(ist("2025-10-21T10:00:00")));
+        assertTrue(calendar.isOpen(ist("2025-10-21T14:00:00")));
+        assertTrue(calendar.isTradingDay(DIWALI));
+    }
+
+    @Test
+    void readHolidays_skipsCommentsAndBlankLines() {
+        ByteArrayResource resource = new ByteArrayResource((
+                "# header\n\n2025-08-15  # Independence Day\n2026-01-26\n").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Set.of(INDEPENDENCE_DAY, LocalDate.of(2026, 1, 26)), MarketSessionCalendar.readHolidays(resource));
+    }
+
+    @Test
+    void holidayCalendar_mergedWithConfiguredHolidays_specialSessionStillTrades() {
+        MarketSessionConfig.SpecialSession muhurat = new MarketSessionConfig.SpecialSession();
+        muhurat.setDate(DIWALI);
+        muhurat.setOpen(LocalTime.of(13, 45));
+        muhurat.setClose(LocalTime.of(14, 45));
+        muhurat.setName("Muhurat Trading");
+        MarketSessionConfig config = new MarketSessionConfig();
+        config.setHolidayCalendar(new ClassPathResource("market/nse-holidays.txt"));
+        config.getHolidays().add(LocalDate.of(2025, 8, 14));                        // ad-hoc closure
+        config.getSpecialSessions().add(muhurat);
+
+        MarketSessionCalendar fromFile = new MarketSessionCalendar(config);
+
+        assertFalse(fromFile.isTradingDay(INDEPENDENCE_DAY));
+        assertFalse(fromFile.isTradingDay(LocalDate.of(2025, 8, 14)));
+        assertFalse(fromFile.isTradingDay(LocalDate.of(2025, 10, 22)));
+        assertTrue(fromFile.sessionOn(DIWALI).isSpecial());
+        assertTrue(fromFile.hasHolidaysIn(2025));
+        assertFalse(fromFile.hasHolidaysIn(2024));
+    }
+
+    @Test
+    void sessionOpenAtOrAfter_skipsHolidayAndWeekend() {
+        assertEquals(ist("2025-08-18T09:15:00"), calendar.sessionOpenAtOrAfter(ist("2025-08-14T15:30:00")));
+        assertEquals(ist("2025-08-14T09:15:00"), calendar.sessionOpenAtOrAfter(ist("2025-08-14T12:00:00")));
+    }
+
+    @Test
+    void hoursOn_closedDay_stillReturnsRegularHours() {
+        assertNull(calendar.sessionOn(INDEPENDENCE_DAY));
+        assertEquals(ist("2025-08-15T09:15:00"), calendar.hoursOn(INDEPENDENCE_DAY).open());
+    }
+
+    static long ist(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(new MarketSessionConfig().getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,65 @@
+package com.beartrail.marketdata.service;
+
+import com.beartrail.marketdata.config.MarketSessionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+
+import static com.beartrail.marketdata.service.MarketSessionCalendarTest.ist;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MarketSessionEventPublisherTest {
+
+    private static final String TOPIC = "market-session-events";
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+    @Mock
+    private Clock clock;
+
+    private MarketSessionEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(new CompletableFuture<SendResult<String, String>>());
+        publisher = new MarketSessionEventPublisher(kafkaTemplate,
+                new MarketSessionCalendar(new MarketSessionConfig()), TOPIC, clock);
+    }
+
+    @Test
+    void checkSession_publishesOpenAndCloseTransitionsOnly() {
+        when(clock.millis()).thenReturn(ist("2025-08-06T09:14:00"), ist("2025-08-06T09:15:00"),
+                ist("2025-08-06T09:16:00"), ist("2025-08-06T15:30:00"));
+
+        publisher.checkSession();                                        // initial state is only recorded
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+
+        publisher.checkSession();
+        verify(kafkaTemplate).send(eq(TOPIC), eq("NSE"), contains("\"type\":\"MARKET_OPEN\""));
+
+        publisher.checkSession();
+        publisher.checkSession();
+        verify(kafkaTemplate).send(eq(TOPIC), eq("NSE"), argThat(json -> json.contains("\"type\":\"MARKET_CLOSE\"")
+                && json.contains("\"sessionDate\":\"2025-08-06\"")));
+        verify(kafkaTemplate, times(2)).send(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void checkSession_startedMidSession_doesNotAnnounceOpen() {
+        when(clock.millis()).thenReturn(ist("2025-08-06T11:00:00"), ist("2025-08-06T11:01:00"));
+
+        publisher.checkSession();
+        publisher.checkSession();
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
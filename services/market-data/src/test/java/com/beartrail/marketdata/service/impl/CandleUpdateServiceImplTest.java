@@ -1,17 +1,26 @@
 package com.beartrail.marketdata.service.impl;
 
 import com.beartrail.marketdata.model.entity.TimeInterval;
-import com.beartrail.marketdata.model.entity.MarketData;
-import com.beartrail.marketdata.repository.MarketDataRepository;
-import com.beartrail.marketdata.service.InstrumentKeyLoader;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.service.CandleChangeFilter;
+import com.beartrail.marketdata.service.CandleRollupEngine;
+import com.beartrail.marketdata.service.InstrumentRegistry;
 import com.beartrail.marketdata.client.upstox.UpstoxApiClient;
+import com.beartrail.marketdata.client.upstox.UpstoxFetchExecutor;
+import com.beartrail.marketdata.client.upstox.UpstoxQuoteRequest;
+import com.beartrail.marketdata.config.UpstoxConfig;
 import com.beartrail.marketdata.service.MarketDataKafkaProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -25,40 +34,55 @@ class CandleUpdateServiceImplTest {
     @Mock
     private MarketDataServiceImpl marketDataService;
     @Mock
-    private MarketDataCacheServiceImpl marketDataCacheService;
-    @Mock
-    private MarketDataRepository marketDataRepository;
-    @Mock
     private UpstoxApiClient upstoxApiClient;
     @Mock
-    private InstrumentKeyLoader instrumentKeyLoader;
+    private InstrumentRegistry instrumentRegistry;
     @Mock
     private MarketDataKafkaProducer marketDataKafkaProducer;
+    @Mock
+    private CandleRollupEngine candleRollupEngine;
 
     @InjectMocks
     private CandleUpdateServiceImpl candleUpdateService;
 
+    private UpstoxFetchExecutor upstoxFetchExecutor;
+    private List<String> published;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        UpstoxConfig upstoxConfig = new UpstoxConfig();
+        upstoxConfig.setBaseUrl("http://upstox.test/v2");
+        upstoxFetchExecutor = new UpstoxFetchExecutor(upstoxApiClient, upstoxConfig, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(candleUpdateService, "upstoxFetchExecutor", upstoxFetchExecutor);
+        ReflectionTestUtils.setField(candleUpdateService, "candleChangeFilter", new CandleChangeFilter(new SimpleMeterRegistry()));
+        when(candleRollupEngine.accept(any(CandleBatch.class))).thenReturn(new CandleBatch(1));
+        when(candleRollupEngine.flushCompleted(anyLong())).thenReturn(new CandleBatch(1));
+        published = new ArrayList<>();
+        doAnswer(invocation -> {
+            CandleBatch batch = invocation.getArgument(0);
+            for (int row = 0; row < batch.size(); row++) {
+                published.add(batch.symbol(row) + "@" + batch.interval(row).getValue());
+            }
+            return null;
+        }).when(marketDataKafkaProducer).sendCandles(any(CandleBatch.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstoxFetchExecutor.shutdown();
     }
 
     @Test
-    void updateCandlesForInterval_validInterval_processesBatchesAndSavesData() {
+    void updateCandlesForInterval_validInterval_publishesBatches() {
         TimeInterval interval = TimeInterval.ONE_MINUTE;
         List<String> symbols = Arrays.asList(TEST_SYMBOL, "TCS");
-        when(instrumentKeyLoader.getInstrumentKeys()).thenReturn(symbols);
-        MarketData marketData1 = mock(MarketData.class);
-        MarketData marketData2 = mock(MarketData.class);
-        when(marketData1.getSymbol()).thenReturn(TEST_SYMBOL);
-        when(marketData2.getSymbol()).thenReturn("TCS");
-        List<MarketData> marketDataList = Arrays.asList(marketData1, marketData2);
-        when(upstoxApiClient.getMarketData(symbols, "I1")).thenReturn(marketDataList);
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(symbols);
+        doAnswer(fills(TEST_SYMBOL, "TCS")).when(upstoxApiClient).fetchMarketData(forSymbols(symbols), any(CandleBatch.class));
         candleUpdateService.updateCandlesForInterval(interval);
-        verify(upstoxApiClient).getMarketData(symbols, "I1");
-        verify(marketDataRepository, times(2)).save(any(MarketData.class));
-        verify(marketDataCacheService).cacheLatestMarketData(eq(TEST_SYMBOL), eq("I1"), anyString());
-        verify(marketDataCacheService).cacheLatestMarketData(eq("TCS"), eq("I1"), anyString());
+        verify(upstoxApiClient).fetchMarketData(forSymbols(symbols), any(CandleBatch.class));
+        verify(marketDataKafkaProducer, times(1)).sendCandles(any(CandleBatch.class));
+        assertEquals(List.of(TEST_SYMBOL + "@I1", "TCS@I1"), published);
     }
 
     @Test
@@ -68,40 +92,109 @@ class CandleUpdateServiceImplTest {
 
     @Test
     void updateCandlesForInterval_emptyInstrumentKeys_throwsException() {
-        when(instrumentKeyLoader.getInstrumentKeys()).thenReturn(Collections.emptyList());
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(Collections.emptyList());
         assertThrows(RuntimeException.class, () -> candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE));
     }
 
     @Test
     void updateCandlesForInterval_marketDataListEmpty_noException() {
         List<String> symbols = Arrays.asList(TEST_SYMBOL);
-        when(instrumentKeyLoader.getInstrumentKeys()).thenReturn(symbols);
-        when(upstoxApiClient.getMarketData(symbols, "I1")).thenReturn(Collections.emptyList());
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(symbols);
         assertDoesNotThrow(() -> candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE));
-        verify(upstoxApiClient).getMarketData(symbols, "I1");
-        verifyNoInteractions(marketDataRepository);
-        verifyNoInteractions(marketDataCacheService);
+        verify(upstoxApiClient).fetchMarketData(forSymbols(symbols), any(CandleBatch.class));
+        verify(marketDataKafkaProducer, never()).sendCandles(any(CandleBatch.class));
     }
 
     @Test
     void updateCandlesForInterval_batchProcessing_worksForLargeSymbolList() {
         List<String> symbols = Mockito.mock(List.class);
         when(symbols.size()).thenReturn(1001);
-        when(instrumentKeyLoader.getInstrumentKeys()).thenReturn(symbols);
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(symbols);
         when(symbols.subList(anyInt(), anyInt())).thenReturn(Arrays.asList(TEST_SYMBOL));
-        when(upstoxApiClient.getMarketData(anyList(), eq("I1"))).thenReturn(Arrays.asList(mock(MarketData.class)));
+        doAnswer(fills(TEST_SYMBOL)).when(upstoxApiClient).fetchMarketData(any(UpstoxQuoteRequest.class), any(CandleBatch.class));
         candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE);
-        verify(upstoxApiClient, atLeastOnce()).getMarketData(anyList(), eq("I1"));
+        verify(upstoxApiClient, times(3)).fetchMarketData(any(UpstoxQuoteRequest.class), any(CandleBatch.class));
+        verify(marketDataKafkaProducer, times(1)).sendCandles(any(CandleBatch.class));   // later batches repeat the same candle
+    }
+
+    @Test
+    void ingestOneMinuteCandles_publishesCandlesAndCompletedRollups() {
+        CandleBatch candles = new CandleBatch(1);
+        candles.add(TEST_SYMBOL, TimeInterval.ONE_MINUTE, null, 1_754_451_660_000L, 100, 100, 101, 99, 100, 10);
+        CandleBatch hourBars = new CandleBatch(1);
+        hourBars.add(TEST_SYMBOL, TimeInterval.ONE_HOUR, null, 1_754_449_200_000L, 100, 100, 101, 99, 100, 60);
+        when(candleRollupEngine.flushCompleted(anyLong())).thenReturn(hourBars);
+
+        candleUpdateService.ingestOneMinuteCandles(candles);
+
+        verify(candleRollupEngine).accept(candles);
+        assertEquals(List.of(TEST_SYMBOL + "@I1", TEST_SYMBOL + "@I60"), published);
+    }
+
+    @Test
+    void updateCandlesForInterval_upstoxBatchFails_otherBatchesStillPublished() {
+        List<String> symbols = Mockito.mock(List.class);
+        when(symbols.size()).thenReturn(1000);
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(symbols);
+        when(symbols.subList(0, 500)).thenReturn(Arrays.asList(TEST_SYMBOL));
+        when(symbols.subList(500, 1000)).thenReturn(Arrays.asList("TCS"));
+        doThrow(new RuntimeException("No market data found"))
+                .when(upstoxApiClient).fetchMarketData(forSymbols(Arrays.asList(TEST_SYMBOL)), any(CandleBatch.class));
+        doAnswer(fills("TCS")).when(upstoxApiClient).fetchMarketData(forSymbols(Arrays.asList("TCS")), any(CandleBatch.class));
+        assertDoesNotThrow(() -> candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE));
+        assertEquals(List.of("TCS@I1"), published);
     }
 
     @Test
-    void updateCandlesForInterval_marketDataRepositoryThrows_exceptionPropagates() {
+    void updateCandlesForInterval_oneMinute_publishesCompletedRollups() {
         List<String> symbols = Arrays.asList(TEST_SYMBOL);
-        when(instrumentKeyLoader.getInstrumentKeys()).thenReturn(symbols);
-        MarketData marketData = mock(MarketData.class);
-        when(upstoxApiClient.getMarketData(symbols, "I1")).thenReturn(Arrays.asList(marketData));
-        doThrow(new RuntimeException("DB error")).when(marketDataRepository).save(any(MarketData.class));
-        assertThrows(RuntimeException.class, () -> candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE));
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(symbols);
+        doAnswer(fills(TEST_SYMBOL)).when(upstoxApiClient).fetchMarketData(forSymbols(symbols), any(CandleBatch.class));
+        CandleBatch fiveMinuteBars = new CandleBatch(1);
+        fiveMinuteBars.add(TEST_SYMBOL, TimeInterval.FIVE_MINUTES, null, 1_754_451_900_000L, 100, 100, 101, 99, 100, 10);
+        when(candleRollupEngine.accept(any(CandleBatch.class))).thenReturn(fiveMinuteBars);
+
+        candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE);
+
+        verify(marketDataKafkaProducer).sendCandles(fiveMinuteBars);
+        assertEquals(List.of(TEST_SYMBOL + "@I1", TEST_SYMBOL + "@I5"), published);
+        verify(candleRollupEngine).flushCompleted(anyLong());
+    }
+
+    @Test
+    void updateCandlesForInterval_unchangedCandle_notRepublished() {
+        List<String> symbols = Arrays.asList(TEST_SYMBOL, "TCS");
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(symbols);
+        doAnswer(fills(TEST_SYMBOL, "TCS")).when(upstoxApiClient).fetchMarketData(forSymbols(symbols), any(CandleBatch.class));
+        candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE);
+
+        doAnswer(invocation -> {
+            CandleBatch batch = invocation.getArgument(1);
+            batch.add(TEST_SYMBOL, TimeInterval.ONE_MINUTE, null, 1_754_451_660_000L, 100, 100, 101, 99, 100, 10);
+            batch.add("TCS", TimeInterval.ONE_MINUTE, null, 1_754_451_720_000L, 101, 100, 102, 99, 101, 5);
+            return 2;
+        }).when(upstoxApiClient).fetchMarketData(forSymbols(symbols), any(CandleBatch.class));
+        candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE);
+
+        assertEquals(List.of(TEST_SYMBOL + "@I1", "TCS@I1", "TCS@I1"), published);
+    }
+
+    @Test
+    void updateCandlesForInterval_unchangedCandle_stillFedToRollup() {
+        List<String> symbols = Arrays.asList(TEST_SYMBOL);
+        when(instrumentRegistry.getInstrumentKeys()).thenReturn(symbols);
+        doAnswer(fills(TEST_SYMBOL)).when(upstoxApiClient).fetchMarketData(forSymbols(symbols), any(CandleBatch.class));
+        List<Integer> rolledUp = new ArrayList<>();
+        when(candleRollupEngine.accept(any(CandleBatch.class))).thenAnswer(invocation -> {
+            rolledUp.add(invocation.<CandleBatch>getArgument(0).size());
+            return new CandleBatch(1);
+        });
+
+        candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE);
+        candleUpdateService.updateCandlesForInterval(TimeInterval.ONE_MINUTE);
+
+        assertEquals(List.of(TEST_SYMBOL + "@I1"), published);
+        assertEquals(List.of(1, 1), rolledUp);
     }
 
     @Test
@@ -114,4 +207,18 @@ class CandleUpdateServiceImplTest {
         long result = candleUpdateService.calculateCompletedIntervalTimestamp(TimeInterval.ONE_MINUTE);
         assertEquals(0, result);
     }
+
+    private static UpstoxQuoteRequest forSymbols(List<String> symbols) {
+        return argThat(request -> request != null && request.symbols().equals(symbols));
+    }
+
+    private static Answer<Integer> fills(String... symbols) {
+        return invocation -> {
+            CandleBatch batch = invocation.getArgument(1);
+            for (String symbol : symbols) {
+                batch.add(symbol, TimeInterval.ONE_MINUTE, null, 1_754_451_660_000L, 100, 100, 101, 99, 100, 10);
+            }
+            return symbols.length;
+        };
+    }
 }
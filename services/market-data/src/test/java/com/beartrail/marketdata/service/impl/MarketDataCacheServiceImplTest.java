@@ -0,0 +1,138 @@
+package com.beartrail.marketdata.service.impl;
+
+import com.beartrail.marketdata.config.MarketDataCacheConfig;
+import com.beartrail.marketdata.model.codec.MarketDataCodec;
+import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.model.instrument.InstrumentDiff;
+import com.beartrail.marketdata.model.instrument.InstrumentTable;
+import com.beartrail.marketdata.model.instrument.InstrumentsReloadedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MarketDataCacheServiceImplTest {
+
+    private static final String TEST_SYMBOL = "NSE_EQ|INE002A01018";
+    private static final String TEST_INTERVAL = "I1";
+    private static final String REDIS_KEY = "marketdata:latest:" + TEST_SYMBOL + ":" + TEST_INTERVAL;
+
+    @Mock
+    private RedisTemplate<String, byte[]> redisTemplate;
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private MeterRegistry meterRegistry;
+    private MarketDataCacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        cacheService = new MarketDataCacheServiceImpl(new MarketDataCacheConfig(), redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void cacheLatestMarketData_writesBothTiers_andServesFromLocal() {
+        MarketData marketData = sampleMarketData();
+        cacheService.cacheLatestMarketData(TEST_SYMBOL, TEST_INTERVAL, marketData);
+
+        verify(valueOperations).set(eq(REDIS_KEY), any(byte[].class), eq(Duration.ofMinutes(2)));
+        Optional<MarketData> result = cacheService.get(TEST_SYMBOL, TEST_INTERVAL);
+        assertEquals(Optional.of(marketData), result);
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void get_localMiss_redisHit_decodesAndPromotes() {
+        MarketData marketData = sampleMarketData();
+        when(valueOperations.get(REDIS_KEY)).thenReturn(MarketDataCodec.encode(marketData));
+
+        assertEquals(Optional.of(marketData), cacheService.get(TEST_SYMBOL, TEST_INTERVAL));
+        assertEquals(Optional.of(marketData), cacheService.get(TEST_SYMBOL, TEST_INTERVAL));
+        verify(valueOperations, times(1)).get(REDIS_KEY);
+        assertEquals(1.0, meterRegistry.get("marketdata.latest.redis").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void get_bothTiersMiss_returnsEmpty() {
+        assertTrue(cacheService.get(TEST_SYMBOL, TEST_INTERVAL).isEmpty());
+        assertEquals(1.0, meterRegistry.get("marketdata.latest.redis").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_redisUnavailable_returnsEmpty() {
+        when(valueOperations.get(REDIS_KEY)).thenThrow(new RedisConnectionFailureException("down"));
+        assertTrue(cacheService.get(TEST_SYMBOL, TEST_INTERVAL).isEmpty());
+        assertEquals(1.0, meterRegistry.get("marketdata.latest.redis").tag("result", "error").counter().count());
+    }
+
+    @Test
+    void invalidateCache_evictsBothTiers() {
+        cacheService.cacheLatestMarketData(TEST_SYMBOL, TEST_INTERVAL, sampleMarketData());
+        cacheService.invalidateCache(TEST_SYMBOL, TEST_INTERVAL);
+
+        verify(redisTemplate).delete(REDIS_KEY);
+        assertTrue(cacheService.get(TEST_SYMBOL, TEST_INTERVAL).isEmpty());
+    }
+
+    @Test
+    void onInstrumentsReloaded_removedInstrument_evictsPolledSymbol() {
+        String polledSymbol = "NSE_EQ:RELIANCE";
+        cacheService.cacheLatestMarketData(polledSymbol, TEST_INTERVAL, sampleMarketData());
+        cacheService.cacheLatestMarketData("NSE_EQ:TCS", TEST_INTERVAL, sampleMarketData());
+        InstrumentTable.Builder previous = InstrumentTable.builder(2);
+        previous.add("NSE_EQ", TEST_SYMBOL, "RELIANCE", "RELIANCE INDUSTRIES LTD", "2885");
+        previous.add("NSE_EQ", "NSE_EQ|INE467B01029", "TCS", "TATA CONSULTANCY SERV LT", "11536");
+        InstrumentTable.Builder current = InstrumentTable.builder(1);
+        current.add("NSE_EQ", "NSE_EQ|INE467B01029", "TCS", "TATA CONSULTANCY SERV LT", "11536");
+        InstrumentTable previousTable = previous.build();
+        InstrumentTable currentTable = current.build();
+
+        cacheService.onInstrumentsReloaded(new InstrumentsReloadedEvent(previousTable, currentTable,
+                InstrumentDiff.between(previousTable, currentTable)));
+
+        verify(redisTemplate).delete("marketdata:latest:" + polledSymbol + ":" + TEST_INTERVAL);
+        verify(redisTemplate, never()).delete("marketdata:latest:NSE_EQ:TCS:" + TEST_INTERVAL);
+        assertTrue(cacheService.get(polledSymbol, TEST_INTERVAL).isEmpty());
+        assertTrue(cacheService.get("NSE_EQ:TCS", TEST_INTERVAL).isPresent());
+    }
+
+    @Test
+    void codec_roundTripsPartialCandle() {
+        MarketData marketData = new MarketData();
+        marketData.setSymbol(TEST_SYMBOL);
+        marketData.setLastPrice(2950.5);
+        marketData.setTimestamp(1_754_451_660_000L);
+
+        assertEquals(marketData, MarketDataCodec.decode(MarketDataCodec.encode(marketData)));
+    }
+
+    private static MarketData sampleMarketData() {
+        MarketData marketData = new MarketData();
+        marketData.setSymbol(TEST_SYMBOL);
+        marketData.setTimeInterval(TimeInterval.ONE_MINUTE);
+        marketData.setInstrumentToken("2885");
+        marketData.setLastPrice(2950.5);
+        marketData.setOpenPrice(2945.0);
+        marketData.setHighPrice(2952.25);
+        marketData.setLowPrice(2944.1);
+        marketData.setClosePrice(2950.5);
+        marketData.setVolume(125_000L);
+        marketData.setTimestamp(1_754_451_660_000L);
+        return marketData;
+    }
+}
@@ -1,16 +1,31 @@
 package com.beartrail.marketdata.service.impl;
 
+import com.beartrail.marketdata.config.CandleArchiveConfig;
+import com.beartrail.marketdata.config.MarketDataQueryConfig;
+import com.beartrail.marketdata.model.batch.CandleBatch;
+import com.beartrail.marketdata.model.dto.CandleDto;
+import com.beartrail.marketdata.model.dto.ChartCandles;
 import com.beartrail.marketdata.model.entity.MarketData;
+import com.beartrail.marketdata.model.entity.TimeInterval;
+import com.beartrail.marketdata.repository.CandleHistoryRepository;
 import com.beartrail.marketdata.repository.MarketDataRepository;
+import com.beartrail.marketdata.repository.archive.CandleArchive;
+import com.beartrail.marketdata.service.CandleQueryRouter;
 import com.beartrail.marketdata.service.MarketDataCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -18,28 +33,41 @@ import static org.mockito.Mockito.*;
 class MarketDataServiceImplTest {
 
     private static final String TEST_SYMBOL = "RELIANCE";
-    private static final String TEST_INTERVAL = "ONE_MINUTE";
+    private static final String TEST_INTERVAL = "I1";
+    private static final Long FROM = 1_754_451_000_000L;
+    private static final Long TO = 1_754_537_400_000L;
 
     @Mock
     private MarketDataRepository marketDataRepository;
     @Mock
     private MarketDataCacheService marketDataCacheService;
+    @Mock
+    private CandleHistoryRepository candleHistoryRepository;
+    @Mock
+    private CandleArchive candleArchive;
+    @Mock
+    private CandleQueryRouter candleQueryRouter;
+    @Spy
+    private MarketDataQueryConfig queryConfig = new MarketDataQueryConfig();
     @InjectMocks
     private MarketDataServiceImpl marketDataService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(candleArchive.end(anyString(), any(TimeInterval.class))).thenReturn(Long.MIN_VALUE);
+        when(candleQueryRouter.route(any(TimeInterval.class), anyLong(), anyLong()))
+                .thenAnswer(invocation -> new CandleQueryRouter.Route(invocation.getArgument(0), invocation.getArgument(0)));
     }
 
     @Test
     void getLatestMarketData_validCacheHit_returnsCachedData() {
         Long timestamp = 123L;
         MarketData mockData = mock(MarketData.class);
-        when(marketDataCacheService.get(TEST_SYMBOL + "_" + TEST_INTERVAL)).thenReturn(Optional.of(mockData));
+        when(marketDataCacheService.get(TEST_SYMBOL, TEST_INTERVAL)).thenReturn(Optional.of(mockData));
         Optional<MarketData> result = marketDataService.getLatestMarketData(TEST_SYMBOL, TEST_INTERVAL, timestamp);
         assertTrue(result.isPresent());
-        verify(marketDataCacheService, times(1)).get(TEST_SYMBOL + "_" + TEST_INTERVAL);
+        verify(marketDataCacheService, times(1)).get(TEST_SYMBOL, TEST_INTERVAL);
         verifyNoInteractions(marketDataRepository);
     }
 
@@ -47,18 +75,18 @@ class MarketDataServiceImplTest {
     void getLatestMarketData_validCacheMiss_repositoryHit_returnsDataAndCaches() {
         Long timestamp = 123L;
         MarketData mockData = mock(MarketData.class);
-        when(marketDataCacheService.get(TEST_SYMBOL + "_" + TEST_INTERVAL)).thenReturn(Optional.empty());
-        when(marketDataRepository.findBySymbolAndTimestamp(TEST_SYMBOL, timestamp)).thenReturn(Optional.of(mockData));
+        when(marketDataCacheService.get(TEST_SYMBOL, TEST_INTERVAL)).thenReturn(Optional.empty());
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestamp(TEST_SYMBOL, TimeInterval.ONE_MINUTE, timestamp)).thenReturn(Optional.of(mockData));
         Optional<MarketData> result = marketDataService.getLatestMarketData(TEST_SYMBOL, TEST_INTERVAL, timestamp);
         assertTrue(result.isPresent());
-        verify(marketDataCacheService).cacheLatestMarketData(eq(TEST_SYMBOL), eq(TEST_INTERVAL), anyString());
+        verify(marketDataCacheService).cacheLatestMarketData(TEST_SYMBOL, TEST_INTERVAL, mockData);
     }
 
     @Test
     void getLatestMarketData_validCacheMiss_repositoryMiss_returnsEmpty() {
         Long timestamp = 123L;
-        when(marketDataCacheService.get(TEST_SYMBOL + "_" + TEST_INTERVAL)).thenReturn(Optional.empty());
-        when(marketDataRepository.findBySymbolAndTimestamp(TEST_SYMBOL, timestamp)).thenReturn(Optional.empty());
+        when(marketDataCacheService.get(TEST_SYMBOL, TEST_INTERVAL)).thenReturn(Optional.empty());
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestamp(TEST_SYMBOL, TimeInterval.ONE_MINUTE, timestamp)).thenReturn(Optional.empty());
         Optional<MarketData> result = marketDataService.getLatestMarketData(TEST_SYMBOL, TEST_INTERVAL, timestamp);
         assertTrue(result.isEmpty());
     }
@@ -73,32 +101,135 @@ class MarketDataServiceImplTest {
     void getLatestMarketData_invalidInterval_returnsEmpty() {
         Optional<MarketData> result = marketDataService.getLatestMarketData(TEST_SYMBOL, "INVALID", 123L);
         assertTrue(result.isEmpty());
+        verifyNoInteractions(marketDataCacheService, marketDataRepository);
+    }
+
+    @Test
+    void getLatestMarketData_intervalName_usesUpstoxValueAsCacheKey() {
+        when(marketDataCacheService.get(TEST_SYMBOL, TEST_INTERVAL)).thenReturn(Optional.of(mock(MarketData.class)));
+        Optional<MarketData> result = marketDataService.getLatestMarketData(TEST_SYMBOL, "ONE_MINUTE", 123L);
+        assertTrue(result.isPresent());
     }
 
     @Test
     void getHistoricalMarketData_valid_returnsData() {
         List<MarketData> mockList = List.of(mock(MarketData.class));
-        when(marketDataRepository.findBySymbol(TEST_SYMBOL)).thenReturn(mockList);
-        List<MarketData> result = marketDataService.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL);
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(eq(TEST_SYMBOL), eq(TimeInterval.ONE_MINUTE), eq(FROM), eq(TO), any(Limit.class))).thenReturn(mockList);
+        List<MarketData> result = marketDataService.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL, FROM, TO);
         assertEquals(1, result.size());
     }
 
+    @Test
+    void getHistoricalMarketData_overPointBudget_returnsMostRecentInAscendingOrder() {
+        queryConfig.setMaxPoints(2);
+        List<MarketData> newestFirst = List.of(candleAt(FROM + 120_000), candleAt(FROM + 60_000), candleAt(FROM));
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+                eq(TEST_SYMBOL), eq(TimeInterval.ONE_MINUTE), eq(FROM), eq(TO), any(Limit.class))).thenReturn(newestFirst);
+
+        List<MarketData> result = marketDataService.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL, FROM, TO);
+
+        assertEquals(List.of(FROM + 60_000, FROM + 120_000), result.stream().map(MarketData::getTimestamp).toList());
+    }
+
+    @Test
+    void getHistoricalMarketData_routedToRollUp_readsSourceInterval() {
+        CandleQueryRouter.Route route = new CandleQueryRouter.Route(TimeInterval.FIFTEEN_MINUTES, TimeInterval.FIVE_MINUTES);
+        List<MarketData> fiveMinutes = List.of(candleAt(FROM));
+        List<MarketData> rolled = List.of(candleAt(FROM - 1));
+        when(candleQueryRouter.route(TimeInterval.FIFTEEN_MINUTES, FROM, TO)).thenReturn(route);
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+                eq(TEST_SYMBOL), eq(TimeInterval.FIVE_MINUTES), eq(FROM), eq(TO), any(Limit.class))).thenReturn(fiveMinutes);
+        when(candleQueryRouter.rollUp(fiveMinutes, TimeInterval.FIFTEEN_MINUTES)).thenReturn(rolled);
+
+        assertEquals(rolled, marketDataService.getHistoricalMarketData(TEST_SYMBOL, "15m", FROM, TO));
+    }
+
+    @Test
+    void getChartCandles_noData_reportsRoutedInterval() {
+        when(candleQueryRouter.route(TimeInterval.ONE_MINUTE, FROM, TO)).thenReturn(new CandleQueryRouter.Route(TimeInterval.ONE_DAY, TimeInterval.ONE_DAY));
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+                eq(TEST_SYMBOL), eq(TimeInterval.ONE_DAY), eq(FROM), eq(TO), any(Limit.class))).thenReturn(List.of());
+
+        ChartCandles chart = marketDataService.getChartCandles(TEST_SYMBOL, TimeInterval.ONE_MINUTE, FROM, TO);
+
+        assertEquals(new ChartCandles(TimeInterval.ONE_DAY, List.of()), chart);
+    }
+
+    @Test
+    void getHistoricalMarketData_invalidRange_returnsEmptyList() {
+        assertTrue(marketDataService.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL, TO, FROM).isEmpty());
+        assertTrue(marketDataService.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL, null, TO).isEmpty());
+        verifyNoInteractions(marketDataRepository);
+    }
+
     @Test
     void getHistoricalMarketData_invalidSymbol_returnsEmptyList() {
-        List<MarketData> result = marketDataService.getHistoricalMarketData("", TEST_INTERVAL);
+        List<MarketData> result = marketDataService.getHistoricalMarketData("", TEST_INTERVAL, FROM, TO);
         assertTrue(result.isEmpty());
     }
 
     @Test
     void getHistoricalMarketData_invalidInterval_returnsEmptyList() {
-        List<MarketData> result = marketDataService.getHistoricalMarketData(TEST_SYMBOL, "INVALID");
+        List<MarketData> result = marketDataService.getHistoricalMarketData(TEST_SYMBOL, "INVALID", FROM, TO);
         assertTrue(result.isEmpty());
     }
 
     @Test
     void getHistoricalMarketData_noData_returnsEmptyList() {
-        when(marketDataRepository.findBySymbol(TEST_SYMBOL)).thenReturn(List.of());
-        List<MarketData> result = marketDataService.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL);
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(eq(TEST_SYMBOL), eq(TimeInterval.ONE_MINUTE), eq(FROM), eq(TO), any(Limit.class))).thenReturn(List.of());
+        List<MarketData> result = marketDataService.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL, FROM, TO);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void streamHistoricalMarketData_valid_delegatesWithConfiguredPageSize() {
+        Consumer<CandleDto> consumer = candle -> { };
+        when(candleHistoryRepository.streamRange(TEST_SYMBOL, TimeInterval.ONE_MINUTE, FROM, TO, 2000, consumer)).thenReturn(3L);
+        assertEquals(3L, marketDataService.streamHistoricalMarketData(TEST_SYMBOL, TimeInterval.ONE_MINUTE, FROM, TO, consumer));
+    }
+
+    @Test
+    void streamHistoricalMarketData_invertedRange_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> marketDataService.streamHistoricalMarketData(TEST_SYMBOL, TimeInterval.ONE_MINUTE, TO, FROM, candle -> { }));
+        verifyNoInteractions(candleHistoryRepository);
+    }
+
+    @Test
+    void historicalMarketData_rangeStartsInArchive_readsArchivedPrefixAndRestFromDatabase(@TempDir Path dir) {
+        CandleArchiveConfig archiveConfig = new CandleArchiveConfig();
+        archiveConfig.setEnabled(true);
+        archiveConfig.setDirectory(dir.toString());
+        CandleArchive archive = new CandleArchive(archiveConfig);
+        CandleBatch archived = new CandleBatch(2);
+        archived.add(TEST_SYMBOL, TimeInterval.ONE_MINUTE, null, FROM, 100, 100, 101, 99, 100, 10);
+        archived.add(TEST_SYMBOL, TimeInterval.ONE_MINUTE, null, FROM + 60_000, 101, 100, 102, 99, 101, 20);
+        archive.append(TEST_SYMBOL, TimeInterval.ONE_MINUTE, archived);
+        MarketDataServiceImpl service = new MarketDataServiceImpl(marketDataRepository, marketDataCacheService,
+                candleHistoryRepository, queryConfig, archive, candleQueryRouter);
+        MarketData recent = new MarketData();
+        recent.setTimestamp(FROM + 120_000);
+        when(marketDataRepository.findBySymbolAndTimeIntervalAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+                eq(TEST_SYMBOL), eq(TimeInterval.ONE_MINUTE), eq(FROM + 60_001), eq(TO), any(Limit.class))).thenReturn(List.of(recent));
+        when(candleHistoryRepository.streamRange(eq(TEST_SYMBOL), eq(TimeInterval.ONE_MINUTE), eq(FROM + 60_001), eq(TO), eq(2000), any()))
+                .thenReturn(1L);
+
+        List<MarketData> result = service.getHistoricalMarketData(TEST_SYMBOL, TEST_INTERVAL, FROM, TO);
+        List<CandleDto> streamed = new ArrayList<>();
+        long count = service.streamHistoricalMarketData(TEST_SYMBOL, TimeInterval.ONE_MINUTE, FROM + 1, TO, streamed::add);
+
+        assertEquals(List.of(FROM, FROM + 60_000, FROM + 120_000), result.stream().map(MarketData::getTimestamp).toList());
+        assertEquals(101.0, result.get(1).getClosePrice());
+        assertEquals(2, count);
+        assertEquals(1, streamed.size());
+        assertEquals(20L, streamed.get(0).getVolume());
+        archive.close();
+    }
+
+    private static MarketData candleAt(long timestamp) {
+        MarketData candle = new MarketData();
+        candle.setSymbol(TEST_SYMBOL);
+        candle.setTimestamp(timestamp);
+        return candle;
+    }
 }
@@ -0,0 +1,17 @@
+package com.beartrail.user.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beartrail.password.hashing")
+public class PasswordHashingConfig {
+    private int strength = 10;                  // BCrypt log rounds; hashes at another cost are upgraded on login
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);   // leaves cores for other endpoints
+    private int queueCapacity = 64;             // hashes waiting for a thread before new ones are rejected with 429
+    private Duration timeout = Duration.ofSeconds(5);   // longest a request waits for its hash, queueing included
+}
@@ -3,6 +3,7 @@ package com.beartrail.user.controller;
 import com.beartrail.user.dto.AuthResponse;
 import com.beartrail.user.dto.LoginRequest;
 import com.beartrail.user.dto.UserRegistrationRequest;
+import com.beartrail.user.exception.PasswordHashingOverloadedException;
 import com.beartrail.user.exception.UserAlreadyExistsException;
 import com.beartrail.user.model.User;
 import com.beartrail.user.security.JwtUtil;
@@ -10,6 +11,7 @@ import com.beartrail.user.service.AuthService;
 import com.beartrail.user.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -41,6 +43,8 @@ public class AuthController {
             } else {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
+        } catch (PasswordHashingOverloadedException exception) {
+            return tooManyRequests("Login failed: " + exception.getMessage());
         } catch (Exception exception) {
             AuthResponse errorResponse = AuthResponse.builder()
                     .success(false)
@@ -69,6 +73,8 @@ public class AuthController {
                     .message("Registration failed: " + e.getMessage())
                     .build();
             return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        } catch (PasswordHashingOverloadedException e) {
+            return tooManyRequests("Registration failed: " + e.getMessage());
         } catch (Exception e) {
             AuthResponse errorResponse = AuthResponse.builder()
                     .success(false)
@@ -77,4 +83,14 @@ public class AuthController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
+
+    private static ResponseEntity<AuthResponse> tooManyRequests(String message) {
+        AuthResponse errorResponse = AuthResponse.builder()
+                .success(false)
+                .message(message)
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
 }
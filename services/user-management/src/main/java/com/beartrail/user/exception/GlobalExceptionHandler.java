@@ -1,5 +1,7 @@
 package com.beartrail.user.exception;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -42,6 +44,17 @@ public class GlobalExceptionHandler {
         return "User already exists: " + ex.getMessage();
     }
 
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingOverloadedException(PasswordHashingOverloadedException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Too many requests: " + ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public String handleGeneralException(Exception ex) {
         return "An error occurred: " + ex.getMessage();
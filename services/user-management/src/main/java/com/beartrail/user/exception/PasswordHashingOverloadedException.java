@@ -0,0 +1,20 @@
+package com.beartrail.user.exception;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a password cannot be hashed or verified because the hashing pool is saturated. Mapped to
+ * {@code 429 Too Many Requests}; the client should retry later.
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -30,7 +31,7 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ManyToMany(fetch = FetchType.EAGER)     // roles are reference data, assigned by id and never cascaded into
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -43,6 +44,10 @@ public class User {
     private boolean credentialsExpired = false;
     private boolean emailVerified = false;
 
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long tokenVersion = 0;      // carried by issued tokens; bumped to revoke them all
+
     public User(Long id, String firstName, String lastName, String email, String password, Set<Role> roles, boolean enabled, boolean locked, boolean credentialsExpired, boolean emailVerified) {
         this.id = id;
         this.firstName = firstName;
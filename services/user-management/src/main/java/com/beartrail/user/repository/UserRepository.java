@@ -1,16 +1,56 @@
 package com.beartrail.user.repository;
 
 import com.beartrail.user.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository <User, Long> {
     Optional<User> findById(Long id);
+    @EntityGraph(attributePaths = "roles")          // one joined query instead of a second select for the roles
     Optional<User> findByEmail(String email);
     Optional<User> findByEmailIgnoreCase(String email);
     boolean existsByEmail(String email);
     boolean existsByEmailIgnoreCase(String email);
-}
\ No newline at end of file
+
+    /**
+     * @return {@code [id, tokenVersion]} of every user whose tokens have been revoked at least once.
+     */
+    @Query("select u.id, u.tokenVersion from User u where u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
+
+    /**
+     * @return The user's token version, or empty if the user no longer exists.
+     */
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Long> findTokenVersionById(Long id);
+
+    /**
+     * Replaces a user's password hash and bumps their token version, provided the version is still the one
+     * the caller read, so two concurrent changes can't both succeed.
+     *
+     * @return The number of users updated: 0 if the user is gone or their version has moved on.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.password = :passwordHash, u.tokenVersion = u.tokenVersion + 1 "
+            + "where u.id = :id and u.tokenVersion = :expectedTokenVersion")
+    int updatePassword(Long id, String passwordHash, long expectedTokenVersion);
+
+    /**
+     * Deletes a user and their role assignments without loading them first.
+     *
+     * @return The number of users deleted.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(Long id);
+}
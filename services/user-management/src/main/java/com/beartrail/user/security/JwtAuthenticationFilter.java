@@ -1,5 +1,71 @@
 package com.beartrail.user.security;
 
-public class JwtAuthenticationFilter {
-    
-} 
\ No newline at end of file
+import com.beartrail.user.service.RoleRegistry;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying an {@code Authorization: Bearer} token. A request with a missing or
+ * invalid token continues unauthenticated, so protected endpoints reject it and public ones still work.
+ * The authentication is built from the token alone: its principal is the {@link JwtClaims} and its
+ * authorities are the roles the token carries, so no user is loaded per request.
+ * <p>
+ * Installed by {@link com.beartrail.user.config.SecurityConfig} into the security filter chain only; it
+ * is deliberately not a bean, which would also register it with the servlet container.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, TokenRevocationRegistry revocationRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.revocationRegistry = revocationRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX) || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            JwtClaims claims = jwtUtil.parse(header.substring(BEARER_PREFIX.length()));
+            if (claims.type() != JwtClaims.Type.ACCESS || revocationRegistry.isRevoked(claims)) {
+                logger.debug("Rejected bearer token: not a live access token");
+                filterChain.doFilter(request, response);
+                return;
+            }
+            List<GrantedAuthority> authorities = claims.roles().stream()
+                    .map(RoleRegistry::authority)
+                    .toList();
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(claims, null, authorities);
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        } catch (JwtException exception) {
+            logger.debug("Rejected bearer token: " + exception.getMessage());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,32 @@
+package com.beartrail.user.security;
+
+import com.beartrail.user.model.RoleName;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * The verified claims of a token, parsed once and shared by every check made against it. Access tokens
+ * carry everything a request needs to be authorised, so none of them costs a user lookup.
+ *
+ * @param userId  The user's primary key.
+ * @param roles   The user's roles when the token was issued.
+ * @param version The user's token version when the token was issued; a token is revoked once it falls
+ *                behind the version recorded by {@link TokenRevocationRegistry}.
+ */
+public record JwtClaims(String subject, Long userId, Set<RoleName> roles, long version, Type type,
+                        Instant issuedAt, Instant expiresAt) {
+
+    public JwtClaims {
+        roles = Set.copyOf(roles);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    public enum Type {
+        ACCESS,
+        REFRESH
+    }
+}
@@ -1,85 +1,159 @@
 package com.beartrail.user.security;
 
+import com.beartrail.user.model.Role;
+import com.beartrail.user.model.RoleName;
+import com.beartrail.user.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies HS256 tokens. The signing key and parser are built once; a verified token's claims
+ * are kept in a bounded concurrent cache until the token expires, so repeat requests with the same token
+ * cost a lock-free lookup instead of a signature check.
+ * <p>
+ * Tokens carry the user's id, roles and token version alongside the subject, so a request is authorised
+ * from the token alone; see {@link JwtClaims}.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:mySecretKey}")
-    private String secret;
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    static final String VERSION_CLAIM = "ver";
+    static final String TYPE_CLAIM = "typ";
+
+    private final SecretKey signKey;
+    private final JwtParser parser;
+    private final int jwtExpiration;
+    private final int refreshExpiration;
+    private final Clock clock;
+    private final Cache<String, JwtClaims> verifiedTokens;
+
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret:mySecretKey}") String secret,
+                   @Value("${jwt.expiration:86400}") int jwtExpiration,              // 24 hours in seconds
+                   @Value("${jwt.refresh-expiration:604800}") int refreshExpiration, // 7 days in seconds
+                   @Value("${jwt.cache-size:10000}") int cacheSize) {
+        this(secret, jwtExpiration, refreshExpiration, cacheSize, Clock.systemUTC());
+    }
 
-    @Value("${jwt.expiration:86400}") // 24 hours in seconds
-    private int jwtExpiration;
+    JwtUtil(String secret, int jwtExpiration, int refreshExpiration, int cacheSize, Clock clock) {
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser()
+                .verifyWith(signKey)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+        this.clock = clock;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new UntilTokenExpires())
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+    }
 
-    @Value("${jwt.refresh-expiration:604800}") // 7 days in seconds
-    private int refreshExpiration;
+    /**
+     * Verifies the token's signature and expiry, once per token while it stays cached.
+     *
+     * @throws JwtException If the token is malformed, tampered with or expired.
+     */
+    public JwtClaims parse(String token) {
+        return verifiedTokens.get(token, unverified -> toJwtClaims(parser.parseSignedClaims(unverified).getPayload()));
+    }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parse(token).subject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return Date.from(parse(token).expiresAt());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public <T> T extractClaim(String token, Function<JwtClaims, T> claimsResolver) {
+        return claimsResolver.apply(parse(token));
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String generateToken(User user) {
+        return createToken(user.getEmail(), user.getId(), roleNames(user.getRoles()), user.getTokenVersion(),
+                JwtClaims.Type.ACCESS, jwtExpiration);
     }
 
-    public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername(), jwtExpiration);
+    public String generateRefreshToken(User user) {
+        return createToken(user.getEmail(), user.getId(), roleNames(user.getRoles()), user.getTokenVersion(),
+                JwtClaims.Type.REFRESH, refreshExpiration);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername(), refreshExpiration);
+    /**
+     * Issues an access token from a verified refresh token's claims, without reloading the user.
+     */
+    public String generateToken(JwtClaims refreshClaims) {
+        return createToken(refreshClaims.subject(), refreshClaims.userId(), refreshClaims.roles(), refreshClaims.version(),
+                JwtClaims.Type.ACCESS, jwtExpiration);
     }
 
-    private String createToken(Map<String, Object> claims, String subject, int expiration) {
+    private String createToken(String subject, Long userId, Set<RoleName> roles, long version, JwtClaims.Type type, int expiration) {
+        long now = clock.millis();
         return Jwts
                 .builder()
-                .claims(claims)
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration * 1000L))
-                .signWith(getSignKey(), Jwts.SIG.HS256)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, roles.stream().map(RoleName::name).sorted().toList())
+                .claim(VERSION_CLAIM, version)
+                .claim(TYPE_CLAIM, type.name())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration * 1000L))
+                .signWith(signKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private static JwtClaims toJwtClaims(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        String type = claims.get(TYPE_CLAIM, String.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (claims.getSubject() == null || claims.getExpiration() == null || userId == null || version == null
+                || type == null || roles == null) {
+            throw new MalformedJwtException("Token is missing required claims");
+        }
+        try {
+            Set<RoleName> roleNames = EnumSet.noneOf(RoleName.class);
+            for (Object role : roles) {
+                roleNames.add(RoleName.valueOf(String.valueOf(role)));
+            }
+            return new JwtClaims(claims.getSubject(), userId.longValue(), roleNames, version.longValue(),
+                    JwtClaims.Type.valueOf(type),
+                    claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                    claims.getExpiration().toInstant());
+        } catch (IllegalArgumentException exception) {
+            throw new MalformedJwtException("Token has an unknown role or type", exception);
+        }
     }
 
-    private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Set<RoleName> roleNames(Collection<Role> roles) {
+        Set<RoleName> names = EnumSet.noneOf(RoleName.class);
+        for (Role role : roles) {
+            names.add(role.getName());
+        }
+        return names;
     }
 
     public long getJwtExpiration() {
@@ -89,4 +163,25 @@ public class JwtUtil {
     public long getRefreshExpiration() {
         return refreshExpiration;
     }
+
+    /**
+     * Evicts cached claims the moment their token expires, measured on the ticker built from the token clock.
+     */
+    private static final class UntilTokenExpires implements Expiry<String, JwtClaims> {
+
+        @Override
+        public long expireAfterCreate(String token, JwtClaims claims, long currentTime) {
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(claims.expiresAt().toEpochMilli()) - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package com.beartrail.user.security;
+
+import com.beartrail.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether an otherwise valid token has been revoked, without touching the database per request.
+ * Every user has a token version, stamped into each token issued to them; bumping it revokes all their
+ * outstanding tokens at once. Only users whose version has ever been bumped are held in memory, loaded at
+ * startup and kept current as versions are saved.
+ * <p>
+ * The registry is local to one instance, so a revocation made elsewhere reaches it only through a refresh,
+ * which checks the stored version (and that the user still exists) before issuing a token. Until then the
+ * user's access tokens stay valid here for at most their lifetime.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final long REVOKED = Long.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final Map<Long, Long> tokenVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenRevocationRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        for (Object[] row : userRepository.findRevokedTokenVersions()) {
+            tokenVersions.merge((Long) row[0], (Long) row[1], Math::max);
+        }
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        return claims.version() < tokenVersions.getOrDefault(claims.userId(), 0L);
+    }
+
+    /**
+     * Records a user's stored token version, revoking every token stamped with an earlier one. Applied once
+     * the surrounding transaction (if any) commits, so a rolled back change never revokes tokens.
+     */
+    public void recordTokenVersion(Long userId, long tokenVersion) {
+        afterCommit(() -> tokenVersions.merge(userId, tokenVersion, Math::max));
+    }
+
+    /**
+     * Revokes every token of a deleted user, once the surrounding transaction (if any) commits.
+     */
+    public void revokeAll(Long userId) {
+        afterCommit(() -> tokenVersions.put(userId, REVOKED));
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -3,20 +3,16 @@ package com.beartrail.user.security;
 import com.beartrail.user.model.User;
 import com.beartrail.user.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
-
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -38,20 +34,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             throw new LockedException("User account is locked");
         }
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities(mapRolesToAuthorities(user))
-                .accountExpired(false)
-                .accountLocked(user.isLocked())
-                .credentialsExpired(user.isCredentialsExpired())
-                .disabled(!user.isEnabled())
-                .build();
+        return new UserPrincipal(user);
     }
 
-    private Collection<? extends GrantedAuthority> mapRolesToAuthorities(User user) {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName().name()))
-                .collect(Collectors.toList());
+    /**
+     * Stores a password rehashed on login because its hash was made at another BCrypt cost than the
+     * configured one; see {@link BoundedPasswordEncoder#upgradeEncoding(String)}.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((UserPrincipal) userDetails).getUser();
+        user.setPassword(newPassword);
+        return new UserPrincipal(userRepository.save(user));
     }
 }
@@ -0,0 +1,58 @@
+package com.beartrail.user.security;
+
+import com.beartrail.user.model.User;
+import com.beartrail.user.service.RoleRegistry;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The authenticated principal of a login, carrying the {@link User} it was loaded from, so that the
+ * login response is built without looking the user up again.
+ */
+public class UserPrincipal implements UserDetails {
+
+    private final User user;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(User user) {
+        this.user = user;
+        this.authorities = RoleRegistry.authoritiesOf(user.getRoles());
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return user.getPassword();
+    }
+
+    @Override
+    public String getUsername() {
+        return user.getEmail();
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !user.isLocked();
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return !user.isCredentialsExpired();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return user.isEnabled();
+    }
+}
@@ -0,0 +1,131 @@
+package com.beartrail.user.service;
+
+import com.beartrail.user.model.Role;
+import com.beartrail.user.model.RoleName;
+import com.beartrail.user.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The roles table, loaded at startup into an immutable snapshot of {@link RoleName} to {@link Role}, so
+ * registration attaches a role without querying for it. Each role name also has one shared
+ * {@link GrantedAuthority}, used by every login and authenticated request.
+ * <p>
+ * Any insert, update or delete of a role through Hibernate marks the snapshot stale, and the next lookup
+ * reloads it; so does a lookup of a role missing from the snapshot, e.g. one seeded by another instance.
+ */
+@Component
+public class RoleRegistry implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Map<RoleName, GrantedAuthority> AUTHORITIES = authorities();
+
+    private final RoleRepository roleRepository;
+    private volatile Map<RoleName, Role> roles = Map.of();
+    private volatile boolean stale = true;
+
+    @Autowired
+    public RoleRegistry(RoleRepository roleRepository, EntityManagerFactory entityManagerFactory) {
+        this(roleRepository);
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Replaces the snapshot with the current contents of the roles table.
+     */
+    @PostConstruct
+    public void refresh() {
+        stale = false;                          // a change while loading marks it stale again
+        Map<RoleName, Role> loaded = new EnumMap<>(RoleName.class);
+        for (Role role : roleRepository.findAll()) {
+            loaded.put(role.getName(), role);
+        }
+        roles = Collections.unmodifiableMap(loaded);
+    }
+
+    public Optional<Role> findByName(RoleName name) {
+        boolean refreshed = stale;
+        if (refreshed) {
+            refresh();
+        }
+        Role role = roles.get(name);
+        if (role == null && !refreshed) {
+            refresh();
+            role = roles.get(name);
+        }
+        return Optional.ofNullable(role);
+    }
+
+    public static GrantedAuthority authority(RoleName name) {
+        return AUTHORITIES.get(name);
+    }
+
+    public static List<GrantedAuthority> authoritiesOf(Collection<Role> roles) {
+        return roles.stream()
+                .map(role -> authority(role.getName()))
+                .toList();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Role) {
+            stale = true;
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Role) {
+            stale = true;
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Role) {
+            stale = true;
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static Map<RoleName, GrantedAuthority> authorities() {
+        Map<RoleName, GrantedAuthority> authorities = new EnumMap<>(RoleName.class);
+        for (RoleName name : RoleName.values()) {
+            authorities.put(name, new SimpleGrantedAuthority(name.name()));
+        }
+        return Collections.unmodifiableMap(authorities);
+    }
+}
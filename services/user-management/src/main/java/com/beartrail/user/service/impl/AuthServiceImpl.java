@@ -2,25 +2,29 @@ package com.beartrail.user.service.impl;
 
 import com.beartrail.user.dto.AuthResponse;
 import com.beartrail.user.dto.LoginRequest;
+import com.beartrail.user.exception.PasswordHashingOverloadedException;
 import com.beartrail.user.exception.UserNotFoundException;
 import com.beartrail.user.model.Role;
 import com.beartrail.user.model.RoleName;
 import com.beartrail.user.model.User;
 import com.beartrail.user.repository.UserRepository;
+import com.beartrail.user.security.JwtClaims;
 import com.beartrail.user.security.JwtUtil;
+import com.beartrail.user.security.TokenRevocationRegistry;
+import com.beartrail.user.security.UserPrincipal;
 import com.beartrail.user.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,20 +34,20 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationRegistry revocationRegistry;
 
     @Autowired
     public AuthServiceImpl(UserRepository userRepository,
                            PasswordEncoder passwordEncoder,
                            JwtUtil jwtUtil,
-                           UserDetailsService userDetailsService,
-                           AuthenticationManager authenticationManager) {
+                           AuthenticationManager authenticationManager,
+                           TokenRevocationRegistry revocationRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
         this.authenticationManager = authenticationManager;
+        this.revocationRegistry = revocationRegistry;
     }
 
     @Override
@@ -53,13 +57,10 @@ public class AuthServiceImpl implements AuthService {
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword());
 
             Authentication authentication = authenticationManager.authenticate(authToken);
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            User user = ((UserPrincipal) authentication.getPrincipal()).getUser();
 
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new RuntimeException("User not found with email: " + request.getEmail()));
-
-            String accessToken = jwtUtil.generateToken(userDetails);
-            String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+            String accessToken = jwtUtil.generateToken(user);
+            String refreshToken = jwtUtil.generateRefreshToken(user);
 
             Set<RoleName> roleNames = user.getRoles().stream()
                     .map(Role::getName)
@@ -85,6 +86,8 @@ public class AuthServiceImpl implements AuthService {
                     .message("Authentication successful")
                     .build();
 
+        } catch (PasswordHashingOverloadedException exception) {
+            throw exception;
         } catch (AuthenticationException exception) {
             return AuthResponse.builder()
                     .success(false)
@@ -101,11 +104,11 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public String refreshToken(String oldToken) {
         try {
-            String username = jwtUtil.extractUsername(oldToken);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            JwtClaims claims = jwtUtil.parse(oldToken);
 
-            if(jwtUtil.validateToken(oldToken, userDetails)) {
-                return jwtUtil.generateToken(userDetails);
+            if(claims.type() == JwtClaims.Type.REFRESH && !revocationRegistry.isRevoked(claims)
+                    && isCurrent(claims)) {
+                return jwtUtil.generateToken(claims);
             } else {
                 throw new BadCredentialsException("Invalid refresh token");
             }
@@ -114,6 +117,26 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    /**
+     * Checks the refresh token against the stored token version, which may have been bumped (or the user
+     * deleted) on another instance, and brings this instance's registry up to date.
+     */
+    private boolean isCurrent(JwtClaims claims) {
+        Optional<Long> tokenVersion = userRepository.findTokenVersionById(claims.userId());
+        if (tokenVersion.isEmpty()) {
+            revocationRegistry.revokeAll(claims.userId());
+            return false;
+        }
+        if (tokenVersion.get() > 0) {
+            revocationRegistry.recordTokenVersion(claims.userId(), tokenVersion.get());
+        }
+        return claims.version() >= tokenVersion.get();
+    }
+
+    /**
+     * Both BCrypt calls run outside any transaction, since each may queue on the hashing pool; the change
+     * itself is a single conditional update, and the new token version is recorded once it has committed.
+     */
     @Override
     public void changePassword(Long userId, String oldPassword, String newPassword) throws UserNotFoundException {
         User user = userRepository.findById(userId)
@@ -123,8 +146,12 @@ public class AuthServiceImpl implements AuthService {
             throw new BadCredentialsException("Old password is incorrect");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        String passwordHash = passwordEncoder.encode(newPassword);
+        long tokenVersion = user.getTokenVersion();
+        if (userRepository.updatePassword(userId, passwordHash, tokenVersion) == 0) {
+            throw new OptimisticLockingFailureException("Password of user " + userId + " was changed concurrently");
+        }
+        revocationRegistry.recordTokenVersion(userId, tokenVersion + 1);
     }
 
     // Optionally: void initiatePasswordReset(String email);
@@ -6,12 +6,15 @@ import com.beartrail.user.exception.UserAlreadyExistsException;
 import com.beartrail.user.model.Role;
 import com.beartrail.user.model.RoleName;
 import com.beartrail.user.model.User;
-import com.beartrail.user.repository.RoleRepository;
 import com.beartrail.user.repository.UserRepository;
+import com.beartrail.user.security.TokenRevocationRegistry;
+import com.beartrail.user.service.RoleRegistry;
 import com.beartrail.user.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.HashSet;
 import java.util.List;
@@ -22,14 +25,17 @@ import java.util.Set;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationRegistry revocationRegistry;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, RoleRegistry roleRegistry, PasswordEncoder passwordEncoder,
+                           TokenRevocationRegistry revocationRegistry) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
+        this.revocationRegistry = revocationRegistry;
     }
 
     @Override
@@ -42,14 +48,19 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByEmail(email);
     }
 
+    /**
+     * The unique email constraint decides whether the email is taken, so a registration is a single
+     * insert. Only when running inside a caller's transaction is the email checked first: a failed
+     * insert would leave that transaction's persistence context unusable.
+     */
     @Override
     public Optional<User> registerUser(UserRegistrationRequest request) {
-        if(userRepository.findByEmail(request.getEmail()).isPresent()) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && userRepository.existsByEmail(request.getEmail())) {
             throw new UserAlreadyExistsException("Email already in use");
         }
 
         // Find the default USER role
-        Role userRole = roleRepository.findByName(RoleName.ROLE_USER)
+        Role userRole = roleRegistry.findByName(RoleName.ROLE_USER)
                 .orElseThrow(() -> new RuntimeException("Default role ROLE_USER not found"));
 
         User user = new User();
@@ -67,13 +78,18 @@ public class UserServiceImpl implements UserService {
         roles.add(userRole);
         user.setRoles(roles);
 
-        return Optional.of(userRepository.save(user));
+        try {
+            return Optional.of(userRepository.save(user));
+        } catch (DataIntegrityViolationException exception) {
+            // The other columns are validated non-null and the role exists, so the email is taken
+            throw new UserAlreadyExistsException("Email already in use", exception);
+        }
     }
 
     @Override
     public Boolean deleteUser(Long id) {
-        if (userRepository.findById(id).isPresent()) {
-            userRepository.deleteById(id);
+        if (userRepository.deleteUserById(id) > 0) {
+            revocationRegistry.revokeAll(id);
             return true;
         } else {
             return false;
@@ -5,6 +5,7 @@ import com.beartrail.user.TestConstants;
 import com.beartrail.user.dto.AuthResponse;
 import com.beartrail.user.dto.LoginRequest;
 import com.beartrail.user.dto.UserRegistrationRequest;
+import com.beartrail.user.exception.PasswordHashingOverloadedException;
 import com.beartrail.user.exception.UserAlreadyExistsException;
 import com.beartrail.user.model.RoleName;
 import com.beartrail.user.model.User;
@@ -160,6 +161,24 @@ class AuthControllerTest {
                 .andExpect(jsonPath(TestConstants.JSON_MESSAGE).value("Service unavailable"));
     }
 
+    @Test
+    @WithMockUser
+    void login_HashingOverloaded_ReturnsTooManyRequests() throws Exception {
+        // Given
+        when(authService.authenticate(any(LoginRequest.class)))
+                .thenThrow(new PasswordHashingOverloadedException("Too many password requests in progress"));
+
+        // When & Then
+        mockMvc.perform(post(TestConstants.LOGIN_ENDPOINT)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath(TestConstants.JSON_SUCCESS).value(false))
+                .andExpect(jsonPath(TestConstants.JSON_MESSAGE).value("Login failed: Too many password requests in progress"));
+    }
+
     @Test
     @WithMockUser
     void login_EmptyRequestBody() throws Exception {
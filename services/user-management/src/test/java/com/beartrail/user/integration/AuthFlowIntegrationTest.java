@@ -15,6 +15,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
@@ -261,6 +262,29 @@ class AuthFlowIntegrationTest {
         assertNotNull(authResponse.getExpiresAt());
     }
 
+    @Test
+    void bearerAuthenticatedPost_WithoutCsrfToken_IsNotForbidden() throws Exception {
+        createTestUser();
+        MvcResult loginResult = mockMvc.perform(post(TestConstants.LOGIN_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        AuthResponse authResponse = objectMapper.readValue(loginResult.getResponse().getContentAsString(), AuthResponse.class);
+
+        // Passes both CSRF and authentication, so only the missing handler answers
+        mockMvc.perform(post("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + authResponse.getAccessToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/users/me")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
     private void createTestUser() {
         // Check if user already exists, if so delete it first
         userRepository.findByEmail(TestConstants.TEST_EMAIL).ifPresent(userRepository::delete);
@@ -0,0 +1,129 @@
+package com.beartrail.user.integration;
+
+import com.beartrail.user.TestConstants;
+import com.beartrail.user.model.Role;
+import com.beartrail.user.model.RoleName;
+import com.beartrail.user.model.User;
+import com.beartrail.user.repository.RoleRepository;
+import com.beartrail.user.repository.UserRepository;
+import com.beartrail.user.service.AuthService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Not {@code @Transactional}: the password change has to commit on its own, and a test transaction would
+ * hide whether the hashing runs inside one.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PasswordChangeIntegrationTest {
+
+    private static final String NEW_PASSWORD = "newPassword456";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Role userRole = new Role();
+        userRole.setName(RoleName.ROLE_USER);
+        roleRepository.save(userRole);
+
+        user = new User();
+        user.setFirstName(TestConstants.TEST_FIRST_NAME);
+        user.setLastName(TestConstants.TEST_LAST_NAME);
+        user.setEmail(TestConstants.TEST_EMAIL);
+        user.setPassword(passwordEncoder.encode(TestConstants.TEST_PASSWORD));
+        user.setEnabled(true);
+        user.setRoles(Set.of(userRole));
+        user = userRepository.save(user);
+        clearInvocations(passwordEncoder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void changePassword_HashesWithoutHoldingTransactionOrConnection() throws Exception {
+        // Given
+        List<String> heldDuringHashing = new ArrayList<>();
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        doAnswer(invocation -> {
+            recordHeldResources(pool, heldDuringHashing);
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).matches(any(), anyString());
+        doAnswer(invocation -> {
+            recordHeldResources(pool, heldDuringHashing);
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+
+        // When
+        authService.changePassword(user.getId(), TestConstants.TEST_PASSWORD, NEW_PASSWORD);
+
+        // Then
+        verify(passwordEncoder).matches(any(), anyString());
+        verify(passwordEncoder).encode(any());
+        assertEquals(List.of(), heldDuringHashing);
+        User changed = userRepository.findById(user.getId()).orElseThrow();
+        assertTrue(passwordEncoder.matches(NEW_PASSWORD, changed.getPassword()));
+        assertEquals(1L, changed.getTokenVersion());
+    }
+
+    @Test
+    void updatePassword_StaleTokenVersion_UpdatesNothing() {
+        // Given
+        assertEquals(1, userRepository.updatePassword(user.getId(), "firstHash", 0L));
+
+        // When
+        int updated = userRepository.updatePassword(user.getId(), "secondHash", 0L);
+
+        // Then
+        assertEquals(0, updated);
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("firstHash", stored.getPassword());
+        assertEquals(1L, stored.getTokenVersion());
+    }
+
+    private static void recordHeldResources(HikariDataSource pool, List<String> held) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            held.add("transaction");
+        }
+        if (pool.getHikariPoolMXBean().getActiveConnections() > 0) {
+            held.add("connection");
+        }
+    }
+}
@@ -207,6 +207,28 @@ class UserRepositoryTest {
         assertFalse(deletedUser.isPresent());
     }
 
+    @Test
+    void findTokenVersionById_UserExists() {
+        // Given
+        testUser.setTokenVersion(3L);
+        User savedUser = entityManager.persistAndFlush(testUser);
+
+        // When
+        Optional<Long> tokenVersion = userRepository.findTokenVersionById(savedUser.getId());
+
+        // Then
+        assertEquals(Optional.of(3L), tokenVersion);
+    }
+
+    @Test
+    void findTokenVersionById_UserNotExists() {
+        // When
+        Optional<Long> tokenVersion = userRepository.findTokenVersionById(999L);
+
+        // Then
+        assertTrue(tokenVersion.isEmpty());
+    }
+
     @Test
     void userRolesRelationship() {
         // Given
@@ -0,0 +1,68 @@
+package com.beartrail.user.security;
+
+import com.beartrail.user.TestConstants;
+import com.beartrail.user.config.PasswordHashingConfig;
+import com.beartrail.user.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        PasswordHashingConfig config = new PasswordHashingConfig();
+        config.setStrength(4);
+        config.setThreads(1);
+        config.setQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void encode_ThenMatches_VerifiesOnHashingPool() {
+        // When
+        String encoded = encoder.encode(TestConstants.TEST_PASSWORD);
+
+        // Then
+        assertTrue(encoded.startsWith("$2a$04$"));
+        assertTrue(encoder.matches(TestConstants.TEST_PASSWORD, encoded));
+        assertFalse(encoder.matches("wrongPassword", encoded));
+        assertEquals(1, meterRegistry.get("user.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("user.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void upgradeEncoding_HashAtAnotherCost_IsUpgraded() {
+        // Given
+        String current = encoder.encode(TestConstants.TEST_PASSWORD);
+        String stale = new BCryptPasswordEncoder(5).encode(TestConstants.TEST_PASSWORD);
+
+        // When & Then
+        assertFalse(encoder.upgradeEncoding(current));
+        assertTrue(encoder.upgradeEncoding(stale));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void encode_PoolNotAccepting_FailsFast() {
+        // Given
+        encoder.shutdown();
+
+        // When & Then
+        assertThrows(PasswordHashingOverloadedException.class, () -> encoder.encode(TestConstants.TEST_PASSWORD));
+        assertEquals(1.0, meterRegistry.get("user.password.hash.rejected").counter().count());
+    }
+}
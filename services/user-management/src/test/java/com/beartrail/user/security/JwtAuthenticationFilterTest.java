@@ -0,0 +1,134 @@
+package com.beartrail.user.security;
+
+import com.beartrail.user.TestConstants;
+import com.beartrail.user.model.RoleName;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_ValidBearerToken_AuthenticatesRequest() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid-token");
+        JwtClaims claims = claims(JwtClaims.Type.ACCESS);
+        when(jwtUtil.parse("valid-token")).thenReturn(claims);
+        when(revocationRegistry.isRevoked(claims)).thenReturn(false);
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(claims, authentication.getPrincipal());
+        assertEquals(Set.of("ROLE_USER"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        assertTrue(authentication.isAuthenticated());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_InvalidBearerToken_ContinuesUnauthenticated() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer bad-token");
+        when(jwtUtil.parse("bad-token")).thenThrow(new MalformedJwtException("Malformed"));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(revocationRegistry);
+    }
+
+    @Test
+    void doFilter_RevokedBearerToken_ContinuesUnauthenticated() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revoked-token");
+        JwtClaims claims = claims(JwtClaims.Type.ACCESS);
+        when(jwtUtil.parse("revoked-token")).thenReturn(claims);
+        when(revocationRegistry.isRevoked(claims)).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_RefreshToken_ContinuesUnauthenticated() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer refresh-token");
+        when(jwtUtil.parse("refresh-token")).thenReturn(claims(JwtClaims.Type.REFRESH));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(revocationRegistry);
+    }
+
+    @Test
+    void doFilter_NoBearerToken_SkipsTokenParsing() throws Exception {
+        // Given
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(jwtUtil);
+    }
+
+    private static JwtClaims claims(JwtClaims.Type type) {
+        return new JwtClaims(TestConstants.TEST_EMAIL, 1L, Set.of(RoleName.ROLE_USER), 0, type,
+                Instant.now(), Instant.now().plusSeconds(60));
+    }
+}
@@ -0,0 +1,151 @@
+package com.beartrail.user.security;
+
+import com.beartrail.user.TestConstants;
+import com.beartrail.user.model.Role;
+import com.beartrail.user.model.RoleName;
+import com.beartrail.user.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "testSecretKeyForTestingPurposesOnlyAtLeast256BitsLongForJwtSecurity";
+    private static final Instant NOW = Instant.parse("2025-08-06T03:45:00Z");
+
+    private JwtUtil jwtUtil;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtilAt(NOW);
+        Role role = new Role();
+        role.setId(1L);
+        role.setName(RoleName.ROLE_USER);
+        user = new User();
+        user.setId(42L);
+        user.setEmail(TestConstants.TEST_EMAIL);
+        user.setRoles(Set.of(role));
+        user.setTokenVersion(3);
+    }
+
+    @Test
+    void parse_ValidToken_ReturnsClaims() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+
+        // When
+        JwtClaims claims = jwtUtil.parse(token);
+
+        // Then
+        assertEquals(TestConstants.TEST_EMAIL, claims.subject());
+        assertEquals(42L, claims.userId());
+        assertEquals(Set.of(RoleName.ROLE_USER), claims.roles());
+        assertEquals(3, claims.version());
+        assertEquals(JwtClaims.Type.ACCESS, claims.type());
+        assertEquals(NOW, claims.issuedAt());
+        assertEquals(NOW.plusSeconds(60), claims.expiresAt());
+    }
+
+    @Test
+    void generateToken_FromRefreshClaims_CarriesIdentityIntoAccessToken() {
+        // Given
+        JwtClaims refresh = jwtUtil.parse(jwtUtil.generateRefreshToken(user));
+
+        // When
+        JwtClaims access = jwtUtil.parse(jwtUtil.generateToken(refresh));
+
+        // Then
+        assertEquals(JwtClaims.Type.REFRESH, refresh.type());
+        assertEquals(NOW.plusSeconds(600), refresh.expiresAt());
+        assertEquals(JwtClaims.Type.ACCESS, access.type());
+        assertEquals(refresh.userId(), access.userId());
+        assertEquals(refresh.roles(), access.roles());
+        assertEquals(refresh.version(), access.version());
+    }
+
+    @Test
+    void parse_SameTokenTwice_ReusesVerifiedClaims() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+
+        // When
+        JwtClaims first = jwtUtil.parse(token);
+        JwtClaims second = jwtUtil.parse(token);
+
+        // Then
+        assertSame(first, second);
+    }
+
+    @Test
+    void parse_TamperedToken_Throws() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // When & Then
+        assertThrows(JwtException.class, () -> jwtUtil.parse(tampered));
+    }
+
+    @Test
+    void parse_ExpiredToken_Throws() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+        jwtUtil.parse(token);
+
+        // When & Then
+        assertThrows(ExpiredJwtException.class, () -> jwtUtilAt(NOW.plusSeconds(120)).parse(token));
+    }
+
+    @Test
+    void parse_CachedTokenPastExpiry_IsVerifiedAgainAndRejected() {
+        // Given
+        MutableClock clock = new MutableClock(NOW);
+        JwtUtil cachingJwtUtil = new JwtUtil(SECRET, 60, 600, 16, clock);
+        String token = cachingJwtUtil.generateToken(user);
+        cachingJwtUtil.parse(token);
+
+        // When
+        clock.now = NOW.plusSeconds(120);
+
+        // Then
+        assertThrows(ExpiredJwtException.class, () -> cachingJwtUtil.parse(token));
+    }
+
+    private static JwtUtil jwtUtilAt(Instant now) {
+        return new JwtUtil(SECRET, 60, 600, 16, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.beartrail.user.security;
+
+import com.beartrail.user.TestConstants;
+import com.beartrail.user.model.RoleName;
+import com.beartrail.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TokenRevocationRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void load_RevokesTokensOlderThanStoredVersion() {
+        // Given
+        when(userRepository.findRevokedTokenVersions()).thenReturn(List.<Object[]>of(new Object[]{USER_ID, 2L}));
+
+        // When
+        registry.load();
+
+        // Then
+        assertTrue(registry.isRevoked(claims(1)));
+        assertFalse(registry.isRevoked(claims(2)));
+    }
+
+    @Test
+    void recordTokenVersion_OutsideTransaction_AppliesImmediately() {
+        // When
+        registry.recordTokenVersion(USER_ID, 1L);
+
+        // Then
+        assertTrue(registry.isRevoked(claims(0)));
+        assertFalse(registry.isRevoked(claims(1)));
+    }
+
+    @Test
+    void recordTokenVersion_InTransaction_AppliesOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        registry.recordTokenVersion(USER_ID, 1L);
+
+        // Then
+        assertFalse(registry.isRevoked(claims(0)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(registry.isRevoked(claims(0)));
+    }
+
+    @Test
+    void revokeAll_RolledBack_LeavesTokensValid() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        registry.revokeAll(USER_ID);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertFalse(registry.isRevoked(claims(0)));
+    }
+
+    @Test
+    void recordTokenVersion_NeverLowersVersion() {
+        // When
+        registry.recordTokenVersion(USER_ID, 2L);
+        registry.recordTokenVersion(USER_ID, 1L);
+
+        // Then
+        assertTrue(registry.isRevoked(claims(1)));
+    }
+
+    private static JwtClaims claims(long version) {
+        return new JwtClaims(TestConstants.TEST_EMAIL, USER_ID, Set.of(RoleName.ROLE_USER), version,
+                JwtClaims.Type.REFRESH, Instant.now(), Instant.now().plusSeconds(60));
+    }
+}
@@ -8,22 +8,26 @@ import com.beartrail.user.model.Role;
 import com.beartrail.user.model.RoleName;
 import com.beartrail.user.model.User;
 import com.beartrail.user.repository.UserRepository;
+import com.beartrail.user.security.JwtClaims;
 import com.beartrail.user.security.JwtUtil;
+import com.beartrail.user.security.TokenRevocationRegistry;
+import com.beartrail.user.security.UserPrincipal;
 import com.beartrail.user.service.impl.AuthServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Set;
 
@@ -43,17 +47,14 @@ class AuthServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
-    @Mock
-    private UserDetailsService userDetailsService;
-
     @Mock
     private AuthenticationManager authenticationManager;
 
     @Mock
-    private Authentication authentication;
+    private TokenRevocationRegistry revocationRegistry;
 
     @Mock
-    private UserDetails userDetails;
+    private Authentication authentication;
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -88,10 +89,9 @@ class AuthServiceTest {
         // Given
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateToken(userDetails)).thenReturn("access-token");
-        when(jwtUtil.generateRefreshToken(userDetails)).thenReturn("refresh-token");
+        when(authentication.getPrincipal()).thenReturn(new UserPrincipal(testUser));
+        when(jwtUtil.generateToken(testUser)).thenReturn("access-token");
+        when(jwtUtil.generateRefreshToken(testUser)).thenReturn("refresh-token");
         when(jwtUtil.getJwtExpiration()).thenReturn(3600L);
 
         // When
@@ -111,6 +111,7 @@ class AuthServiceTest {
         assertTrue(response.getRoles().contains(RoleName.ROLE_USER));
         assertTrue(response.isEmailVerified());
         assertTrue(response.isEnabled());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -130,12 +131,11 @@ class AuthServiceTest {
     }
 
     @Test
-    void authenticate_UserNotFound() {
+    void authenticate_UnexpectedPrincipal() {
         // Given
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.empty());
+        when(authentication.getPrincipal()).thenReturn(TestConstants.TEST_EMAIL);
 
         // When
         AuthResponse response = authService.authenticate(loginRequest);
@@ -165,13 +165,13 @@ class AuthServiceTest {
     void refreshToken_Success() {
         // Given
         String oldToken = "old-token";
-        String username = "john.doe@example.com";
         String newToken = "new-token";
+        JwtClaims claims = claims(JwtClaims.Type.REFRESH);
 
-        when(jwtUtil.extractUsername(oldToken)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtUtil.validateToken(oldToken, userDetails)).thenReturn(true);
-        when(jwtUtil.generateToken(userDetails)).thenReturn(newToken);
+        when(jwtUtil.parse(oldToken)).thenReturn(claims);
+        when(revocationRegistry.isRevoked(claims)).thenReturn(false);
+        when(userRepository.findTokenVersionById(testUser.getId())).thenReturn(Optional.of(0L));
+        when(jwtUtil.generateToken(claims)).thenReturn(newToken);
 
         // When
         String result = authService.refreshToken(oldToken);
@@ -180,25 +180,69 @@ class AuthServiceTest {
         assertEquals(newToken, result);
     }
 
+    @Test
+    void refreshToken_UserDeleted() {
+        // Given
+        String oldToken = "deleted-user-token";
+        JwtClaims claims = claims(JwtClaims.Type.REFRESH);
+
+        when(jwtUtil.parse(oldToken)).thenReturn(claims);
+        when(revocationRegistry.isRevoked(claims)).thenReturn(false);
+        when(userRepository.findTokenVersionById(testUser.getId())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(BadCredentialsException.class, () -> authService.refreshToken(oldToken));
+        verify(revocationRegistry).revokeAll(testUser.getId());
+        verify(jwtUtil, never()).generateToken(any(JwtClaims.class));
+    }
+
+    @Test
+    void refreshToken_RevokedOnAnotherInstance() {
+        // Given
+        String oldToken = "stale-token";
+        JwtClaims claims = claims(JwtClaims.Type.REFRESH);
+
+        when(jwtUtil.parse(oldToken)).thenReturn(claims);
+        when(revocationRegistry.isRevoked(claims)).thenReturn(false);
+        when(userRepository.findTokenVersionById(testUser.getId())).thenReturn(Optional.of(1L));
+
+        // When & Then
+        assertThrows(BadCredentialsException.class, () -> authService.refreshToken(oldToken));
+        verify(revocationRegistry).recordTokenVersion(testUser.getId(), 1L);
+        verify(jwtUtil, never()).generateToken(any(JwtClaims.class));
+    }
+
     @Test
     void refreshToken_InvalidToken() {
         // Given
         String oldToken = "invalid-token";
-        String username = "john.doe@example.com";
+        JwtClaims claims = claims(JwtClaims.Type.REFRESH);
 
-        when(jwtUtil.extractUsername(oldToken)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtUtil.validateToken(oldToken, userDetails)).thenReturn(false);
+        when(jwtUtil.parse(oldToken)).thenReturn(claims);
+        when(revocationRegistry.isRevoked(claims)).thenReturn(true);
 
         // When & Then
         assertThrows(BadCredentialsException.class, () -> authService.refreshToken(oldToken));
+        verify(jwtUtil, never()).generateToken(any(JwtClaims.class));
+        verify(userRepository, never()).findTokenVersionById(any());
+    }
+
+    @Test
+    void refreshToken_AccessTokenRejected() {
+        // Given
+        String oldToken = "access-token";
+        when(jwtUtil.parse(oldToken)).thenReturn(claims(JwtClaims.Type.ACCESS));
+
+        // When & Then
+        assertThrows(BadCredentialsException.class, () -> authService.refreshToken(oldToken));
+        verifyNoInteractions(revocationRegistry);
     }
 
     @Test
     void refreshToken_ExtractionFailure() {
         // Given
         String oldToken = "malformed-token";
-        when(jwtUtil.extractUsername(oldToken)).thenThrow(new RuntimeException("Token malformed"));
+        when(jwtUtil.parse(oldToken)).thenThrow(new RuntimeException("Token malformed"));
 
         // When & Then
         assertThrows(BadCredentialsException.class, () -> authService.refreshToken(oldToken));
@@ -215,13 +259,33 @@ class AuthServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(oldPassword, testUser.getPassword())).thenReturn(true);
         when(passwordEncoder.encode(newPassword)).thenReturn(encodedNewPassword);
+        when(userRepository.updatePassword(userId, encodedNewPassword, 0L)).thenReturn(1);
 
         // When
         assertDoesNotThrow(() -> authService.changePassword(userId, oldPassword, newPassword));
 
         // Then
-        verify(userRepository).save(testUser);
-        assertEquals(encodedNewPassword, testUser.getPassword());
+        InOrder inOrder = inOrder(passwordEncoder, userRepository, revocationRegistry);
+        inOrder.verify(passwordEncoder).encode(newPassword);
+        inOrder.verify(userRepository).updatePassword(userId, encodedNewPassword, 0L);
+        inOrder.verify(revocationRegistry).recordTokenVersion(userId, 1L);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void changePassword_ConcurrentChange_DoesNotRevokeTokens() {
+        // Given
+        Long userId = 1L;
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches("oldPassword", testUser.getPassword())).thenReturn(true);
+        when(passwordEncoder.encode("newPassword")).thenReturn("encodedNewPassword");
+        when(userRepository.updatePassword(userId, "encodedNewPassword", 0L)).thenReturn(0);
+
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> authService.changePassword(userId, "oldPassword", "newPassword"));
+        verifyNoInteractions(revocationRegistry);
     }
 
     @Test
@@ -248,4 +312,9 @@ class AuthServiceTest {
         assertThrows(BadCredentialsException.class, 
                 () -> authService.changePassword(userId, "wrongPassword", "newPassword"));
     }
+
+    private JwtClaims claims(JwtClaims.Type type) {
+        return new JwtClaims(TestConstants.TEST_EMAIL, testUser.getId(), Set.of(RoleName.ROLE_USER), 0, type,
+                Instant.now(), Instant.now().plusSeconds(60));
+    }
 }
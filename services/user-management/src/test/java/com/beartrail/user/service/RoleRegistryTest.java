@@ -0,0 +1,100 @@
+package com.beartrail.user.service;
+
+import com.beartrail.user.model.Role;
+import com.beartrail.user.model.RoleName;
+import com.beartrail.user.repository.RoleRepository;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleRegistryTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private RoleRegistry roleRegistry;
+    private Role userRole;
+
+    @BeforeEach
+    void setUp() {
+        userRole = role(1L, RoleName.ROLE_USER);
+        roleRegistry = new RoleRegistry(roleRepository);
+    }
+
+    @Test
+    void findByName_AfterStartupLoad_DoesNotQuery() {
+        // Given
+        when(roleRepository.findAll()).thenReturn(List.of(userRole));
+        roleRegistry.refresh();
+
+        // When
+        Optional<Role> first = roleRegistry.findByName(RoleName.ROLE_USER);
+        Optional<Role> second = roleRegistry.findByName(RoleName.ROLE_USER);
+
+        // Then
+        assertSame(userRole, first.orElseThrow());
+        assertSame(userRole, second.orElseThrow());
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void findByName_AfterRoleChange_Reloads() {
+        // Given
+        Role recreated = role(2L, RoleName.ROLE_USER);
+        when(roleRepository.findAll()).thenReturn(List.of(userRole), List.of(recreated));
+        roleRegistry.refresh();
+        PostInsertEvent event = mock(PostInsertEvent.class);
+        when(event.getEntity()).thenReturn(recreated);
+
+        // When
+        roleRegistry.onPostInsert(event);
+
+        // Then
+        assertSame(recreated, roleRegistry.findByName(RoleName.ROLE_USER).orElseThrow());
+        verify(roleRepository, times(2)).findAll();
+    }
+
+    @Test
+    void findByName_MissingRole_ReloadsOnce() {
+        // Given
+        when(roleRepository.findAll()).thenReturn(List.of(userRole));
+        roleRegistry.refresh();
+
+        // When
+        Optional<Role> admin = roleRegistry.findByName(RoleName.ROLE_ADMIN);
+
+        // Then
+        assertTrue(admin.isEmpty());
+        verify(roleRepository, times(2)).findAll();
+    }
+
+    @Test
+    void authoritiesOf_SharesOneInstancePerRole() {
+        // When
+        List<GrantedAuthority> authorities = RoleRegistry.authoritiesOf(Set.of(userRole));
+
+        // Then
+        assertEquals("ROLE_USER", authorities.get(0).getAuthority());
+        assertSame(RoleRegistry.authority(RoleName.ROLE_USER), authorities.get(0));
+        assertSame(authorities.get(0), RoleRegistry.authoritiesOf(Set.of(role(3L, RoleName.ROLE_USER))).get(0));
+    }
+
+    private static Role role(Long id, RoleName name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
@@ -6,8 +6,8 @@ import com.beartrail.user.exception.UserAlreadyExistsException;
 import com.beartrail.user.model.Role;
 import com.beartrail.user.model.RoleName;
 import com.beartrail.user.model.User;
-import com.beartrail.user.repository.RoleRepository;
 import com.beartrail.user.repository.UserRepository;
+import com.beartrail.user.security.TokenRevocationRegistry;
 import com.beartrail.user.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
@@ -31,11 +32,14 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -125,8 +129,7 @@ class UserServiceTest {
         userRole.setId(1L);
         userRole.setName(RoleName.ROLE_USER);
 
-        when(userRepository.findByEmail(registrationRequest.getEmail())).thenReturn(Optional.empty());
-        when(roleRepository.findByName(RoleName.ROLE_USER)).thenReturn(Optional.of(userRole));
+        when(roleRegistry.findByName(RoleName.ROLE_USER)).thenReturn(Optional.of(userRole));
         when(passwordEncoder.encode(registrationRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
@@ -140,7 +143,7 @@ class UserServiceTest {
         assertEquals(registrationRequest.getLastName(), savedUser.getLastName());
         assertEquals(registrationRequest.getEmail(), savedUser.getEmail());
         
-        verify(roleRepository).findByName(RoleName.ROLE_USER);
+        verify(roleRegistry).findByName(RoleName.ROLE_USER);
         verify(passwordEncoder).encode(registrationRequest.getPassword());
         verify(userRepository).save(any(User.class));
     }
@@ -148,7 +151,13 @@ class UserServiceTest {
     @Test
     void registerUser_EmailAlreadyExists() {
         // Given
-        when(userRepository.findByEmail(registrationRequest.getEmail())).thenReturn(Optional.of(testUser));
+        Role userRole = new Role();
+        userRole.setId(1L);
+        userRole.setName(RoleName.ROLE_USER);
+
+        when(roleRegistry.findByName(RoleName.ROLE_USER)).thenReturn(Optional.of(userRole));
+        when(passwordEncoder.encode(registrationRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("Duplicate email"));
 
         // When & Then
         UserAlreadyExistsException exception = assertThrows(
@@ -157,8 +166,7 @@ class UserServiceTest {
         );
 
         assertEquals("Email already in use", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
-        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
@@ -181,8 +189,7 @@ class UserServiceTest {
         savedUser.setEmail("jane.smith@example.com");
         savedUser.setPassword("encodedDifferentPassword");
 
-        when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.empty());
-        when(roleRepository.findByName(RoleName.ROLE_USER)).thenReturn(Optional.of(userRole));
+        when(roleRegistry.findByName(RoleName.ROLE_USER)).thenReturn(Optional.of(userRole));
         when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedDifferentPassword");
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
 
@@ -196,7 +203,7 @@ class UserServiceTest {
         assertEquals("Smith", user.getLastName());
         assertEquals("jane.smith@example.com", user.getEmail());
 
-        verify(roleRepository).findByName(RoleName.ROLE_USER);
+        verify(roleRegistry).findByName(RoleName.ROLE_USER);
     }
 
     @Test
@@ -209,6 +216,22 @@ class UserServiceTest {
 
         // Then
         assertFalse(result);
+        verifyNoInteractions(revocationRegistry);
+    }
+
+    @Test
+    void deleteUser_UserExists_DeletesAndRevokesTokens() {
+        // Given
+        Long userId = 1L;
+        when(userRepository.deleteUserById(userId)).thenReturn(1);
+
+        // When
+        Boolean result = userService.deleteUser(userId);
+
+        // Then
+        assertTrue(result);
+        verify(userRepository, never()).findById(userId);
+        verify(revocationRegistry).revokeAll(userId);
     }
 
     @Test
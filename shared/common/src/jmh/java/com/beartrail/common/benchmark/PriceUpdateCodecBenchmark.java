@@ -0,0 +1,114 @@
+package com.beartrail.common.benchmark;
+
+import com.beartrail.common.event.PriceUpdate;
+import com.beartrail.common.event.PriceUpdateCodec;
+import com.beartrail.common.event.SymbolDictionary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of one burst of {@code instruments} price updates as Jackson JSON (the current
+ * {@code market-data-updates} payload) against {@link PriceUpdateCodec}. Each benchmark reports the bytes
+ * per message of its encoding as the {@code bytesPerMessage} secondary result; allocation per burst comes
+ * from the gc profiler's {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceUpdateCodecBenchmark {
+
+    @Param("10000")
+    private int instruments;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PriceUpdateCodec codec;
+    private List<PriceUpdate> updates;
+    private List<byte[]> jsonMessages;
+    private List<byte[]> binaryMessages;
+    private double jsonBytesPerMessage;
+    private double binaryBytesPerMessage;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> symbols = new ArrayList<>(instruments);
+        updates = new ArrayList<>(instruments);
+        for (int i = 0; i < instruments; i++) {
+            String symbol = "NSE_EQ|INE" + String.format("%06d", i) + "01018";
+            double price = 100 + i % 500;
+            symbols.add(symbol);
+            updates.add(new PriceUpdate(symbol, "I1", 1_754_451_660_000L, price + 0.25, price, price + 1, price - 1, price + 0.5, 1_000L + i));
+        }
+        codec = new PriceUpdateCodec(new SymbolDictionary(symbols));
+
+        jsonMessages = new ArrayList<>(instruments);
+        binaryMessages = new ArrayList<>(instruments);
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        for (PriceUpdate update : updates) {
+            byte[] json = objectMapper.writeValueAsBytes(update);
+            byte[] binary = codec.encode(update);
+            jsonMessages.add(json);
+            binaryMessages.add(binary);
+            jsonBytes += json.length;
+            binaryBytes += binary.length;
+        }
+        jsonBytesPerMessage = (double) jsonBytes / instruments;
+        binaryBytesPerMessage = (double) binaryBytes / instruments;
+    }
+
+    @Benchmark
+    public void encodeJson(Payload payload, Blackhole blackhole) throws IOException {
+        payload.bytesPerMessage = jsonBytesPerMessage;
+        for (PriceUpdate update : updates) {
+            blackhole.consume(objectMapper.writeValueAsBytes(update));
+        }
+    }
+
+    @Benchmark
+    public void encodeBinary(Payload payload, Blackhole blackhole) {
+        payload.bytesPerMessage = binaryBytesPerMessage;
+        for (PriceUpdate update : updates) {
+            blackhole.consume(codec.encode(update));
+        }
+    }
+
+    @Benchmark
+    public void decodeJson(Payload payload, Blackhole blackhole) throws IOException {
+        payload.bytesPerMessage = jsonBytesPerMessage;
+        for (byte[] message : jsonMessages) {
+            blackhole.consume(objectMapper.readValue(message, PriceUpdate.class));
+        }
+    }
+
+    @Benchmark
+    public void decodeBinary(Payload payload, Blackhole blackhole) {
+        payload.bytesPerMessage = binaryBytesPerMessage;
+        for (byte[] message : binaryMessages) {
+            blackhole.consume(codec.decode(message));
+        }
+    }
+
+    /**
+     * Reported as-is next to the timing, so each result carries its own wire size.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+
+        public double bytesPerMessage;
+    }
+}
@@ -0,0 +1,20 @@
+package com.beartrail.common.event;
+
+/**
+ * A price update as published on {@code market-data-updates}: one candle of one symbol. Absent prices
+ * are {@code NaN} and an absent volume is {@code 0}, so the event is fixed-width on the wire and never
+ * boxes.
+ *
+ * @param timeInterval Upstox interval value, e.g. {@code I1} or {@code 1d}.
+ * @param timestamp    Candle start, epoch milliseconds.
+ */
+public record PriceUpdate(String symbol,
+                          String timeInterval,
+                          long timestamp,
+                          double lastPrice,
+                          double openPrice,
+                          double highPrice,
+                          double lowPrice,
+                          double closePrice,
+                          long volume) {
+}
@@ -0,0 +1,119 @@
+package com.beartrail.common.event;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compact binary encoding of {@link PriceUpdate}, big-endian:
+ * <pre>
+ * u8   version            (1)
+ * u8   flags              bit 0: symbol is a dictionary id
+ * u8   interval code      1..8 for the known Upstox intervals, 0 = inline (u8 length + ASCII)
+ * symbol                  dictionary: i32 dictionary fingerprint, i32 id; inline: u16 length + UTF-8
+ * i64  timestamp
+ * i64  volume
+ * f64  last, open, high, low, close   (NaN = absent)
+ * </pre>
+ * A one-minute candle with a dictionary symbol is 67 bytes, against 190 for the same update as Jackson JSON.
+ * Decoders reject versions they do not know, so the layout can evolve by bumping {@link #VERSION}.
+ * <p>
+ * Thread-safe.
+ */
+public final class PriceUpdateCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_DICTIONARY_SYMBOL = 1;
+    private static final List<String> INTERVALS = List.of("I1", "I5", "I15", "I30", "I60", "I240", "1d", "1w");
+    private static final int FIXED_WIDTH = 2 * Long.BYTES + 5 * Double.BYTES;
+
+    private final SymbolDictionary dictionary;
+
+    public PriceUpdateCodec(SymbolDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public byte[] encode(PriceUpdate update) {
+        int symbolId = dictionary.idOf(update.symbol());
+        byte[] symbolBytes = symbolId < 0 ? update.symbol().getBytes(StandardCharsets.UTF_8) : null;
+        int intervalCode = INTERVALS.indexOf(update.timeInterval()) + 1;
+        byte[] intervalBytes = intervalCode == 0 ? update.timeInterval().getBytes(StandardCharsets.US_ASCII) : null;
+        if (symbolBytes != null && symbolBytes.length > 0xFFFF || intervalBytes != null && intervalBytes.length > 0xFF) {
+            throw new IllegalArgumentException("Symbol or interval too long to encode: " + update);
+        }
+
+        int size = 3 + (intervalBytes != null ? 1 + intervalBytes.length : 0)
+                + (symbolBytes != null ? 2 + symbolBytes.length : 2 * Integer.BYTES)
+                + FIXED_WIDTH;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION);
+        buffer.put((byte) (symbolBytes == null ? FLAG_DICTIONARY_SYMBOL : 0));
+        buffer.put((byte) intervalCode);
+        if (intervalBytes != null) {
+            buffer.put((byte) intervalBytes.length).put(intervalBytes);
+        }
+        if (symbolBytes == null) {
+            buffer.putInt(dictionary.fingerprint()).putInt(symbolId);
+        } else {
+            buffer.putShort((short) symbolBytes.length).put(symbolBytes);
+        }
+        buffer.putLong(update.timestamp())
+                .putLong(update.volume())
+                .putDouble(update.lastPrice())
+                .putDouble(update.openPrice())
+                .putDouble(update.highPrice())
+                .putDouble(update.lowPrice())
+                .putDouble(update.closePrice());
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException If the message is truncated, has an unknown version, or refers to
+     *                                  a different symbol dictionary.
+     */
+    public PriceUpdate decode(byte[] message) {
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported price update format version " + version);
+            }
+            int flags = buffer.get();
+            int intervalCode = Byte.toUnsignedInt(buffer.get());
+            String interval;
+            if (intervalCode == 0) {
+                interval = readString(buffer, Byte.toUnsignedInt(buffer.get()), StandardCharsets.US_ASCII);
+            } else if (intervalCode <= INTERVALS.size()) {
+                interval = INTERVALS.get(intervalCode - 1);
+            } else {
+                throw new IllegalArgumentException("Unknown interval code " + intervalCode);
+            }
+            String symbol;
+            if ((flags & FLAG_DICTIONARY_SYMBOL) != 0) {
+                int fingerprint = buffer.getInt();
+                if (fingerprint != dictionary.fingerprint()) {
+                    throw new IllegalArgumentException("Price update encoded with a different symbol dictionary");
+                }
+                symbol = dictionary.symbolOf(buffer.getInt());
+            } else {
+                symbol = readString(buffer, Short.toUnsignedInt(buffer.getShort()), StandardCharsets.UTF_8);
+            }
+            long timestamp = buffer.getLong();
+            long volume = buffer.getLong();
+            return new PriceUpdate(symbol, interval, timestamp,
+                    buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                    volume);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated price update message of " + message.length + " bytes", e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int length, Charset charset) {
+        String value = new String(buffer.array(), buffer.position(), length, charset);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.beartrail.common.event;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered list of symbols shared by producers and consumers of {@link PriceUpdateCodec} messages, so a
+ * symbol travels as its index instead of its text and decodes to the same interned {@code String} every
+ * time. Both sides must load the same list; messages carry the dictionary's {@link #fingerprint()} and
+ * are rejected by a consumer holding a different one. Symbols missing from the dictionary are sent inline.
+ */
+public final class SymbolDictionary {
+
+    public static final SymbolDictionary EMPTY = new SymbolDictionary(List.of());
+
+    private final String[] symbols;
+    private final Map<String, Integer> ids;
+    private final int fingerprint;
+
+    public SymbolDictionary(List<String> symbols) {
+        this.symbols = symbols.toArray(String[]::new);
+        this.ids = new HashMap<>(symbols.size() * 2);
+        for (int i = 0; i < this.symbols.length; i++) {
+            ids.putIfAbsent(this.symbols[i], i);
+        }
+        this.fingerprint = symbols.hashCode();
+    }
+
+    /**
+     * Loads a dictionary from a classpath resource with one symbol per line; blank lines and lines
+     * starting with {@code #} are ignored.
+     */
+    public static SymbolDictionary fromResource(String resource) {
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Symbol dictionary " + resource + " not found on the classpath");
+            }
+            List<String> symbols = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String symbol = line.trim();
+                if (!symbol.isEmpty() && !symbol.startsWith("#")) {
+                    symbols.add(symbol);
+                }
+            }
+            return new SymbolDictionary(symbols);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read symbol dictionary " + resource, e);
+        }
+    }
+
+    /**
+     * @return The symbol's id, or {@code -1} if it is not in the dictionary.
+     */
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    public String symbolOf(int id) {
+        if (id < 0 || id >= symbols.length) {
+            throw new IllegalArgumentException("Symbol id " + id + " outside dictionary of " + symbols.length);
+        }
+        return symbols[id];
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public int fingerprint() {
+        return fingerprint;
+    }
+}
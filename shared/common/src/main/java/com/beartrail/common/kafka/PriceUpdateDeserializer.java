@@ -0,0 +1,47 @@
+package com.beartrail.common.kafka;
+
+import com.beartrail.common.event.PriceUpdate;
+import com.beartrail.common.event.PriceUpdateCodec;
+import com.beartrail.common.event.SymbolDictionary;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for the {@link PriceUpdateCodec} binary format; configured the same way as
+ * {@link PriceUpdateSerializer}. Messages with an unknown version or from a different symbol dictionary
+ * fail with a {@link SerializationException}.
+ */
+public class PriceUpdateDeserializer implements Deserializer<PriceUpdate> {
+
+    private PriceUpdateCodec codec;
+
+    public PriceUpdateDeserializer() {
+        this(SymbolDictionary.EMPTY);
+    }
+
+    public PriceUpdateDeserializer(SymbolDictionary dictionary) {
+        this.codec = new PriceUpdateCodec(dictionary);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object resource = configs.get(PriceUpdateSerializer.SYMBOL_DICTIONARY_CONFIG);
+        if (resource != null) {
+            codec = new PriceUpdateCodec(SymbolDictionary.fromResource(resource.toString()));
+        }
+    }
+
+    @Override
+    public PriceUpdate deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return codec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Failed to deserialize price update from " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.beartrail.common.kafka;
+
+import com.beartrail.common.event.PriceUpdate;
+import com.beartrail.common.event.PriceUpdateCodec;
+import com.beartrail.common.event.SymbolDictionary;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer writing {@link PriceUpdate}s in the {@link PriceUpdateCodec} binary format.
+ * Configure a shared symbol dictionary with {@value #SYMBOL_DICTIONARY_CONFIG} (a classpath resource) or
+ * pass one to the constructor; without one, symbols are written inline.
+ */
+public class PriceUpdateSerializer implements Serializer<PriceUpdate> {
+
+    public static final String SYMBOL_DICTIONARY_CONFIG = "beartrail.price-update.symbol-dictionary";
+
+    private PriceUpdateCodec codec;
+
+    public PriceUpdateSerializer() {
+        this(SymbolDictionary.EMPTY);
+    }
+
+    public PriceUpdateSerializer(SymbolDictionary dictionary) {
+        this.codec = new PriceUpdateCodec(dictionary);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object resource = configs.get(SYMBOL_DICTIONARY_CONFIG);
+        if (resource != null) {
+            codec = new PriceUpdateCodec(SymbolDictionary.fromResource(resource.toString()));
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, PriceUpdate data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return codec.encode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Failed to serialize price update for " + data.symbol(), e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.beartrail.common.event;
+
+import com.beartrail.common.kafka.PriceUpdateDeserializer;
+import com.beartrail.common.kafka.PriceUpdateSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceUpdateCodecTest {
+
+    private static final String TEST_SYMBOL = "NSE_EQ|INE002A01018";
+    private static final SymbolDictionary DICTIONARY = new SymbolDictionary(List.of("NSE_EQ|INE009A01021", TEST_SYMBOL));
+
+    private final PriceUpdate update = new PriceUpdate(TEST_SYMBOL, "I1", 1_754_452_800_000L,
+            2850.5, 2848.0, 2851.25, 2847.75, 2850.0, 12_345L);
+
+    @Test
+    void encode_dictionarySymbol_roundTripsInFixedWidth() {
+        PriceUpdateCodec codec = new PriceUpdateCodec(DICTIONARY);
+
+        byte[] message = codec.encode(update);
+
+        assertEquals(67, message.length);
+        assertEquals(PriceUpdateCodec.VERSION, message[0]);
+        PriceUpdate decoded = codec.decode(message);
+        assertEquals(update, decoded);
+        assertSame(codec.decode(message).symbol(), decoded.symbol());             // dictionary string, not a copy
+    }
+
+    @Test
+    void encode_dictionarySymbol_isAboutAThirdOfJson() throws Exception {
+        byte[] json = new ObjectMapper().writeValueAsBytes(update);
+
+        byte[] binary = new PriceUpdateCodec(DICTIONARY).encode(update);
+
+        assertEquals(190, json.length);
+        assertEquals(67, binary.length);
+    }
+
+    @Test
+    void encode_unknownSymbolAndInterval_areWrittenInline() {
+        PriceUpdate custom = new PriceUpdate("BSE_EQ|INE467B01029", "I3", 1L, Double.NaN, Double.NaN, Double.NaN, Double.NaN, 99.5, 0L);
+        PriceUpdateCodec codec = new PriceUpdateCodec(DICTIONARY);
+
+        PriceUpdate decoded = codec.decode(codec.encode(custom));
+
+        assertEquals("BSE_EQ|INE467B01029", decoded.symbol());
+        assertEquals("I3", decoded.timeInterval());
+        assertTrue(Double.isNaN(decoded.lastPrice()));
+        assertEquals(99.5, decoded.closePrice());
+    }
+
+    @Test
+    void decode_differentDictionary_isRejected() {
+        byte[] message = new PriceUpdateCodec(DICTIONARY).encode(update);
+        PriceUpdateCodec other = new PriceUpdateCodec(new SymbolDictionary(List.of(TEST_SYMBOL)));
+
+        assertThrows(IllegalArgumentException.class, () -> other.decode(message));
+    }
+
+    @Test
+    void decode_unknownVersionOrTruncated_isRejected() {
+        PriceUpdateCodec codec = new PriceUpdateCodec(DICTIONARY);
+        byte[] message = codec.encode(update);
+        byte[] future = message.clone();
+        future[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(future));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(message, 20)));
+    }
+
+    @Test
+    void serializerAndDeserializer_roundTripAndWrapErrors() {
+        byte[] message = new PriceUpdateSerializer(DICTIONARY).serialize("market-data-updates", update);
+        PriceUpdateDeserializer deserializer = new PriceUpdateDeserializer(DICTIONARY);
+
+        assertEquals(update, deserializer.deserialize("market-data-updates", message));
+        assertNull(deserializer.deserialize("market-data-updates", null));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("market-data-updates", new byte[] {9}));
+    }
+}